@@ -1,10 +1,13 @@
 package org.neo4j.graphalgo.impl;
 
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathFile;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathTrie;
+
 import java.io.FileOutputStream;
 import java.io.PrintStream;
 import java.io.*;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class FilterMetaPaths extends Algorithm<FilterMetaPaths> {
 
@@ -14,58 +17,38 @@ public class FilterMetaPaths extends Algorithm<FilterMetaPaths> {
         this.out = new PrintStream(new FileOutputStream("Filtered_MetaPaths.txt"));//ends up in root/tests //or in dockerhome
     }
 
-    public Result filter(String startLabel, String endLabel)//TODO: write test for filter
+    /**
+     * filter the meta-paths precomputed by algo.computeAllMetaPaths, from the binary file if
+     * it is present and from the text file otherwise
+     */
+    public Result filter(String startLabel, String endLabel)
     {
-        LinkedHashMap<String, Long> metaPathDict = new LinkedHashMap<>();
-        try(BufferedReader br = new BufferedReader(new FileReader("Precomputed_MetaPaths.txt"))) {
-            String line = br.readLine();
-
-            while (line != null) {
-                String[] parts = line.split(Pattern.quote("\t"));
-                metaPathDict.put(parts[0], Long.parseLong(parts[1]));
-                line = br.readLine();
-            }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+        String filePath = MetaPathFile.isMetaPathFile("Precomputed_MetaPaths.bin") ? "Precomputed_MetaPaths.bin" : "Precomputed_MetaPaths.txt";
+        MetaPathTrie metaPathTrie;
+        try {
+            metaPathTrie = MetaPathTrie.load(filePath);
         } catch (IOException e) {
             e.printStackTrace();
+            metaPathTrie = new MetaPathTrie();
         }
+        return filter(metaPathTrie, Integer.parseInt(startLabel), Integer.parseInt(endLabel));
+    }
 
+    /**
+     * collect all meta-paths of the trie with the given start and end label
+     */
+    public Result filter(MetaPathTrie metaPathTrie, int startLabel, int endLabel)
+    {
         HashMap<String, Long> filteredMetaPathsDict = new HashMap<>();
-        Object[] arrayMetaPaths =  metaPathDict.keySet().toArray();
-        int filterIndex = Arrays.binarySearch(arrayMetaPaths, startLabel + " | " + endLabel,
-                (a, b) -> metaPathCompare(a.toString(), b.toString()));//TODO: write test for sort
-
-        if(filterIndex < 0) filterIndex = -filterIndex-1;
-        while(filterIndex >= 0 && metaPathCompare(startLabel + " | " + endLabel, arrayMetaPaths[filterIndex].toString()) == 0)
-        {
-            filterIndex--;
-        }
-        filterIndex++;
-
-        while(filterIndex < arrayMetaPaths.length && metaPathCompare(startLabel + " | " + endLabel, arrayMetaPaths[filterIndex].toString()) == 0)
-        {
-            String metaPath = arrayMetaPaths[filterIndex].toString();
-            filteredMetaPathsDict.put(metaPath, metaPathDict.get(metaPath));
-            out.println(metaPath + "\t" + metaPathDict.get(metaPath));
-            filterIndex++;
-        }
+        metaPathTrie.forEach(startLabel, endLabel, (metaPath, count) -> {
+            String joinedMetaPath = Arrays.stream(metaPath).mapToObj(Integer::toString).collect(Collectors.joining(" | "));
+            filteredMetaPathsDict.put(joinedMetaPath, count);
+            out.println(joinedMetaPath + "\t" + count);
+        });
 
         return new Result(filteredMetaPathsDict);
     }
 
-    private int metaPathCompare(String a, String b) {
-        String[] partsA = a.split(Pattern.quote(" | "));
-        String[] partsB = b.split(Pattern.quote(" | "));
-        boolean firstLabelEqual = Integer.parseInt(partsA[0]) == Integer.parseInt(partsB[0]);
-        boolean lastLabelEqual = Integer.parseInt(partsA[partsA.length - 1]) == Integer.parseInt(partsB[partsB.length - 1]);
-        boolean firstLabelSmaller = Integer.parseInt(partsA[0]) < Integer.parseInt(partsB[0]);
-        boolean lastLabelSmaller = Integer.parseInt(partsA[partsA.length - 1]) < Integer.parseInt(partsB[partsB.length - 1]);
-
-        return  firstLabelSmaller || (firstLabelEqual && lastLabelSmaller) ? -1 :
-                firstLabelEqual && lastLabelEqual ? 0 : 1;
-    }
-
     @Override
     public FilterMetaPaths me() { return this; }
 
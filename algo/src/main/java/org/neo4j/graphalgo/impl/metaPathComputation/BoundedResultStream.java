@@ -0,0 +1,156 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import com.carrotsearch.hppc.AbstractIterator;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.helpers.NamedThreadFactory;
+
+import java.util.Iterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A stream of results produced in the background and handed over through a bounded queue.
+ * <p>
+ * The producers block in {@link #put} while the queue is full, so the results are never
+ * materialised as a whole. Once the stream is closed or the termination flag is unset they
+ * stop blocking, {@link #put} returns false and the queued results are dropped. The end of the
+ * results is always delivered to the consumer, even if the queue is full at that point.
+ * <p>
+ * A slow consumer must not starve the shared pools: the producer runs on a thread of its own
+ * and {@link #put} blocks through {@link ForkJoinPool#managedBlock}, so fork join workers
+ * waiting for the consumer are compensated by their pool.
+ */
+public final class BoundedResultStream<T> {
+
+    private static final Object DONE = new Object();
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final ExecutorService PRODUCERS = Executors.newCachedThreadPool(NamedThreadFactory.daemon("algo-result-stream"));
+
+    private final BlockingQueue<Object> queue;
+    private final TerminationFlag terminationFlag;
+    private volatile boolean closed = false;
+    private volatile Throwable error = null;
+
+    public BoundedResultStream(int capacity, TerminationFlag terminationFlag) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.terminationFlag = terminationFlag;
+    }
+
+    /**
+     * run the producer on a dedicated thread and return the stream of the results it puts
+     */
+    public Stream<T> start(Runnable producer) {
+        PRODUCERS.execute(() -> {
+            try {
+                producer.run();
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                finish();
+            }
+        });
+
+        Iterator<T> iterator = new AbstractIterator<T>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            protected T fetch() {
+                try {
+                    Object result = queue.take();
+                    if (result == DONE) {
+                        if (error != null) {
+                            throw new RuntimeException(error);
+                        }
+                        return done();
+                    }
+                    return (T) result;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, 0), false)
+                .onClose(() -> {
+                    closed = true;
+                    queue.clear();
+                });
+    }
+
+    /**
+     * hand one result to the consumer, blocking while the queue is full
+     *
+     * @return false if the stream has been closed or terminated and no more results are taken
+     */
+    public boolean put(T result) {
+        return offer(result);
+    }
+
+    /**
+     * @return true if the stream has been closed or terminated
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private boolean offer(Object result) {
+        Offer offer = new Offer(result);
+        try {
+            ForkJoinPool.managedBlock(offer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closed = true;
+        }
+        return offer.offered;
+    }
+
+    /**
+     * Deliver the end behind all results if they are still taken, otherwise drop them. The
+     * queue is cleared until the end fits, producers still running cannot block this.
+     */
+    private void finish() {
+        if (offer(DONE)) {
+            return;
+        }
+        while (!queue.offer(DONE)) {
+            queue.clear();
+        }
+    }
+
+    /**
+     * one result waiting for space in the queue, gives up once the stream is closed or terminated
+     */
+    private final class Offer implements ForkJoinPool.ManagedBlocker {
+        private final Object result;
+        private boolean offered = false;
+
+        Offer(Object result) {
+            this.result = result;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (!isReleasable()) {
+                offered = queue.offer(result, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (!offered && !terminationFlag.running()) {
+                    closed = true;
+                }
+            }
+            return offered || closed;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (!offered && !closed) {
+                offered = queue.offer(result);
+            }
+            return offered || closed;
+        }
+    }
+}
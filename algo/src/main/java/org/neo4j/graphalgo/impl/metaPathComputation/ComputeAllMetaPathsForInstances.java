@@ -2,10 +2,14 @@ package org.neo4j.graphalgo.impl.metaPathComputation;
 
         import com.carrotsearch.hppc.*;
         import com.carrotsearch.hppc.cursors.IntCursor;
+        import com.carrotsearch.hppc.cursors.IntObjectCursor;
+        import com.carrotsearch.hppc.cursors.LongObjectCursor;
         import org.neo4j.graphalgo.api.ArrayGraphInterface;
         import org.neo4j.graphalgo.api.IdMapping;
         import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+        import org.neo4j.graphalgo.core.utils.container.RoaringBitSet;
         import org.neo4j.graphalgo.core.utils.paged.IntArray;
+        import org.neo4j.graphdb.Direction;
 
         import java.io.FileOutputStream;
         import java.io.PrintStream;
@@ -18,12 +22,16 @@ package org.neo4j.graphalgo.impl.metaPathComputation;
 
         import static java.lang.Float.max;
 
+/**
+ * @deprecated use {@link InstanceMetaPaths}, which computes the start nodes in parallel and returns the counts per target node
+ */
 @Deprecated
 public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
 
     private ArrayGraphInterface arrayGraphInterface;
+    private IdMapping idMapping;
     private int metaPathLength;
-    private ArrayList<IntHashSet> initialInstances;
+    private ArrayList<RoaringBitSet> initialInstances;
     private int currentLabelId = 0;
     private HashSet<String> duplicateFreeMetaPaths = new HashSet<>();
     private PrintStream out;
@@ -34,14 +42,17 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
     private HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer> labelDictionary;
     private List<Integer> startNodes;
     private List<Integer> endNodes;
-    private HashMap<Integer, HashSet<AbstractMap.SimpleEntry<IntArrayList, IntArrayList>>> highDegreeIndex;
+    private RoaringBitSet endNodeSet;
+    private HashMap<Integer, HashSet<AbstractMap.SimpleEntry<IntArrayList, RoaringBitSet>>> highDegreeIndex;
+    private boolean bidirectional = false;
 
     public ComputeAllMetaPathsForInstances(HeavyGraph graph, ArrayGraphInterface arrayGraphInterface, int metaPathLength, List<Integer> startNodes, List<Integer> endNodes) throws IOException {
         this.arrayGraphInterface = arrayGraphInterface;
+        this.idMapping = graph;
         this.metaPathLength = metaPathLength;
         this.initialInstances = new ArrayList<>();
         for (int i = 0; i < arrayGraphInterface.getAllLabels().size() * arrayGraphInterface.getAllEdgeLabels().size(); i++) {
-            this.initialInstances.add(new IntHashSet());
+            this.initialInstances.add(new RoaringBitSet());
         }
         this.out = new PrintStream(new FileOutputStream("Precomputed_MetaPaths_Instances.txt"));//ends up in root/tests //or in dockerhome
         this.debugOut = new PrintStream(new FileOutputStream("Precomputed_MetaPaths_Instances_Debug.txt"));
@@ -50,6 +61,10 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
         this.highDegreeIndex = new HashMap<>();
         this.startNodes = startNodes;
         this.endNodes = endNodes;
+        this.endNodeSet = new RoaringBitSet();
+        for (int endNode : endNodes) {
+            endNodeSet.add(endNode);
+        }
 
         readPrecomputedData();
     }
@@ -67,21 +82,38 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
         return new Result(finalMetaPaths);
     }
 
+    /**
+     * search from the start and the end nodes towards each other instead of
+     * expanding the start nodes to the full meta-path length
+     */
+    public ComputeAllMetaPathsForInstances withBidirectionalSearch(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+        return this;
+    }
+
     public HashSet<String> computeAllMetaPaths() {
         initializeLabelDictAndInitialInstances();
-        computeMetaPathsFromAllRelevantNodeLabels();
+        if (bidirectional) {
+            computeMetaPathsBidirectional();
+        } else {
+            computeMetaPathsFromAllRelevantNodeLabels();
+        }
 
         return duplicateFreeMetaPaths;
     }
 
     private void readPrecomputedData() {
+        if (HubIndexFile.isHubIndexFile("Precomputed_MetaPaths_HighDegree.bin")) {
+            readHubIndex("Precomputed_MetaPaths_HighDegree.bin");
+            return;
+        }
         try(BufferedReader br = new BufferedReader(new FileReader("Precomputed_MetaPaths_HighDegree.txt"))) {
             String line = br.readLine();
 
             while (line != null) {
                 String[] parts = line.split(Pattern.quote(":"));
                 String[] partsForInstance = parts[1].split(Pattern.quote("-"));
-                HashSet<AbstractMap.SimpleEntry<IntArrayList, IntArrayList>> precomputedForInstance = new HashSet<>();
+                HashSet<AbstractMap.SimpleEntry<IntArrayList, RoaringBitSet>> precomputedForInstance = new HashSet<>();
                 for (String part : partsForInstance) {
                     String[] pair = part.split(Pattern.quote("="));
 
@@ -91,16 +123,15 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
                         pair0.add(Integer.valueOf(pathElement));
                     }
                     String[] endElements = pair[1].split(Pattern.quote(","));
-                    IntArrayList pair1 = new IntArrayList();
+                    RoaringBitSet pair1 = new RoaringBitSet();
                     for (String endElement : endElements) {
                         pair1.add(Integer.valueOf(endElement));
                     }
 
-                    AbstractMap.SimpleEntry<IntArrayList, IntArrayList> resultPair = new AbstractMap.SimpleEntry<>(pair0, pair1);
+                    AbstractMap.SimpleEntry<IntArrayList, RoaringBitSet> resultPair = new AbstractMap.SimpleEntry<>(pair0, pair1);
                     precomputedForInstance.add(resultPair);
                 }
-                IntArrayList endNodesForEmptyMetaPath = new IntArrayList();
-                endNodesForEmptyMetaPath.add(Integer.valueOf(parts[0]));
+                RoaringBitSet endNodesForEmptyMetaPath = RoaringBitSet.of(Integer.valueOf(parts[0]));
             precomputedForInstance.add(new AbstractMap.SimpleEntry<>(new IntArrayList(), endNodesForEmptyMetaPath));
 
                 highDegreeIndex.put(Integer.valueOf(parts[0]), precomputedForInstance);
@@ -113,6 +144,34 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
         }
     }
 
+    private void readHubIndex(String filePath) {
+        try {
+            HubIndexFile.Reader reader = HubIndexFile.reader(filePath);
+            for (int i = 0; i < reader.size(); i++) {
+                if (!idMapping.contains(reader.nodeId(i))) {
+                    continue;
+                }
+                int hub = idMapping.toMappedNodeId(reader.nodeId(i));
+                HashSet<AbstractMap.SimpleEntry<IntArrayList, RoaringBitSet>> precomputedForInstance = new HashSet<>();
+                reader.forEachEntry(i, (metaPath, endNodes) -> {
+                    RoaringBitSet mappedEndNodes = new RoaringBitSet();
+                    for (long endNode : endNodes) {
+                        if (idMapping.contains(endNode)) {
+                            mappedEndNodes.add(idMapping.toMappedNodeId(endNode));
+                        }
+                    }
+                    precomputedForInstance.add(new AbstractMap.SimpleEntry<>(IntArrayList.from(metaPath), mappedEndNodes));
+                });
+                RoaringBitSet endNodesForEmptyMetaPath = RoaringBitSet.of(hub);
+                precomputedForInstance.add(new AbstractMap.SimpleEntry<>(new IntArrayList(), endNodesForEmptyMetaPath));
+
+                highDegreeIndex.put(hub, precomputedForInstance);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private void initializeLabelDictAndInitialInstances() {
         currentLabelId = 0;
 
@@ -161,12 +220,12 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
         }
     }
 
-    private void computeMetaPathFromNodeLabel(IntArrayList currentMetaPath, IntHashSet currentInstances, int metaPathLength) {
+    private void computeMetaPathFromNodeLabel(IntArrayList currentMetaPath, RoaringBitSet currentInstances, int metaPathLength) {
         if (metaPathLength <= 0) {
             return;
         }
 
-        ArrayList<IntHashSet> nextInstances = allocateNextInstances();
+        ArrayList<RoaringBitSet> nextInstances = allocateNextInstances();
         fillNextInstances(currentInstances, nextInstances, currentMetaPath, metaPathLength);
 
         currentInstances = null;//not sure if this helps or not
@@ -174,7 +233,7 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
         for (int edgeLabel : arrayGraphInterface.getAllEdgeLabels()) {
             for (int nodeLabel : arrayGraphInterface.getAllLabels()) {
                 int key = labelDictionary.get(new AbstractMap.SimpleEntry<>(edgeLabel, nodeLabel));
-                IntHashSet nextInstancesForLabel = nextInstances.get(key);
+                RoaringBitSet nextInstancesForLabel = nextInstances.get(key);
                 if (!nextInstancesForLabel.isEmpty()) {
                     nextInstances.set(key, null);
 
@@ -182,10 +241,8 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
                     newMetaPath.add(edgeLabel);
                     newMetaPath.add(nodeLabel);
 
-                    for (IntCursor node : nextInstancesForLabel) {
-                        if(endNodes.contains(node.value)) {
-                            addAndLogMetaPath(newMetaPath);
-                        }
+                    if (nextInstancesForLabel.intersects(endNodeSet)) {
+                        addAndLogMetaPath(newMetaPath);
                     }
 
                     computeMetaPathFromNodeLabel(newMetaPath, nextInstancesForLabel, metaPathLength - 1);
@@ -196,6 +253,132 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
         }
     }
 
+    /**
+     * Meet-in-the-middle search: the start nodes are expanded by ceil(h/2) and the end nodes
+     * by floor(h/2) hops, where h is at most metaPathLength - 1. A meta-path with h hops exists
+     * between the sets iff a forward partial meta-path of ceil(h/2) hops and a backward one of
+     * floor(h/2) hops reach a common node. The expansions are exact, the high degree index is
+     * not needed in this mode.
+     */
+    private void computeMetaPathsBidirectional() {
+        int maxHops = metaPathLength - 1;
+        List<List<Frontier>> forwardFrontiers = expandFrontiers(startNodes, (maxHops + 1) / 2);
+        List<List<Frontier>> backwardFrontiers = expandFrontiers(endNodes, maxHops / 2);
+
+        for (int hops = 1; hops <= maxHops && running(); hops++) {
+            int forwardHops = (hops + 1) / 2;
+            joinFrontiers(forwardFrontiers.get(forwardHops), backwardFrontiers.get(hops - forwardHops));
+        }
+    }
+
+    /**
+     * @return for each number of hops up to depth: the partial meta-paths starting at the given nodes and the nodes they reach
+     */
+    private List<List<Frontier>> expandFrontiers(List<Integer> nodes, int depth) {
+        IntObjectHashMap<RoaringBitSet> nodesByLabel = new IntObjectHashMap<>();
+        for (int node : nodes) {
+            int label = arrayGraphInterface.getLabel(node);
+            if (!nodesByLabel.containsKey(label)) {
+                nodesByLabel.put(label, new RoaringBitSet());
+            }
+            nodesByLabel.get(label).add(node);
+        }
+
+        List<Frontier> currentFrontiers = new ArrayList<>();
+        for (IntObjectCursor<RoaringBitSet> cursor : nodesByLabel) {
+            currentFrontiers.add(new Frontier(new int[]{cursor.key}, cursor.value));
+        }
+
+        List<List<Frontier>> frontiers = new ArrayList<>(depth + 1);
+        frontiers.add(currentFrontiers);
+        for (int i = 0; i < depth && running(); i++) {
+            List<Frontier> nextFrontiers = new ArrayList<>();
+            for (Frontier frontier : currentFrontiers) {
+                expandFrontier(frontier, nextFrontiers);
+            }
+            frontiers.add(nextFrontiers);
+            currentFrontiers = nextFrontiers;
+        }
+        return frontiers;
+    }
+
+    private void expandFrontier(Frontier frontier, List<Frontier> nextFrontiers) {
+        LongObjectHashMap<RoaringBitSet> nextInstances = new LongObjectHashMap<>(); // (edge label, node label) -> nodes
+        frontier.nodes.forEach(instance ->
+            arrayGraphInterface.forEachTypedRelationship(instance, Direction.BOTH, (sourceNodeId, targetNodeId, typeId, targetLabel) -> {
+                long key = ((long) typeId << 32) | (targetLabel & 0xFFFFFFFFL);
+                RoaringBitSet nextInstancesForLabel = nextInstances.get(key);
+                if (nextInstancesForLabel == null) {
+                    nextInstancesForLabel = new RoaringBitSet();
+                    nextInstances.put(key, nextInstancesForLabel);
+                }
+                nextInstancesForLabel.add(targetNodeId);
+                return true;
+            }));
+
+        for (LongObjectCursor<RoaringBitSet> cursor : nextInstances) {
+            int[] metaPath = Arrays.copyOf(frontier.metaPath, frontier.metaPath.length + 2);
+            metaPath[frontier.metaPath.length] = (int) (cursor.key >>> 32);
+            metaPath[frontier.metaPath.length + 1] = (int) cursor.key;
+            nextFrontiers.add(new Frontier(metaPath, cursor.value));
+        }
+    }
+
+    /**
+     * join forward and backward partial meta-paths which end in the same node label and reach a common node
+     */
+    private void joinFrontiers(List<Frontier> forwardFrontiers, List<Frontier> backwardFrontiers) {
+        IntObjectHashMap<List<Frontier>> backwardFrontiersByLabel = new IntObjectHashMap<>();
+        for (Frontier backwardFrontier : backwardFrontiers) {
+            int label = backwardFrontier.lastLabel();
+            if (!backwardFrontiersByLabel.containsKey(label)) {
+                backwardFrontiersByLabel.put(label, new ArrayList<>());
+            }
+            backwardFrontiersByLabel.get(label).add(backwardFrontier);
+        }
+
+        for (Frontier forwardFrontier : forwardFrontiers) {
+            List<Frontier> candidates = backwardFrontiersByLabel.get(forwardFrontier.lastLabel());
+            if (candidates == null) {
+                continue;
+            }
+            for (Frontier backwardFrontier : candidates) {
+                if (forwardFrontier.nodes.intersects(backwardFrontier.nodes)) {
+                    addAndLogMetaPath(joinMetaPaths(forwardFrontier.metaPath, backwardFrontier.metaPath));
+                }
+            }
+        }
+    }
+
+    /**
+     * append the reversed backward meta-path to the forward one, both end in the same node label
+     */
+    private IntArrayList joinMetaPaths(int[] forwardMetaPath, int[] backwardMetaPath) {
+        IntArrayList metaPath = new IntArrayList(forwardMetaPath.length + backwardMetaPath.length - 1);
+        metaPath.add(forwardMetaPath);
+        for (int i = backwardMetaPath.length - 2; i >= 0; i--) {
+            metaPath.add(backwardMetaPath[i]);
+        }
+        return metaPath;
+    }
+
+    /**
+     * A partial meta-path and the nodes reached by it
+     */
+    private static final class Frontier {
+        final int[] metaPath;
+        final RoaringBitSet nodes;
+
+        Frontier(int[] metaPath, RoaringBitSet nodes) {
+            this.metaPath = metaPath;
+            this.nodes = nodes;
+        }
+
+        int lastLabel() {
+            return metaPath[metaPath.length - 1];
+        }
+    }
+
     private void addAndLogMetaPath(IntArrayList newMetaPath) {
         synchronized (duplicateFreeMetaPaths) {
             int oldSize = duplicateFreeMetaPaths.size();
@@ -207,37 +390,30 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
     }
 
 
-    private ArrayList<IntHashSet> allocateNextInstances() {
+    private ArrayList<RoaringBitSet> allocateNextInstances() {
         int nextInstancesSize = arrayGraphInterface.getAllLabels().size() * arrayGraphInterface.getAllEdgeLabels().size();
-        ArrayList<IntHashSet> nextInstances = new ArrayList<>(nextInstancesSize);
+        ArrayList<RoaringBitSet> nextInstances = new ArrayList<>(nextInstancesSize);
 
         for (int i = 0; i < nextInstancesSize; i++) {
-            nextInstances.add(new IntHashSet());
+            nextInstances.add(new RoaringBitSet());
         }
 
         return nextInstances;
     }
 
-    private void fillNextInstances(IntHashSet currentInstances, ArrayList<IntHashSet> nextInstances, IntArrayList currentMetaPath, int metaPathLength) {//TODO: refactor and rename
-        for (IntCursor instance : currentInstances) {
-            for (int nodeId : arrayGraphInterface.getAdjacentNodes(instance.value)) { //TODO: check if getAdjacentNodes works
+    private void fillNextInstances(RoaringBitSet currentInstances, ArrayList<RoaringBitSet> nextInstances, IntArrayList currentMetaPath, int metaPathLength) {//TODO: refactor and rename
+        currentInstances.forEach(instance -> {
+            for (int nodeId : arrayGraphInterface.getAdjacentNodes(instance)) { //TODO: check if getAdjacentNodes works
                 int label = arrayGraphInterface.getLabel(nodeId); //get the id of the label of the node
-                int edgeLabel = arrayGraphInterface.getEdgeLabel(instance.value, nodeId);
+                int edgeLabel = arrayGraphInterface.getEdgeLabel(instance, nodeId);
                 if (!highDegreeIndex.containsKey(nodeId)) {
                     int labelID = labelDictionary.get(new AbstractMap.SimpleEntry<>(edgeLabel, label));
                     nextInstances.get(labelID).add(nodeId); // add the node to the corresponding instances array
                 }
                 else
                 {
-                    for (AbstractMap.SimpleEntry<IntArrayList, IntArrayList> metaPathWithEnds : highDegreeIndex.get(nodeId)){
-                        boolean reachedEndNode = false;
-                        for (IntCursor end : metaPathWithEnds.getValue())
-                        {
-                            if (endNodes.contains(end.value)) {
-                                reachedEndNode = true;
-                                break;
-                            }
-                        }
+                    for (AbstractMap.SimpleEntry<IntArrayList, RoaringBitSet> metaPathWithEnds : highDegreeIndex.get(nodeId)){
+                        boolean reachedEndNode = metaPathWithEnds.getValue().intersects(endNodeSet);
 
                         if(reachedEndNode && metaPathLength > metaPathWithEnds.getKey().size()/2)
                         {
@@ -250,7 +426,7 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
                     }
                 }
             }
-        }
+        });
     }
 
     private IntArrayList copyMetaPath(IntArrayList currentMetaPath) {
@@ -283,14 +459,14 @@ public class ComputeAllMetaPathsForInstances extends MetaPathComputation {
     public void computeMetaPathFromNodeLabel(int startNodeLabel, int metaPathLength) {
             IntArrayList initialMetaPath = new IntArrayList();
             initialMetaPath.add(startNodeLabel);
-            IntHashSet initialInstancesRow = initInstancesRow(startNodeLabel);
+            RoaringBitSet initialInstancesRow = initInstancesRow(startNodeLabel);
             computeMetaPathFromNodeLabel(initialMetaPath, initialInstancesRow, metaPathLength - 1);
     }
 
-    private IntHashSet initInstancesRow(int startNodeLabel) {
+    private RoaringBitSet initInstancesRow(int startNodeLabel) {
         int startEdgeLabel = arrayGraphInterface.getAllEdgeLabels().iterator().next();
         int startNodeLabelId = labelDictionary.get(new AbstractMap.SimpleEntry<>(startEdgeLabel, startNodeLabel));
-        IntHashSet row = initialInstances.get(startNodeLabelId);
+        RoaringBitSet row = initialInstances.get(startNodeLabelId);
         return row;
     }
 
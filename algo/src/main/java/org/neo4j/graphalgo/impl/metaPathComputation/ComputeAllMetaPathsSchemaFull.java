@@ -1,12 +1,15 @@
 package org.neo4j.graphalgo.impl.metaPathComputation;
 
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+
 import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class ComputeAllMetaPathsSchemaFull extends MetaPathComputation {
@@ -19,6 +22,9 @@ public class ComputeAllMetaPathsSchemaFull extends MetaPathComputation {
     private PrintStream out;
     private long startTime;
     private long endTime;
+    private MetaPathPruning pruning = MetaPathPruning.none();
+    private ExecutorService executor = Pools.DEFAULT;
+    private int concurrency = Pools.DEFAULT_CONCURRENCY;
 
     public ComputeAllMetaPathsSchemaFull(int metaPathLength, ArrayList<HashSet<Pair>> schema, HashMap<Integer, Integer> reversedLabelDictionary) throws Exception {
         this.metaPathLength = metaPathLength;
@@ -29,6 +35,24 @@ public class ComputeAllMetaPathsSchemaFull extends MetaPathComputation {
         this.out = new PrintStream(new FileOutputStream("Precomputed_MetaPaths_Schema_Full.txt"));//ends up in root/tests //or in dockerhome
     }
 
+    /**
+     * restrict the labels and edge types of the meta-paths, schema edges which are not allowed
+     * are not expanded. Only the schema is known here, so minimum counts and top-k do not apply.
+     */
+    public ComputeAllMetaPathsSchemaFull withPruning(MetaPathPruning pruning) {
+        this.pruning = pruning;
+        return this;
+    }
+
+    /**
+     * run one task per schema node on the executor, at most concurrency of them at once
+     */
+    public ComputeAllMetaPathsSchemaFull withConcurrency(ExecutorService executor, int concurrency) {
+        this.executor = executor;
+        this.concurrency = Math.max(concurrency, 1);
+        return this;
+    }
+
     public Result compute() throws IOException {
         debugOut.println("START SCHEMA_FULL");
 
@@ -52,26 +76,15 @@ public class ComputeAllMetaPathsSchemaFull extends MetaPathComputation {
     }
 
     private List<Runnable> startThreads() {
-        int processorCount = Runtime.getRuntime().availableProcessors();
         List<Runnable> threads = new ArrayList<>();
-        debugOut.println("ProcessorCount: " + processorCount);
+        debugOut.println("Concurrency: " + concurrency);
         debugOut.println("schema-size: " + schema.size());
         debugOut.println("reverseLabelDictionary-size: " + reversedLabelDictionary.size());
-        ExecutorService executor = Executors.newFixedThreadPool(processorCount);
 
         for (int i = 0; i < schema.size(); i++) {
-            Runnable worker = new ComputeMetaPathFromNodeIdThread(i, metaPathLength);
-            threads.add(worker);
-            executor.execute(worker);
-        }
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            threads.add(new ComputeMetaPathFromNodeIdThread(i, metaPathLength));
         }
+        ParallelUtil.runWithConcurrency(concurrency, threads, Integer.MAX_VALUE, 1, TimeUnit.MILLISECONDS, this, executor);
 
         return threads;
     }
@@ -97,6 +110,9 @@ public class ComputeAllMetaPathsSchemaFull extends MetaPathComputation {
         }
 
         public void computeMetaPathFromNodeLabel(int nodeID, int metaPathLength) {
+            if (!pruning.allowsLabel(reversedLabelDictionary.get(nodeID))) {
+                return;
+            }
             ArrayList<Integer> initialMetaPath = new ArrayList<>();
             initialMetaPath.add(reversedLabelDictionary.get(nodeID)); //because nodeID is already a type of nodes in the real graph//convert to heavyGraph nodeType
 
@@ -109,9 +125,12 @@ public class ComputeAllMetaPathsSchemaFull extends MetaPathComputation {
 
             HashSet<Pair> neighbourNodesAndEdges = schema.get(currentInstance);
             for (Pair neighbourNode_edge : neighbourNodesAndEdges) {
-                ArrayList<Integer> newMetaPath = copyMetaPath(currentMetaPath);
                 int nodeID = neighbourNode_edge.first();
                 int edgeID = neighbourNode_edge.second();
+                if (!pruning.allows(edgeID, reversedLabelDictionary.get(nodeID))) {
+                    continue;
+                }
+                ArrayList<Integer> newMetaPath = copyMetaPath(currentMetaPath);
                 newMetaPath.add(edgeID);
                 newMetaPath.add(reversedLabelDictionary.get(nodeID));
 
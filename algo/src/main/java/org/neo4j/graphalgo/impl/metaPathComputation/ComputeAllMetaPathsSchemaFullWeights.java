@@ -2,44 +2,40 @@
 package org.neo4j.graphalgo.impl.metaPathComputation;
 
 import org.bouncycastle.crypto.OutputLengthException;
-import org.neo4j.graphdb.*;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
 
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import java.io.FileOutputStream;
 import java.io.PrintStream;
 import java.util.*;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.lang.Math.max;
-import static java.lang.Math.toIntExact;
-
 public class ComputeAllMetaPathsSchemaFullWeights extends MetaPathComputation {
 
     private int metaPathLength;
     private PrintStream debugOut;
     public GraphDatabaseAPI api;
-    private HashMap<Integer, HashSet<AbstractMap.SimpleEntry<Integer,Integer>>> adjacentNodesDict = new HashMap<>();
+    private SchemaGraph schema;
     //private HashMap<Integer, Label> nodeIDLabelsDict = new HashMap<Integer, Label>();
-    private List<Node> nodes = null;
-    private List<Relationship> rels = null;
     private HashSet<String> duplicateFreeMetaPaths = new HashSet<>();
     private PrintStream out;
-    private int printCount = 0;
-    private double estimatedCount;
     private long startTime;
+    private ExecutorService executor = Pools.DEFAULT;
+    private int concurrency = Pools.DEFAULT_CONCURRENCY;
+    private HeavyGraph graph;
     private HashMap<Integer, String> idTypeMappingNodes = new HashMap<>();
     private HashMap<Integer, String> idTypeMappingEdges = new HashMap<>();
-    final int MAX_NOF_THREADS = 12; //TODO why not full utilization?
-    final Semaphore threadSemaphore = new Semaphore(MAX_NOF_THREADS);
     private HashSet<Integer> nodeLabelIDs = new HashSet<>();
-    private HashMap<String, Double> twoMPWeightDict = new HashMap<>();
-    private HashMap<String, Integer> countSingleTwoMPDict = new HashMap<>();
+    private TwoHopStatistics twoHopStatistics;
     private HashMap<String, Double> metaPathWeightsDict = new HashMap<>();
-    private Integer countAllTwoMP;
 
     public ComputeAllMetaPathsSchemaFullWeights(int metaPathLength, GraphDatabaseAPI api) throws Exception {
         this.metaPathLength = metaPathLength;
@@ -48,29 +44,38 @@ public class ComputeAllMetaPathsSchemaFullWeights extends MetaPathComputation {
         this.out = new PrintStream(new FileOutputStream("Precomputed_MetaPaths_Schema_Full.txt"));//ends up in root/tests //or in dockerhome
     }
 
+    /**
+     * run the enumeration as tasks on the executor, at most concurrency of them at once
+     */
+    public ComputeAllMetaPathsSchemaFullWeights withConcurrency(ExecutorService executor, int concurrency) {
+        this.executor = executor;
+        this.concurrency = Math.max(concurrency, 1);
+        return this;
+    }
+
+    /**
+     * take the schema and its relationship counts from the graph instead of the schema cache
+     */
+    public ComputeAllMetaPathsSchemaFullWeights withGraph(HeavyGraph graph) {
+        this.graph = graph;
+        return this;
+    }
+
     public Result compute() throws Exception{
         debugOut.println("START");
         startTime = System.nanoTime();
-        getMetaGraph();
-        estimatedCount = Math.pow(nodes.size(), metaPathLength + 1);
-        initializeDictionaries();
-        ArrayList<ComputeMetaPathFromNodeLabelThread> threads = new ArrayList<>();
-        int i = 0;
-
-        for (Node node : nodes) {
-            ComputeMetaPathFromNodeLabelThread thread = new ComputeMetaPathFromNodeLabelThread(this, "thread-" + i, toIntExact(node.getId()), metaPathLength);
-            thread.start();
-            threads.add(thread);
-            i++;
+        if (schema == null) {
+            initializeSchema();
         }
-
-        try {
-            for (ComputeMetaPathFromNodeLabelThread thread : threads) {
-                thread.join();
-            }
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        List<Runnable> tasks = new ArrayList<>();
+        List<HashSet<String>> buffers = new ArrayList<>();
+        for (int label : schema.labels()) {
+            HashSet<String> buffer = new HashSet<>();
+            buffers.add(buffer);
+            tasks.add(() -> computeMetaPathFromNodeLabel(label, metaPathLength, buffer));
         }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 1, TimeUnit.MILLISECONDS, this, executor);
+        mergeMetaPaths(buffers);
 
         computeMetaPathWeights(duplicateFreeMetaPaths);
         int numComputedMP = duplicateFreeMetaPaths.size();
@@ -82,47 +87,26 @@ public class ComputeAllMetaPathsSchemaFullWeights extends MetaPathComputation {
         return new Result(duplicateFreeMetaPaths, idTypeMappingNodes, idTypeMappingEdges, metaPathWeightsDict);
     }
 
-    private void getMetaGraph() {
-        org.neo4j.graphdb.Result result;
-        try (Transaction tx = api.beginTx()) {
-            result = api.execute("CALL apoc.meta.graph()");
-            tx.success();
-        }
-        Map<String, Object> row = result.next();
-        nodes = (List<Node>) row.get("nodes");
-        rels = (List<Relationship>) row.get("relationships");
-        for (Node node : nodes){
-            nodeLabelIDs.add(toIntExact(node.getId()));
-            String nodeType = node.getLabels().iterator().next().name();
-            this.idTypeMappingNodes.put(toIntExact(node.getId()), nodeType);
-        }
-    }
-
-    private void initializeDictionaries(){
-        for (Node node : nodes) {
-            int nodeID = toIntExact(node.getId());
-
-            HashSet<AbstractMap.SimpleEntry<Integer, Integer>> adjNodesSet = new HashSet<>();
-            adjacentNodesDict.putIfAbsent(toIntExact(nodeID), adjNodesSet);
-            for (Relationship rel : rels) {
-                try {
-                    int adjNodeID = toIntExact(rel.getOtherNodeId(node.getId()));
-                    int adjEdgeID = toIntExact(rel.getId());
-                    this.idTypeMappingEdges.put(toIntExact(adjEdgeID), rel.getType().name());
-                    adjacentNodesDict.get(nodeID).add(new AbstractMap.SimpleEntry<>(adjNodeID, adjEdgeID));
-                } catch (Exception e) {/*prevent duplicates*/}
-            }
+    /**
+     * take the schema from the graph if one is given and from the schema cache otherwise, the
+     * ids of the schema are the label and relationship type ids of the database
+     */
+    private void initializeSchema() throws Exception {
+        schema = SchemaGraph.of(api, graph, executor, concurrency);
+        idTypeMappingNodes.putAll(SchemaGraph.labelNames(api));
+        idTypeMappingEdges.putAll(SchemaGraph.relationshipTypeNames(api));
+        for (int label : schema.labels()) {
+            nodeLabelIDs.add(label);
         }
-        out.println(adjacentNodesDict);
     }
 
-    public void computeMetaPathFromNodeLabel(int nodeID, int metaPathLength) { //TODO will it be faster if not node but nodeID with dicts?
+    private void computeMetaPathFromNodeLabel(int nodeID, int metaPathLength, HashSet<String> metaPaths) {
         ArrayList<Integer> initialMetaPath = new ArrayList<>();
         initialMetaPath.add(nodeID); //because node is already type (of nodes in the real graph)
-        computeMetaPathFromNodeLabel(initialMetaPath, nodeID, metaPathLength - 1);
+        computeMetaPathFromNodeLabel(initialMetaPath, nodeID, metaPathLength - 1, metaPaths);
     }
 
-    private void computeMetaPathFromNodeLabel(ArrayList<Integer> pCurrentMetaPath, int pCurrentInstance, int pMetaPathLength) {
+    private void computeMetaPathFromNodeLabel(ArrayList<Integer> pCurrentMetaPath, int pCurrentInstance, int pMetaPathLength, HashSet<String> metaPaths) {
         Stack<ArrayList<Integer>> st_allMetaPaths = new Stack();
         Stack<Integer> st_currentNode = new Stack();
         Stack<Integer> st_metaPathLength = new Stack();
@@ -144,43 +128,25 @@ public class ComputeAllMetaPathsSchemaFullWeights extends MetaPathComputation {
                 continue;
             }
 
-            HashSet<AbstractMap.SimpleEntry<Integer, Integer>> outgoingEdges = new HashSet<>();
-            outgoingEdges.addAll(adjacentNodesDict.get(currentInstance));
-            for (AbstractMap.SimpleEntry<Integer, Integer> edge : outgoingEdges) {
-                ArrayList<Integer> newMetaPath = copyMetaPath(currentMetaPath);
-                int nodeID = edge.getKey();
-                int edgeID = edge.getValue();
+            final ArrayList<Integer> prefix = currentMetaPath;
+            final int remainingLength = metaPathLength - 1;
+            schema.forEachEdge(currentInstance, (edgeID, nodeID, count) -> {
+                ArrayList<Integer> newMetaPath = copyMetaPath(prefix);
                 newMetaPath.add(edgeID);
                 newMetaPath.add(nodeID);
 
-                synchronized (duplicateFreeMetaPaths) {
-                    // add new meta-path to threads
-                    String joinedMetaPath;
-                    joinedMetaPath = newMetaPath.stream().map(Object::toString).collect(Collectors.joining("|"));
-                    duplicateFreeMetaPaths.add(joinedMetaPath);
-                    out.println(joinedMetaPath);
-                }
+                metaPaths.add(newMetaPath.stream().map(Object::toString).collect(Collectors.joining("|")));
 
                 st_allMetaPaths.push(newMetaPath);
                 st_currentNode.push(nodeID);
-                st_metaPathLength.push(metaPathLength - 1);
-                //debugOut.println("finished recursion of length: " + (metaPathLength - 1));
-            }
+                st_metaPathLength.push(remainingLength);
+                //debugOut.println("finished recursion of length: " + remainingLength);
+            });
         }
         // System.out.println("These are all our metapaths from node "+ pCurrentInstance);
         //System.out.println(duplicateFreeMetaPaths);
     }
 
-    private void addAndLogMetaPath(ArrayList<Integer> newMetaPath) {
-        synchronized (duplicateFreeMetaPaths) {
-            int oldSize = duplicateFreeMetaPaths.size();
-            String joinedMetaPath = addMetaPath(newMetaPath);
-            int newSize = duplicateFreeMetaPaths.size();
-            if (newSize > oldSize)
-                printMetaPathAndLog(joinedMetaPath);
-        }
-    }
-
     private ArrayList<Integer> copyMetaPath(ArrayList<Integer> currentMetaPath) {
         ArrayList<Integer> newMetaPath = new ArrayList<>();
         for (int label : currentMetaPath) {
@@ -191,157 +157,37 @@ public class ComputeAllMetaPathsSchemaFullWeights extends MetaPathComputation {
         return newMetaPath;
     }
 
-    private String addMetaPath(ArrayList<Integer> newMetaPath) {
-        String joinedMetaPath;
-
-        joinedMetaPath = newMetaPath.stream().map(Object::toString).collect(Collectors.joining("|"));
-        duplicateFreeMetaPaths.add(joinedMetaPath);
-
-        return joinedMetaPath;
-    }
-
-    private void printMetaPathAndLog(String joinedMetaPath) {
-        out.println(joinedMetaPath);
-        printCount++;
-/*        if (printCount % ((int)estimatedCount/50) == 0) {
-            debugOut.println("MetaPaths found: " + printCount + " estimated Progress: " + (100*printCount/estimatedCount) + "% time passed: " + (System.nanoTime() - startTime));
-        }*/
-    }
-
-    public void getTwoMPWeights() throws InterruptedException {
-        countAllTwoMP = 0;
-        ArrayList<ComputeTwoMPWeightsThread> threads = new ArrayList<>(MAX_NOF_THREADS);
-
-        List<HashSet<Integer>> labelIDSets = divideIntoThreadSetsInt(nodeLabelIDs);
-
-        int i = 0;
-        for (HashSet<Integer> labelIDSet : labelIDSets) {
-            threadSemaphore.acquire();
-            ComputeTwoMPWeightsThread thread = new ComputeTwoMPWeightsThread(this, "thread-" + i, labelIDSet);
-            thread.start();
-            threads.add(thread);
-            i++;
-            threadSemaphore.release();
+    /**
+     * merge the meta-paths found by the tasks and write them, once all tasks are done
+     */
+    private void mergeMetaPaths(List<HashSet<String>> buffers) {
+        for (HashSet<String> buffer : buffers) {
+            duplicateFreeMetaPaths.addAll(buffer);
         }
-        try {
-            for (ComputeTwoMPWeightsThread thread : threads) {
-                thread.join();
-            }
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        for (String metaPath : duplicateFreeMetaPaths) {
+            out.println(metaPath);
         }
-        final int COUNT_ALL_TWO_MP = countAllTwoMP; //need to be final to be used in lambda expression
-        countSingleTwoMPDict.forEach((twoMP, count) -> twoMPWeightDict.put(twoMP, (double) count / (COUNT_ALL_TWO_MP))); //not COUNT_ALL_TWO_MP * 2, because we already have the sum of twoMP and not the number of edges
     }
 
-    public void computeTwoMPWeights(HashSet<Integer> labelIDSet) {
-        org.neo4j.graphdb.Result result = null;
-
-        for (int nodeID1 : labelIDSet) {
-            String nodeLabel1 = idTypeMappingNodes.get(nodeID1);
-            HashSet<AbstractMap.SimpleEntry<Integer, Integer>> adjacentNodes = adjacentNodesDict.get(nodeID1);
-            for (AbstractMap.SimpleEntry<Integer, Integer> edgeNodePair : adjacentNodes) {
-                int nodeID2 = edgeNodePair.getKey();
-                String nodeLabel2 = idTypeMappingNodes.get(nodeID2);
-                int edgeID1 = edgeNodePair.getValue();
-                String edgeLabel1 = idTypeMappingEdges.get(edgeID1);
-                try (Transaction tx = api.beginTx()) {
-                    result = api.execute("MATCH (:`" + nodeLabel1 + "`)-[:`" + edgeLabel1 + "`]-(:`" + nodeLabel2 + "`) RETURN count(*)");
-                    tx.success();
-                }
-                Map<String, Object> row = result.next();
-                int countSingleTwoMP = toIntExact((long) row.get("count(*)"));
-                String twoMP = nodeID1 + "|" + edgeID1 + "|" + nodeID2;
-
-                synchronized (countSingleTwoMPDict) {
-                    countSingleTwoMPDict.put(twoMP, countSingleTwoMP);
-                }
-                synchronized (countAllTwoMP) {
-                    countAllTwoMP += countSingleTwoMP;
-                }
-            }
-        }
+    /**
+     * compute the counts and weights of all two-hop meta-paths once. They are taken from the
+     * schema if it was built from the graph and counted per schema edge in the database otherwise.
+     */
+    public void getTwoMPWeights() {
+        twoHopStatistics = TwoHopStatistics.compute(schema, TwoHopStatistics.cypherCounter(api, idTypeMappingNodes, idTypeMappingEdges), executor, concurrency);
     }
 
-    //TODO arrayList/Array instead of string?
-    public void computeMetaPathWeights(HashSet<String> metaPaths) throws InterruptedException {
+    /**
+     * weight every meta-path by the product of the weights of its two-hop meta-paths
+     */
+    public void computeMetaPathWeights(HashSet<String> metaPaths) {
         long startTime = System.nanoTime();
         getTwoMPWeights();
-        ArrayList<ComputeWeightsThread> threads = new ArrayList<>(MAX_NOF_THREADS);
-
-        List<HashSet<String>> metaPathsThreadSets = divideIntoThreadSetsStr(metaPaths);
-
-        int i = 0;
-        for (HashSet<String> metaPathsSet : metaPathsThreadSets) {
-            threadSemaphore.acquire();
-            ComputeWeightsThread thread = new ComputeWeightsThread(this, "thread-" + i, metaPathsSet);
-            thread.start();
-            threads.add(thread);
-            i++;
-            threadSemaphore.release();
-        }
-        try {
-            for (ComputeWeightsThread thread : threads) {
-                thread.join();
-            }
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        metaPathWeightsDict.putAll(twoHopStatistics.weights(metaPaths, executor, concurrency));
         long endTime = System.nanoTime();
         debugOut.println("Time for computation of weights: " + (endTime - startTime));
     }
 
-    public void computeWeights(HashSet<String> metaPaths) {
-        for (String metaPath : metaPaths) {
-            double metaPathWeight = 1;
-            int thirdDelimiterIndex = 0;
-            int thirdDelimiterIndexOld;
-            int lengthOfLastMPID = 0;
-            do { //TODO end of meta-path -> indexOf
-                thirdDelimiterIndexOld = thirdDelimiterIndex;
-                thirdDelimiterIndex = metaPath.indexOf("|", metaPath.indexOf("|", metaPath.indexOf("|", thirdDelimiterIndexOld - lengthOfLastMPID) + 1) + 1); //thirdDelimiterIndex - lengthOfLastMPID because last node in in next iteration first node, + 1 because we do not want the same delimiter again
-                if (thirdDelimiterIndex == -1) { //if indexOf returns -1 -> end of meta path
-                    String twoMP = metaPath.substring(max(thirdDelimiterIndexOld - lengthOfLastMPID, 0), metaPath.length());
-                    metaPathWeight *= twoMPWeightDict.get(twoMP);
-                    break;
-                }
-                String twoMP = metaPath.substring(max(thirdDelimiterIndexOld - lengthOfLastMPID, 0), thirdDelimiterIndex);
-                lengthOfLastMPID = (twoMP.length() - 1) - twoMP.lastIndexOf("|"); //- 1 because everything else is 0-indexed
-                metaPathWeight *= twoMPWeightDict.get(twoMP);
-            } while (true);
-            //TODO make synchronization more efficient? batches?
-            synchronized (metaPathWeightsDict) {
-                metaPathWeightsDict.put(metaPath, metaPathWeight);
-            }
-        }
-    }
-
-    private List<HashSet<String>> divideIntoThreadSetsStr(HashSet<String> set) {
-        List<HashSet<String>> threadSets = new ArrayList<>(MAX_NOF_THREADS);
-        for (int k = 0; k < MAX_NOF_THREADS; k++) {
-            threadSets.add(new HashSet<String>());
-        }
-
-        int index = 0;
-        for (String element : set) {
-            threadSets.get(index++ % MAX_NOF_THREADS).add(element);
-        }
-        return threadSets;
-    }
-
-    private List<HashSet<Integer>> divideIntoThreadSetsInt(HashSet<Integer> set) {
-        List<HashSet<Integer>> threadSets = new ArrayList<>(MAX_NOF_THREADS);
-        for (int k = 0; k < MAX_NOF_THREADS; k++) {
-            threadSets.add(new HashSet<Integer>());
-        }
-
-        int index = 0;
-        for (Integer element : set) {
-            threadSets.get(index++ % MAX_NOF_THREADS).add(element);
-        }
-        return threadSets;
-    }
-
     public void setIDTypeMappingNodes(HashMap<Integer, String> idTypeMappingNodes) {
         this.idTypeMappingNodes = idTypeMappingNodes;
     }
@@ -355,11 +201,11 @@ public class ComputeAllMetaPathsSchemaFullWeights extends MetaPathComputation {
     }
 
     public void setAdjacentNodesDict(HashMap<Integer, HashSet<AbstractMap.SimpleEntry<Integer, Integer>>> adjacentNodesDict) {
-        this.adjacentNodesDict = adjacentNodesDict;
+        this.schema = SchemaGraph.fromAdjacency(adjacentNodesDict);
     }
 
     public HashMap<String, Double> getTwoMPWeightDict() {
-        return twoMPWeightDict;
+        return twoHopStatistics == null ? new HashMap<>() : twoHopStatistics.toMap();
     }
 
     public HashMap<String, Double> getMetaPathWeightsDict() {
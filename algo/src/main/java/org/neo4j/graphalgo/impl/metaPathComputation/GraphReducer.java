@@ -1,163 +1,222 @@
 package org.neo4j.graphalgo.impl.metaPathComputation;
 
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphdb.*;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
+import org.neo4j.storageengine.api.Token;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.function.Consumer;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Remove all relationships whose type is not a good edge type and all nodes which neither have a
+ * good label nor a label adjacent to a relationship of a good edge type.
+ * <p>
+ * The labels adjacent to good edge types are taken from the counts store. The nodes are found by
+ * label scans, every node in the scan of its lowest label, and all nodes are only scanned if the
+ * counts show nodes without a label. Nodes are deleted together with their relationships, then the
+ * remaining relationships of bad types are deleted from the kept nodes. Both phases run in batches
+ * of {@code batchSize} operations per transaction on the executor, a batch which fails because of
+ * a deadlock with a concurrent batch is retried.
+ */
 public class GraphReducer extends MetaPathComputation {
+    private static final int MAX_RETRIES = 10;
+
     public Log log;
-    private GraphDatabaseService db;
+    private GraphDatabaseAPI db;
     private String[] goodLabels;
     private String[] goodEdgeLabels;
-    private ArrayList<String> newGoodLabels = new ArrayList<>();
-    private HashMap<String, RelationshipType> relationshipTypeDict;
+    private ExecutorService executor = Pools.DEFAULT;
+    private int concurrency = Pools.DEFAULT_CONCURRENCY;
+    private int batchSize = 10_000;
 
-    public GraphReducer(GraphDatabaseService db, Log log,
+    public GraphReducer(GraphDatabaseAPI db, Log log,
                         String[] goodLabels, String[] goodEdgeLabels) {
         this.log = log;
         this.db = db;
         this.goodEdgeLabels = goodEdgeLabels;
         this.goodLabels = goodLabels;
-        relationshipTypeDict = new HashMap<>();
     }
 
-    private void findRelationType(String edgeType) {
-        RelationshipType returnType = null;
-        try (Transaction transaction = db.beginTx()) {
-            for (RelationshipType type : db.getAllRelationshipTypes()) {
-                if (type.name().equals(edgeType)) {
-                    returnType = type;
-                    break;
-                }
-            }
-            transaction.success();
-        }
-        relationshipTypeDict.put(edgeType, returnType);
+    public GraphReducer withConcurrency(ExecutorService executor, int concurrency) {
+        this.executor = executor;
+        this.concurrency = Math.max(concurrency, 1);
+        return this;
+    }
+
+    /**
+     * number of nodes or relationships deleted in one transaction
+     */
+    public GraphReducer withBatchSize(int batchSize) {
+        this.batchSize = Math.max(batchSize, 1);
+        return this;
     }
 
     public void compute() {
-        LinkedList<Thread> threads = new LinkedList<>();
-        for (String goodEdgeType : goodEdgeLabels) {
-            findRelationType(goodEdgeType);
+        LongArrayList nodesToDelete = new LongArrayList();
+        LongArrayList nodesToKeep = new LongArrayList();
+        List<RelationshipType> badEdgeTypes = new ArrayList<>();
+
+        ThreadToStatementContextBridge contextBridge = db.getDependencyResolver().resolveDependency(ThreadToStatementContextBridge.class);
+        try (Transaction transaction = db.beginTx();
+             Statement statement = contextBridge.get()) {
+            ReadOperations readOp = statement.readOperations();
+            IntHashSet goodEdgeTypeIds = new IntHashSet();
+            for (String edgeType : goodEdgeLabels) {
+                int typeId = readOp.relationshipTypeGetForName(edgeType);
+                if (typeId >= 0) {
+                    goodEdgeTypeIds.add(typeId);
+                }
+            }
+            Iterator<Token> edgeTypes = readOp.relationshipTypesGetAllTokens();
+            while (edgeTypes.hasNext()) {
+                Token edgeType = edgeTypes.next();
+                if (!goodEdgeTypeIds.contains(edgeType.id())) {
+                    badEdgeTypes.add(RelationshipType.withName(edgeType.name()));
+                }
+            }
+            IntHashSet goodLabelIds = findGoodLabels(readOp, goodEdgeTypeIds);
+            scanNodes(readOp, goodLabelIds, nodesToDelete, nodesToKeep);
+            transaction.success();
         }
 
-        for (long relId : getTypeRelIds()) {
-            Thread thread = new DeleteRelationshipsThread(this::deleteRelationship, relId);
-            threads.add(thread);
-            thread.run();
+        long total = nodesToDelete.size() + (badEdgeTypes.isEmpty() ? 0 : nodesToKeep.size());
+        AtomicLong done = new AtomicLong();
+        inBatches(nodesToDelete, total, done, this::deleteNode);
+        if (!badEdgeTypes.isEmpty()) {
+            RelationshipType[] types = badEdgeTypes.toArray(new RelationshipType[badEdgeTypes.size()]);
+            inBatches(nodesToKeep, total, done, nodeId -> deleteRelationships(nodeId, types));
         }
+        getProgressLogger().logDone(() -> "deleted " + nodesToDelete.size() + " nodes");
+    }
 
-        for (long nodeId : getTypeNodeIds()) {
-            Thread thread = new DeleteNodesThread(this::deleteNode, nodeId);
-            threads.add(thread);
-            thread.run();
+    /**
+     * the good labels and all labels at the start or end of a relationship of a good edge type
+     */
+    private IntHashSet findGoodLabels(ReadOperations readOp, IntHashSet goodEdgeTypeIds) {
+        IntHashSet goodLabelIds = new IntHashSet();
+        for (String label : goodLabels) {
+            int labelId = readOp.labelGetForName(label);
+            if (labelId >= 0) {
+                goodLabelIds.add(labelId);
+            }
         }
-
-        for (Thread thread : threads) {
-            try {
-                thread.join();
-            } catch (Exception e) {
-                log.error(e.getLocalizedMessage());
+        Iterator<Token> labels = readOp.labelsGetAllTokens();
+        while (labels.hasNext()) {
+            int labelId = labels.next().id();
+            for (IntCursor typeId : goodEdgeTypeIds) {
+                if (readOp.countsForRelationship(labelId, typeId.value, ReadOperations.ANY_LABEL) > 0
+                        || readOp.countsForRelationship(ReadOperations.ANY_LABEL, typeId.value, labelId) > 0) {
+                    goodLabelIds.add(labelId);
+                    break;
+                }
             }
         }
+        return goodLabelIds;
     }
 
-    private List<Long> getTypeRelIds() {
-        LinkedList<Long> typeRelIds = new LinkedList<>();
-
-        try (Transaction transaction = db.beginTx()) {
-            ResourceIterable<Relationship> allRels = db.getAllRelationships();
-            for (Relationship rel : allRels) {
-                boolean shouldDelete = true;
-                for (String edgeLabel : goodEdgeLabels) {
-                    if (rel.getType() == relationshipTypeDict.get(edgeLabel)) {
-                        shouldDelete = false;
-                        break;
-                    }
+    private void scanNodes(ReadOperations readOp, IntHashSet goodLabelIds, LongArrayList nodesToDelete, LongArrayList nodesToKeep) {
+        long labelledNodes = 0;
+        Iterator<Token> labels = readOp.labelsGetAllTokens();
+        while (labels.hasNext()) {
+            int labelId = labels.next().id();
+            PrimitiveLongIterator nodes = readOp.nodesGetForLabel(labelId);
+            while (nodes.hasNext()) {
+                long nodeId = nodes.next();
+                int lowestLabel = Integer.MAX_VALUE;
+                boolean good = false;
+                PrimitiveIntIterator nodeLabels = nodeLabels(readOp, nodeId);
+                while (nodeLabels.hasNext()) {
+                    int nodeLabel = nodeLabels.next();
+                    lowestLabel = Math.min(lowestLabel, nodeLabel);
+                    good |= goodLabelIds.contains(nodeLabel);
                 }
-
-                if (shouldDelete) {
-                    typeRelIds.add(rel.getId());
-                } else {
-                    for (Label label : rel.getStartNode().getLabels()) {
-                        newGoodLabels.add(label.name());
-                    }
-
-                    for (Label label : rel.getEndNode().getLabels()) {
-                        newGoodLabels.add(label.name());
-                    }
-
+                if (lowestLabel != labelId) {
+                    continue;
+                }
+                labelledNodes++;
+                (good ? nodesToKeep : nodesToDelete).add(nodeId);
+            }
+        }
+        if (readOp.nodesGetCount() > labelledNodes) {
+            PrimitiveLongIterator nodes = readOp.nodesGetAll();
+            while (nodes.hasNext()) {
+                long nodeId = nodes.next();
+                if (!nodeLabels(readOp, nodeId).hasNext()) {
+                    nodesToDelete.add(nodeId);
                 }
             }
-
-            transaction.success();
         }
-
-        return typeRelIds;
     }
 
+    private PrimitiveIntIterator nodeLabels(ReadOperations readOp, long nodeId) {
+        try {
+            return readOp.nodeGetLabels(nodeId);
+        } catch (EntityNotFoundException e) {
+            throw new NotFoundException(e);
+        }
+    }
 
-    private List<Long> getTypeNodeIds() {
-        LinkedList<Long> typeNodeIds = new LinkedList<>();
+    private void inBatches(LongArrayList nodeIds, long total, AtomicLong done, LongConsumer operation) {
+        int batches = ParallelUtil.threadSize(batchSize, nodeIds.size());
+        List<Runnable> tasks = new ArrayList<>(batches);
+        for (int batch = 0; batch < batches; batch++) {
+            int start = batch * batchSize;
+            int end = Math.min(nodeIds.size(), start + batchSize);
+            tasks.add(() -> {
+                runBatch(nodeIds, start, end, operation);
+                getProgressLogger().logProgress(done.addAndGet(end - start), total);
+            });
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 1, TimeUnit.MILLISECONDS, this, executor);
+    }
 
-        try (Transaction transaction = db.beginTx()) {
-            ResourceIterable<Node> allNodes = db.getAllNodes();
-            for (Node node : allNodes) {
-                boolean shouldDelete = true;
-                for (String label : goodLabels) {
-                    if (node.hasLabel(Label.label(label))) {
-                        shouldDelete = false;
-                        break;
-                    }
+    private void runBatch(LongArrayList nodeIds, int start, int end, LongConsumer operation) {
+        for (int attempt = 1; ; attempt++) {
+            try (Transaction transaction = db.beginTx()) {
+                for (int i = start; i < end; i++) {
+                    operation.accept(nodeIds.get(i));
                 }
-
-                if (shouldDelete) {
-                    for (String label : newGoodLabels) {
-                        if (node.hasLabel(Label.label(label))) {
-                            shouldDelete = false;
-                            break;
-                        }
-                    }
+                transaction.success();
+                return;
+            } catch (TransientFailureException | NotFoundException e) {
+                // deadlock with a batch sharing relationships or one of them deleted by it meanwhile,
+                // the transaction is rolled back and the batch is read again
+                if (attempt == MAX_RETRIES) {
+                    throw e;
                 }
-                if (shouldDelete) typeNodeIds.add(node.getId());
             }
-
-            transaction.success();
         }
-
-        return typeNodeIds;
     }
 
-
-    public boolean deleteNode(long nodeId) {
-        try (Transaction transaction = db.beginTx()) {
-            Node nodeInstance = db.getNodeById(nodeId);
-
-            for (Relationship relation : nodeInstance.getRelationships(Direction.BOTH)) {
-                relation.delete();
-            }
-            nodeInstance.delete();
-
-            transaction.success();
+    private void deleteNode(long nodeId) {
+        Node node = db.getNodeById(nodeId);
+        for (Relationship relation : node.getRelationships(Direction.BOTH)) {
+            relation.delete();
         }
-
-        return true;
+        node.delete();
     }
 
-    public boolean deleteRelationship(long relId) {
-        try (Transaction transaction = db.beginTx()) {
-            Relationship relInstance = db.getRelationshipById(relId);
-            relInstance.delete();
-
-            transaction.success();
+    private void deleteRelationships(long nodeId, RelationshipType[] types) {
+        for (Relationship relation : db.getNodeById(nodeId).getRelationships(Direction.OUTGOING, types)) {
+            relation.delete();
         }
-
-        return true;
     }
 
     /* Things I don't understand */
@@ -170,33 +229,4 @@ public class GraphReducer extends MetaPathComputation {
     public GraphReducer release() {
         return null;
     }
-
-    class DeleteNodesThread extends Thread {
-        private Consumer<Long> deleteNode;
-        private long nodeToDelete;
-
-        DeleteNodesThread(Consumer<Long> deleteNode, long nodeToDelete) {
-            this.deleteNode = deleteNode;
-            this.nodeToDelete = nodeToDelete;
-        }
-
-        public void run() {
-            this.deleteNode.accept(nodeToDelete);
-        }
-    }
-
-    class DeleteRelationshipsThread extends Thread {
-        private Consumer<Long> deleteRelationship;
-        private long relationshipToDelete;
-
-        DeleteRelationshipsThread(Consumer<Long> deleteRelationship, long relationshipToDelete) {
-            this.deleteRelationship = deleteRelationship;
-            this.relationshipToDelete = relationshipToDelete;
-        }
-
-        public void run() {
-            this.deleteRelationship.accept(relationshipToDelete);
-        }
-    }
-
 }
@@ -0,0 +1,247 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import com.carrotsearch.hppc.cursors.LongObjectCursor;
+import org.neo4j.graphalgo.api.ArrayGraphInterface;
+import org.neo4j.graphalgo.api.IdMapping;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.container.RoaringBitSet;
+import org.neo4j.graphdb.Direction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the {@link HubIndexFile} of the selected hubs: for every meta-path of up to
+ * metaPathLength - 1 hops starting at a hub the set of nodes it ends in.
+ * <p>
+ * The hubs are processed in parallel. Each record carries a fingerprint of the hub's
+ * neighbourhood, i.e. of all relationships the meta-path expansion of the hub reads.
+ * When a previous index is given, the records of hubs with an unchanged fingerprint are
+ * copied from it and only the remaining hubs are expanded again.
+ */
+public class HubIndexBuilder extends MetaPathComputation {
+
+    private final ArrayGraphInterface arrayGraphInterface;
+    private final IdMapping idMapping;
+    private final int metaPathLength;
+    private final ExecutorService executor;
+    private final int concurrency;
+
+    public HubIndexBuilder(ArrayGraphInterface arrayGraphInterface, IdMapping idMapping, int metaPathLength, ExecutorService executor, int concurrency) {
+        this.arrayGraphInterface = arrayGraphInterface;
+        this.idMapping = idMapping;
+        this.metaPathLength = metaPathLength;
+        this.executor = executor;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * write the index of the given hubs to the file
+     *
+     * @param hubs              mapped node ids, e.g. selected by {@link HubSelection}
+     * @param previousIndexPath index built before (possibly the same file) or null to expand all hubs
+     * @return the counts of the build, if it was terminated the file is not replaced
+     */
+    public Result build(int[] hubs, String filePath, String previousIndexPath) throws IOException {
+        HubIndexFile.Reader previous = null;
+        if (previousIndexPath != null && HubIndexFile.isCurrentHubIndexFile(previousIndexPath)) {
+            HubIndexFile.Reader reader = HubIndexFile.reader(previousIndexPath);
+            if (reader.metaPathLength() == metaPathLength) {
+                previous = reader;
+            }
+        }
+
+        File target = new File(filePath);
+        File temporary = new File(filePath + ".tmp");
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger reused = new AtomicInteger();
+        try {
+            try (HubIndexFile.Writer writer = HubIndexFile.writer(temporary.getPath(), metaPathLength)) {
+                HubIndexFile.Reader previousIndex = previous;
+                ParallelUtil.iterateParallel(executor, hubs.length, Math.max(concurrency, 1), i -> {
+                    if (!running()) {
+                        return;
+                    }
+                    int hub = hubs[i];
+                    long nodeId = idMapping.toOriginalNodeId(hub);
+                    long fingerprint = fingerprint(hub);
+                    byte[] record = null;
+                    if (previousIndex != null) {
+                        record = previousRecord(previousIndex, nodeId, fingerprint);
+                    }
+                    if (record != null) {
+                        reused.incrementAndGet();
+                    } else {
+                        record = expand(hub, fingerprint);
+                    }
+                    try {
+                        writer.add(nodeId, record);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    written.incrementAndGet();
+                });
+            }
+            if (!running()) {
+                // an incomplete index must not replace the previous one
+                Files.deleteIfExists(temporary.toPath());
+                return new Result(written.get(), reused.get(), false);
+            }
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException | Error e) {
+            Files.deleteIfExists(temporary.toPath());
+            throw e;
+        }
+        return new Result(hubs.length, reused.get(), true);
+    }
+
+    /**
+     * @return the record of the hub in the previous index if its neighbourhood is unchanged, otherwise null
+     */
+    private static byte[] previousRecord(HubIndexFile.Reader previousIndex, long nodeId, long fingerprint) {
+        int index = previousIndex.find(nodeId);
+        if (index >= 0 && previousIndex.fingerprint(index) == fingerprint) {
+            return previousIndex.record(index);
+        }
+        return null;
+    }
+
+    /**
+     * Hash of every relationship read by the expansion of the hub: the relationships of all nodes
+     * within metaPathLength - 2 hops, with the ids, labels and types involved. The hashes of the
+     * relationships are summed, so the result does not depend on the order of the adjacency.
+     */
+    long fingerprint(int hub) {
+        IntHashSet visited = new IntHashSet();
+        IntArrayList current = new IntArrayList();
+        visited.add(hub);
+        current.add(hub);
+        long[] fingerprint = {mix(idMapping.toOriginalNodeId(hub), arrayGraphInterface.getLabel(hub))};
+        for (int depth = 0; depth < metaPathLength - 1 && !current.isEmpty(); depth++) {
+            IntArrayList next = new IntArrayList();
+            for (IntCursor node : current) {
+                long source = idMapping.toOriginalNodeId(node.value);
+                arrayGraphInterface.forEachTypedRelationship(node.value, Direction.BOTH, (sourceNodeId, targetNodeId, typeId, targetLabel) -> {
+                    fingerprint[0] += mix(source, mix(idMapping.toOriginalNodeId(targetNodeId), mix(typeId, targetLabel)));
+                    if (visited.add(targetNodeId)) {
+                        next.add(targetNodeId);
+                    }
+                    return true;
+                });
+            }
+            current = next;
+        }
+        return fingerprint[0];
+    }
+
+    private static long mix(long a, long b) {
+        long h = a * 0x9E3779B97F4A7C15L + b;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private byte[] expand(int hub, long fingerprint) {
+        List<int[]> metaPaths = new ArrayList<>();
+        List<long[]> endNodes = new ArrayList<>();
+        expand(new int[0], RoaringBitSet.of(hub), metaPathLength - 1, metaPaths, endNodes);
+        return HubIndexFile.encodeRecord(fingerprint, metaPaths.toArray(new int[0][]), endNodes.toArray(new long[0][]));
+    }
+
+    private void expand(int[] currentMetaPath, RoaringBitSet currentInstances, int remainingHops, List<int[]> metaPaths, List<long[]> endNodes) {
+        if (remainingHops <= 0) {
+            return;
+        }
+        LongObjectHashMap<RoaringBitSet> nextInstances = new LongObjectHashMap<>(); // (edge label, node label) -> nodes
+        currentInstances.forEach(instance ->
+            arrayGraphInterface.forEachTypedRelationship(instance, Direction.BOTH, (sourceNodeId, targetNodeId, typeId, targetLabel) -> {
+                long key = ((long) typeId << 32) | (targetLabel & 0xFFFFFFFFL);
+                RoaringBitSet nextInstancesForLabel = nextInstances.get(key);
+                if (nextInstancesForLabel == null) {
+                    nextInstancesForLabel = new RoaringBitSet();
+                    nextInstances.put(key, nextInstancesForLabel);
+                }
+                nextInstancesForLabel.add(targetNodeId);
+                return true;
+            }));
+
+        for (LongObjectCursor<RoaringBitSet> cursor : nextInstances) {
+            int[] metaPath = Arrays.copyOf(currentMetaPath, currentMetaPath.length + 2);
+            metaPath[currentMetaPath.length] = (int) (cursor.key >>> 32);
+            metaPath[currentMetaPath.length + 1] = (int) cursor.key;
+
+            long[] ends = new long[Math.toIntExact(cursor.value.cardinality())];
+            int[] count = {0};
+            cursor.value.forEach(node -> ends[count[0]++] = idMapping.toOriginalNodeId(node));
+            Arrays.sort(ends);
+            metaPaths.add(metaPath);
+            endNodes.add(ends);
+
+            expand(metaPath, cursor.value, remainingHops - 1, metaPaths, endNodes);
+        }
+    }
+
+    @Override
+    public HubIndexBuilder me() {
+        return this;
+    }
+
+    @Override
+    public HubIndexBuilder release() {
+        return null;
+    }
+
+    public static final class Result {
+        private final int hubCount;
+        private final int reusedCount;
+        private final boolean written;
+
+        Result(int hubCount, int reusedCount, boolean written) {
+            this.hubCount = hubCount;
+            this.reusedCount = reusedCount;
+            this.written = written;
+        }
+
+        /**
+         * @return number of hubs processed, less than requested if the build was terminated
+         */
+        public int getHubCount() {
+            return hubCount;
+        }
+
+        /**
+         * @return number of hubs copied from the previous index
+         */
+        public int getReusedCount() {
+            return reusedCount;
+        }
+
+        /**
+         * @return number of hubs expanded by this build
+         */
+        public int getRecomputedCount() {
+            return hubCount - reusedCount;
+        }
+
+        /**
+         * @return false if the build was terminated and the index file was left unchanged
+         */
+        public boolean isWritten() {
+            return written;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import com.carrotsearch.hppc.sorting.IndirectSort;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Binary file format for the meta-paths of high degree nodes ("hubs").
+ * <p>
+ * Layout (big endian):
+ * <pre>
+ * header:  int magic | int version | int metaPathLength | int hubCount | long tableOffset
+ * records: per hub: long fingerprint | varint entryCount | entries
+ * entry:   varint length | length x varint label | varint endNodeCount | endNodeCount x varint end node delta
+ * table:   hubCount x (long nodeId | long offset | int length), sorted by node id
+ * </pre>
+ * Node ids are the original (neo4j) ids so that a file stays valid across graph loads.
+ * The end nodes of an entry are sorted and stored as differences to their predecessor, so
+ * they take a few bytes each for any id. The fingerprint identifies the
+ * neighbourhood the record was computed from, records with an unchanged fingerprint can be
+ * copied into a new file as they are. Like {@link MetaPathFile} the file is mapped in
+ * segments, so it may exceed 2GB, and a {@link Reader} can be shared between threads.
+ */
+public final class HubIndexFile {
+
+    public static final int MAGIC = 0x4D504849; // "MPHI"
+    public static final int VERSION = 4;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+    private static final int TABLE_ENTRY_SIZE = 2 * Long.BYTES + Integer.BYTES;
+
+    private HubIndexFile() {
+    }
+
+    /**
+     * check whether the file starts with the hub index magic number
+     */
+    public static boolean isHubIndexFile(String filePath) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filePath))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * check whether the file is a hub index in the version written by this class
+     */
+    public static boolean isCurrentHubIndexFile(String filePath) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filePath))) {
+            return in.readInt() == MAGIC && in.readInt() == VERSION;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static Writer writer(String filePath, int metaPathLength) throws IOException {
+        return new Writer(filePath, metaPathLength);
+    }
+
+    public static Reader reader(String filePath) throws IOException {
+        return new Reader(Paths.get(filePath), MappedFile.SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize size of the mapped segments, a power of two
+     */
+    public static Reader reader(String filePath, int segmentSize) throws IOException {
+        return new Reader(Paths.get(filePath), segmentSize);
+    }
+
+    /**
+     * encode the entries of one hub: meta-paths (alternating edge and node labels, starting
+     * after the hub) and the original ids of their end nodes in ascending order
+     */
+    public static byte[] encodeRecord(long fingerprint, int[][] metaPaths, long[][] endNodes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeLong(fingerprint);
+            MetaPathFile.writeVarLong(out, metaPaths.length);
+            for (int i = 0; i < metaPaths.length; i++) {
+                MetaPathFile.writeVarLong(out, metaPaths[i].length);
+                for (int label : metaPaths[i]) {
+                    MetaPathFile.writeVarLong(out, label);
+                }
+                MetaPathFile.writeVarLong(out, endNodes[i].length);
+                long previous = 0;
+                for (long endNode : endNodes[i]) {
+                    MetaPathFile.writeVarLong(out, endNode - previous);
+                    previous = endNode;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static final class Writer implements Closeable {
+
+        private final String filePath;
+        private final DataOutputStream out;
+        private long[] nodeIds = new long[16];
+        private long[] offsets = new long[16];
+        private int[] lengths = new int[16];
+        private int hubCount = 0;
+        private long position = HEADER_SIZE;
+
+        private Writer(String filePath, int metaPathLength) throws IOException {
+            this.filePath = filePath;
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(metaPathLength);
+            out.writeInt(0); // hub count, patched on close
+            out.writeLong(0); // table offset, patched on close
+        }
+
+        /**
+         * append the record of a hub, as returned by {@link #encodeRecord} or {@link Reader#record}
+         */
+        public synchronized void add(long nodeId, byte[] record) throws IOException {
+            if (hubCount == nodeIds.length) {
+                int capacity = hubCount + (hubCount >> 1);
+                nodeIds = Arrays.copyOf(nodeIds, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            nodeIds[hubCount] = nodeId;
+            offsets[hubCount] = position;
+            lengths[hubCount] = record.length;
+            hubCount++;
+            out.write(record);
+            position += record.length;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            int[] order = IndirectSort.mergesort(0, hubCount, (a, b) -> Long.compare(nodeIds[a], nodeIds[b]));
+            for (int i : order) {
+                out.writeLong(nodeIds[i]);
+                out.writeLong(offsets[i]);
+                out.writeInt(lengths[i]);
+            }
+            out.close();
+            try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+                file.seek(3 * Integer.BYTES);
+                file.writeInt(hubCount);
+                file.writeLong(position);
+            }
+        }
+    }
+
+    public static final class Reader {
+
+        private final MappedFile file;
+        private final int metaPathLength;
+        private final int hubCount;
+        private final long tableOffset;
+
+        private Reader(Path path, int segmentSize) throws IOException {
+            file = MappedFile.map(path, segmentSize);
+            if (file.size() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+                throw new IOException("not a hub index file: " + path);
+            }
+            if (file.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException("unsupported hub index version " + file.getInt(Integer.BYTES) + ": " + path);
+            }
+            metaPathLength = file.getInt(2 * Integer.BYTES);
+            hubCount = file.getInt(3 * Integer.BYTES);
+            tableOffset = file.getLong(4 * Integer.BYTES);
+        }
+
+        public int metaPathLength() {
+            return metaPathLength;
+        }
+
+        public int size() {
+            return hubCount;
+        }
+
+        /**
+         * @return the original node id of the hub at the given index, hubs are ordered by node id
+         */
+        public long nodeId(int index) {
+            return file.getLong(tableEntry(index));
+        }
+
+        /**
+         * @return the index of the hub with the given original node id or -1
+         */
+        public int find(long nodeId) {
+            int low = 0;
+            int high = hubCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midId = nodeId(mid);
+                if (midId < nodeId) {
+                    low = mid + 1;
+                } else if (midId > nodeId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        public long fingerprint(int index) {
+            return file.getLong(recordOffset(index));
+        }
+
+        /**
+         * @return the raw record of the hub, to be copied into another file
+         */
+        public byte[] record(int index) {
+            byte[] record = new byte[file.getInt(tableEntry(index) + 2 * Long.BYTES)];
+            file.get(recordOffset(index), record);
+            return record;
+        }
+
+        /**
+         * decode the meta-paths of the hub at the given index
+         */
+        public void forEachEntry(int index, EntryConsumer consumer) {
+            MappedFile.Cursor cursor = file.cursor(recordOffset(index) + Long.BYTES);
+            int entryCount = (int) cursor.readVarLong();
+            for (int i = 0; i < entryCount; i++) {
+                int[] metaPath = new int[(int) cursor.readVarLong()];
+                for (int j = 0; j < metaPath.length; j++) {
+                    metaPath[j] = (int) cursor.readVarLong();
+                }
+                long[] endNodes = new long[(int) cursor.readVarLong()];
+                long endNode = 0;
+                for (int j = 0; j < endNodes.length; j++) {
+                    endNode += cursor.readVarLong();
+                    endNodes[j] = endNode;
+                }
+                consumer.accept(metaPath, endNodes);
+            }
+        }
+
+        private long recordOffset(int index) {
+            return file.getLong(tableEntry(index) + Long.BYTES);
+        }
+
+        private long tableEntry(int index) {
+            if (index < 0 || index >= hubCount) {
+                throw new IndexOutOfBoundsException("index " + index + " of " + hubCount);
+            }
+            return tableOffset + (long) index * TABLE_ENTRY_SIZE;
+        }
+    }
+
+    public interface EntryConsumer {
+        /**
+         * @param endNodes original node ids in ascending order
+         */
+        void accept(int[] metaPath, long[] endNodes);
+    }
+}
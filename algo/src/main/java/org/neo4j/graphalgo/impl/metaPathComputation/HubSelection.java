@@ -0,0 +1,96 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import org.neo4j.graphalgo.api.Degrees;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Selects the high degree nodes ("hubs") of a graph without boxing or sorting node ids.
+ * The degrees are read in parallel into one array, the selection is a counting pass over
+ * a degree histogram.
+ */
+public final class HubSelection {
+
+    private final int[] degrees;
+    private final int maxDegree;
+
+    private HubSelection(int[] degrees) {
+        this.degrees = degrees;
+        int max = 0;
+        for (int degree : degrees) {
+            max = Math.max(max, degree);
+        }
+        this.maxDegree = max;
+    }
+
+    public static HubSelection of(Degrees graph, int nodeCount, ExecutorService executor, int concurrency) {
+        int[] degrees = new int[nodeCount];
+        ParallelUtil.iterateParallel(executor, nodeCount, Math.max(concurrency, 1),
+                nodeId -> degrees[nodeId] = graph.degree(nodeId, Direction.BOTH));
+        return new HubSelection(degrees);
+    }
+
+    public int degree(int nodeId) {
+        return degrees[nodeId];
+    }
+
+    /**
+     * @return the given ratio of all nodes with the highest degrees, rounded up
+     */
+    public int[] byRatio(double ratio) {
+        return topK((int) Math.ceil(degrees.length * ratio));
+    }
+
+    /**
+     * @return the k nodes with the highest degrees in ascending id order. Nodes with
+     * the k-th highest degree are taken by ascending id until k nodes are selected.
+     */
+    public int[] topK(int k) {
+        k = Math.max(0, Math.min(k, degrees.length));
+        if (k == 0) {
+            return new int[0];
+        }
+        int[] histogram = new int[maxDegree + 1];
+        for (int degree : degrees) {
+            histogram[degree]++;
+        }
+        int threshold = maxDegree;
+        int above = 0; // nodes with a degree higher than the threshold
+        while (above + histogram[threshold] < k) {
+            above += histogram[threshold];
+            threshold--;
+        }
+        int ties = k - above;
+
+        int[] hubs = new int[k];
+        int size = 0;
+        for (int nodeId = 0; nodeId < degrees.length; nodeId++) {
+            if (degrees[nodeId] > threshold || (degrees[nodeId] == threshold && ties-- > 0)) {
+                hubs[size++] = nodeId;
+            }
+        }
+        return hubs;
+    }
+
+    /**
+     * @return all nodes with at least the given degree in ascending id order
+     */
+    public int[] minDegree(int minDegree) {
+        int count = 0;
+        for (int degree : degrees) {
+            if (degree >= minDegree) {
+                count++;
+            }
+        }
+        int[] hubs = new int[count];
+        int size = 0;
+        for (int nodeId = 0; nodeId < degrees.length; nodeId++) {
+            if (degrees[nodeId] >= minDegree) {
+                hubs[size++] = nodeId;
+            }
+        }
+        return hubs;
+    }
+}
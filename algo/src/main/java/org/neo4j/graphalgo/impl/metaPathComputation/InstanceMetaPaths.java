@@ -0,0 +1,211 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntLongHashMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.IntLongCursor;
+import com.carrotsearch.hppc.cursors.LongObjectCursor;
+import org.neo4j.graphalgo.api.ArrayGraphInterface;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The meta-paths between single instances: for every start node the meta-paths up to
+ * {@code metaPathLength} node labels which reach each target node and the number of their
+ * instances between the two nodes.
+ * <p>
+ * Each start node is expanded depth first, one meta-path prefix at a time. A prefix holds the
+ * nodes it reaches and the number of walks to each of them, its extensions are grouped by
+ * (edge label, node label), so every meta-path is found exactly once and nothing is shared
+ * between the start nodes. Batches of start nodes run in parallel on the executor and hand their
+ * rows to the result stream in chunks.
+ */
+public class InstanceMetaPaths extends MetaPathComputation {
+
+    private static final int RESULT_QUEUE_CAPACITY = 10_000;
+    private static final int CHUNK_SIZE = 1_000;
+
+    private ArrayGraphInterface arrayGraphInterface;
+    private int metaPathLength;
+    private IntHashSet endNodeSet = null;
+    private ExecutorService executor = Pools.DEFAULT;
+    private int concurrency = Pools.DEFAULT_CONCURRENCY;
+    private int batchSize = 64;
+
+    public InstanceMetaPaths(ArrayGraphInterface arrayGraphInterface, int metaPathLength) {
+        this.arrayGraphInterface = arrayGraphInterface;
+        this.metaPathLength = metaPathLength;
+    }
+
+    public InstanceMetaPaths withConcurrency(ExecutorService executor, int concurrency) {
+        this.executor = executor;
+        this.concurrency = Math.max(concurrency, 1);
+        return this;
+    }
+
+    /**
+     * number of start nodes handled by one task
+     */
+    public InstanceMetaPaths withBatchSize(int batchSize) {
+        this.batchSize = Math.max(batchSize, 1);
+        return this;
+    }
+
+    /**
+     * only report meta-paths ending in one of the given mapped node ids, all reached nodes are reported for null
+     */
+    public InstanceMetaPaths withEndNodes(int[] endNodes) {
+        this.endNodeSet = endNodes == null ? null : IntHashSet.from(endNodes);
+        return this;
+    }
+
+    /**
+     * @return the rows of one start node
+     */
+    public List<Row> compute(int startNode) {
+        List<Row> rows = new ArrayList<>();
+        computeFrom(startNode, rows::add, this::running);
+        return rows;
+    }
+
+    /**
+     * Starts the computation in the background and returns the rows as they are found, in no
+     * particular order of the start nodes. The rows are handed over in chunks through a bounded
+     * queue, so neither the whole result nor all rows of a single start node are held at once.
+     * The tasks block while the queue is full, closing the stream or terminating stops them.
+     *
+     * @param startNodes mapped node ids
+     */
+    public Stream<Row> resultStream(int[] startNodes) {
+        BoundedResultStream<List<Row>> results = new BoundedResultStream<>(RESULT_QUEUE_CAPACITY / CHUNK_SIZE, this);
+        BooleanSupplier running = () -> running() && !results.isClosed();
+        int batches = ParallelUtil.threadSize(batchSize, startNodes.length);
+        AtomicLong done = new AtomicLong();
+        List<Runnable> tasks = new ArrayList<>(batches);
+        for (int batch = 0; batch < batches; batch++) {
+            int start = batch * batchSize;
+            int end = Math.min(startNodes.length, start + batchSize);
+            tasks.add(() -> {
+                RowChunks rows = new RowChunks(results);
+                for (int i = start; i < end && running.getAsBoolean(); i++) {
+                    computeFrom(startNodes[i], rows, running);
+                }
+                rows.flush();
+                getProgressLogger().logProgress(done.addAndGet(end - start), startNodes.length);
+            });
+        }
+
+        return results.start(() ->
+                ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 1, TimeUnit.MILLISECONDS, this, executor))
+                .flatMap(List::stream);
+    }
+
+    private void computeFrom(int startNode, Consumer<Row> rows, BooleanSupplier running) {
+        IntLongHashMap walks = new IntLongHashMap();
+        walks.put(startNode, 1L);
+        expand(startNode, new int[]{arrayGraphInterface.getLabel(startNode)}, walks, metaPathLength - 1, rows, running);
+    }
+
+    /**
+     * extend the meta-path by every (edge label, node label) reached from its instances
+     *
+     * @param walks the nodes reached by the meta-path and the number of its instances ending in each of them
+     */
+    private void expand(int startNode, int[] metaPath, IntLongHashMap walks, int remainingHops, Consumer<Row> rows, BooleanSupplier running) {
+        if (remainingHops <= 0 || !running.getAsBoolean()) {
+            return;
+        }
+
+        LongObjectHashMap<IntLongHashMap> nextWalks = new LongObjectHashMap<>(); // (edge label, node label) -> walks
+        for (IntLongCursor cursor : walks) {
+            long count = cursor.value;
+            arrayGraphInterface.forEachTypedRelationship(cursor.key, Direction.BOTH, (sourceNodeId, targetNodeId, typeId, targetLabel) -> {
+                long key = ((long) typeId << 32) | (targetLabel & 0xFFFFFFFFL);
+                IntLongHashMap nextWalksForLabel = nextWalks.get(key);
+                if (nextWalksForLabel == null) {
+                    nextWalksForLabel = new IntLongHashMap();
+                    nextWalks.put(key, nextWalksForLabel);
+                }
+                nextWalksForLabel.addTo(targetNodeId, count);
+                return true;
+            });
+        }
+
+        for (LongObjectCursor<IntLongHashMap> cursor : nextWalks) {
+            int[] newMetaPath = Arrays.copyOf(metaPath, metaPath.length + 2);
+            newMetaPath[metaPath.length] = (int) (cursor.key >>> 32);
+            newMetaPath[metaPath.length + 1] = (int) cursor.key;
+            for (IntLongCursor target : cursor.value) {
+                if (endNodeSet == null || endNodeSet.contains(target.key)) {
+                    rows.accept(new Row(startNode, target.key, newMetaPath, target.value));
+                }
+            }
+            expand(startNode, newMetaPath, cursor.value, remainingHops - 1, rows, running);
+        }
+    }
+
+    @Override
+    public InstanceMetaPaths me() {
+        return this;
+    }
+
+    @Override
+    public InstanceMetaPaths release() {
+        return null;
+    }
+
+    /**
+     * collects the rows of one task and puts them into the result stream once a chunk is full
+     */
+    private static final class RowChunks implements Consumer<Row> {
+        private final BoundedResultStream<List<Row>> results;
+        private List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        RowChunks(BoundedResultStream<List<Row>> results) {
+            this.results = results;
+        }
+
+        @Override
+        public void accept(Row row) {
+            chunk.add(row);
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!chunk.isEmpty()) {
+                results.put(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+    }
+
+    /**
+     * One meta-path between two nodes: mapped node ids, alternating node and edge label ids and the number of its instances between them
+     */
+    public static final class Row {
+        public final int startNode;
+        public final int endNode;
+        public final int[] metaPath;
+        public final long count;
+
+        public Row(int startNode, int endNode, int[] metaPath, long count) {
+            this.startNode = startNode;
+            this.endNode = endNode;
+            this.metaPath = metaPath;
+            this.count = count;
+        }
+    }
+}
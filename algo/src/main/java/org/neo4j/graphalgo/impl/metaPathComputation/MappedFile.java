@@ -0,0 +1,111 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file mapped into memory read-only in segments, so files beyond 2GB can be mapped and a
+ * value may span two segments. Values are big endian. It only uses absolute reads and can be
+ * shared between threads, sequential decoding goes through a {@link Cursor} per call.
+ */
+final class MappedFile {
+
+    static final int SEGMENT_SIZE = 1 << 30;
+
+    private final ByteBuffer[] segments;
+    private final int segmentShift;
+    private final long segmentMask;
+
+    private MappedFile(ByteBuffer[] segments, int segmentShift) {
+        this.segments = segments;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+    }
+
+    /**
+     * @param segmentSize size of the mapped segments, a power of two
+     */
+    static MappedFile map(Path path, int segmentSize) throws IOException {
+        if (Integer.bitCount(segmentSize) != 1) {
+            throw new IllegalArgumentException("segment size must be a power of two: " + segmentSize);
+        }
+        int segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer[] segments = new ByteBuffer[(int) ((size + segmentSize - 1) >>> segmentShift)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << segmentShift;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+            }
+            return new MappedFile(segments, segmentShift);
+        }
+    }
+
+    long size() {
+        return segments.length == 0 ? 0 : ((long) (segments.length - 1) << segmentShift) + segments[segments.length - 1].limit();
+    }
+
+    byte get(long position) {
+        return segments[(int) (position >>> segmentShift)].get((int) (position & segmentMask));
+    }
+
+    int getInt(long position) {
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = (value << 8) | (get(position + i) & 0xFF);
+        }
+        return value;
+    }
+
+    long getLong(long position) {
+        return ((long) getInt(position) << 32) | (getInt(position + Integer.BYTES) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * copy the bytes starting at the position into the array
+     */
+    void get(long position, byte[] target) {
+        int copied = 0;
+        while (copied < target.length) {
+            long current = position + copied;
+            ByteBuffer segment = segments[(int) (current >>> segmentShift)].duplicate();
+            segment.position((int) (current & segmentMask));
+            int length = Math.min(segment.remaining(), target.length - copied);
+            segment.get(target, copied, length);
+            copied += length;
+        }
+    }
+
+    Cursor cursor(long position) {
+        return new Cursor(position);
+    }
+
+    /**
+     * reading position of one decoding call
+     */
+    final class Cursor {
+        private long position;
+
+        private Cursor(long position) {
+            this.position = position;
+        }
+
+        /**
+         * read a value written by {@link MetaPathFile#writeVarLong}
+         */
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package org.neo4j.graphalgo.impl.metaPathComputation;
 
 import org.neo4j.graphalgo.impl.Algorithm;
-import java.util.HashSet;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -14,15 +13,6 @@ public class MetaPathComputation extends Algorithm<MetaPathComputation> {
         //override this
     }
 
-    public void computeWeights(HashSet<String> metaPathSet) {
-        //override this
-    }
-
-    public void computeTwoMPWeights(HashSet<Integer> labelIDSet) {
-        //override this
-    }
-
-
     @Override
     public MetaPathComputation me() { return this; }
 
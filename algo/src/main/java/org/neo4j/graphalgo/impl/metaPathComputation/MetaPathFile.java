@@ -0,0 +1,192 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import com.carrotsearch.hppc.LongArrayList;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Binary file format for precomputed meta-paths.
+ * <p>
+ * Layout (big endian):
+ * <pre>
+ * header:  int magic | int version | int entryCount | long tableOffset
+ * data:    per entry: varint length | length x varint label | varlong count
+ * table:   entryCount x long offset of the entry
+ * </pre>
+ * The {@link Reader} maps the file into memory in segments and decodes entries on
+ * access, so opening a file costs no heap regardless of its size. It only uses absolute
+ * reads and can be shared between threads.
+ */
+public final class MetaPathFile {
+
+    public static final int MAGIC = 0x4D505448; // "MPTH"
+    public static final int VERSION = 2;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES + Long.BYTES;
+
+    private MetaPathFile() {
+    }
+
+    /**
+     * check whether the file starts with the meta-path file magic number
+     */
+    public static boolean isMetaPathFile(String filePath) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filePath))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static Writer writer(String filePath) throws IOException {
+        return new Writer(filePath);
+    }
+
+    public static Reader reader(String filePath) throws IOException {
+        return new Reader(Paths.get(filePath), MappedFile.SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize size of the mapped segments, a power of two
+     */
+    public static Reader reader(String filePath, int segmentSize) throws IOException {
+        return new Reader(Paths.get(filePath), segmentSize);
+    }
+
+    public static final class Writer implements Closeable {
+
+        private final String filePath;
+        private final DataOutputStream out;
+        private final LongArrayList offsets = new LongArrayList();
+        private long position = HEADER_SIZE;
+
+        private Writer(String filePath) throws IOException {
+            this.filePath = filePath;
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(0); // entry count, patched on close
+            out.writeLong(0); // table offset, patched on close
+        }
+
+        /**
+         * append a meta-path (alternating node and edge label ids) and its instance count
+         */
+        public synchronized void add(int[] metaPath, long count) throws IOException {
+            if (offsets.size() == Integer.MAX_VALUE) {
+                throw new IllegalStateException("too many meta-paths for one file: " + filePath);
+            }
+            offsets.add(position);
+            position += writeVarLong(out, metaPath.length);
+            for (int label : metaPath) {
+                position += writeVarLong(out, label);
+            }
+            position += writeVarLong(out, count);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            for (int i = 0; i < offsets.size(); i++) {
+                out.writeLong(offsets.get(i));
+            }
+            out.close();
+            try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+                file.seek(2 * Integer.BYTES);
+                file.writeInt(offsets.size());
+                file.writeLong(position);
+            }
+        }
+    }
+
+    public static final class Reader {
+
+        private final MappedFile file;
+        private final int entryCount;
+        private final long tableOffset;
+
+        private Reader(Path path, int segmentSize) throws IOException {
+            file = MappedFile.map(path, segmentSize);
+            if (file.size() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+                throw new IOException("not a meta-path file: " + path);
+            }
+            if (file.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException("unsupported meta-path file version " + file.getInt(Integer.BYTES) + ": " + path);
+            }
+            entryCount = file.getInt(2 * Integer.BYTES);
+            tableOffset = file.getLong(3 * Integer.BYTES);
+        }
+
+        public int size() {
+            return entryCount;
+        }
+
+        /**
+         * get the label sequence of the entry at the given index
+         */
+        public int[] metaPath(int index) {
+            MappedFile.Cursor cursor = file.cursor(offset(index));
+            int[] metaPath = new int[(int) cursor.readVarLong()];
+            for (int i = 0; i < metaPath.length; i++) {
+                metaPath[i] = (int) cursor.readVarLong();
+            }
+            return metaPath;
+        }
+
+        /**
+         * get the instance count of the entry at the given index
+         */
+        public long count(int index) {
+            MappedFile.Cursor cursor = file.cursor(offset(index));
+            int length = (int) cursor.readVarLong();
+            for (int i = 0; i < length; i++) {
+                cursor.readVarLong();
+            }
+            return cursor.readVarLong();
+        }
+
+        /**
+         * decode all entries in file order
+         */
+        public void forEach(MetaPathConsumer consumer) {
+            MappedFile.Cursor cursor = file.cursor(HEADER_SIZE);
+            for (int i = 0; i < entryCount; i++) {
+                int[] metaPath = new int[(int) cursor.readVarLong()];
+                for (int j = 0; j < metaPath.length; j++) {
+                    metaPath[j] = (int) cursor.readVarLong();
+                }
+                consumer.accept(metaPath, cursor.readVarLong());
+            }
+        }
+
+        private long offset(int index) {
+            if (index < 0 || index >= entryCount) {
+                throw new IndexOutOfBoundsException("index " + index + " of " + entryCount);
+            }
+            return file.getLong(tableOffset + (long) index * Long.BYTES);
+        }
+    }
+
+    /**
+     * write a non-negative value in 7 bit groups, least significant first
+     *
+     * @return number of bytes written
+     */
+    static int writeVarLong(DataOutput out, long value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative value " + value);
+        }
+        int bytes = 1;
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+            bytes++;
+        }
+        out.writeByte((int) value);
+        return bytes;
+    }
+
+    public interface MetaPathConsumer {
+        void accept(int[] metaPath, long count);
+    }
+}
@@ -0,0 +1,780 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import com.carrotsearch.hppc.IntArrayList;
+import org.neo4j.graphalgo.api.ArrayGraphInterface;
+import org.neo4j.graphalgo.core.NodeLabels;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.container.RoaringBitSet;
+import org.neo4j.graphdb.Direction;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The typed adjacency of a labelled graph as sparse matrices: one CSR matrix per schema edge
+ * (source label, edge label, target label). Its rows are the nodes of the source label, its
+ * columns the nodes of the target label, both numbered by their position in
+ * {@link ArrayGraphInterface#getNodesWithLabel(int)}.
+ * <p>
+ * The instances of a meta-path (node label, edge label, node label, ...) are the entries of
+ * the product of the matrices along it, so its instance count is the sum of the vector
+ * 1 x A1 x A2 x ... . Counting all meta-paths walks the prefix tree depth first: the vector of a
+ * prefix is computed once and multiplied with the matrix of every extension, so shared
+ * prefixes are never re-evaluated and the raw adjacency is only read while building.
+ */
+public final class MetaPathMatrices {
+
+    private static final int MAX_SURPLUS_TASKS = 3;
+
+    private final int labelCount;
+    private final int edgeLabelCount;
+    private final int[] nodeLabels;
+    private final IntBuffer[] nodesWithLabel; // label -> node ids, the views of the graph
+    private final Matrix[] matrices; // (source label, edge label, target label) -> matrix or null
+    private final int[][] extensions; // source label -> (edge label, target label) pairs with a matrix
+    private final ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+    private final ThreadLocal<VectorStack> buffers = ThreadLocal.withInitial(VectorStack::new);
+
+    private MetaPathMatrices(int labelCount, int edgeLabelCount, int[] nodeLabels, IntBuffer[] nodesWithLabel, Matrix[] matrices) {
+        this.labelCount = labelCount;
+        this.edgeLabelCount = edgeLabelCount;
+        this.nodeLabels = nodeLabels;
+        this.nodesWithLabel = nodesWithLabel;
+        this.matrices = matrices;
+        this.extensions = new int[labelCount][];
+        for (int sourceLabel = 0; sourceLabel < labelCount; sourceLabel++) {
+            List<Integer> pairs = new ArrayList<>();
+            for (int edgeLabel = 0; edgeLabel < edgeLabelCount; edgeLabel++) {
+                for (int targetLabel = 0; targetLabel < labelCount; targetLabel++) {
+                    if (matrices[index(sourceLabel, edgeLabel, targetLabel)] != null) {
+                        pairs.add(edgeLabel * labelCount + targetLabel);
+                    }
+                }
+            }
+            extensions[sourceLabel] = pairs.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * read the typed adjacency of all nodes into CSR matrices. Every relationship visited by
+     * {@link ArrayGraphInterface#forEachTypedRelationship} in direction BOTH becomes one entry,
+     * so the counts are the same as those of a traversal of the graph.
+     */
+    public static MetaPathMatrices build(ArrayGraphInterface graph, int nodeCount, ExecutorService executor, int concurrency) {
+        int[] nodeLabels = graph.getAllLabels().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int labelCount = Arrays.stream(nodeLabels).max().orElse(-1) + 1;
+        int edgeLabelCount = graph.getAllEdgeLabels().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+        int threads = Math.max(concurrency, 1);
+
+        IntBuffer[] nodesWithLabel = new IntBuffer[labelCount];
+        int[] localIndex = new int[nodeCount];
+        Arrays.fill(localIndex, -1);
+        for (int label : nodeLabels) {
+            // kept as the view of the graph, rows and columns are looked up in it from now on
+            IntBuffer nodes = graph.getNodesWithLabel(label);
+            nodesWithLabel[label] = nodes;
+            for (int i = 0; i < nodes.limit(); i++) {
+                localIndex[nodes.get(i)] = i;
+            }
+        }
+
+        // find the schema edges
+        int matrixCount = labelCount * edgeLabelCount * labelCount;
+        AtomicIntegerArray present = new AtomicIntegerArray(matrixCount);
+        ParallelUtil.iterateParallel(executor, nodeCount, threads, nodeId -> {
+            int sourceLabel = graph.getLabel(nodeId);
+            if (localIndex[nodeId] < 0 || sourceLabel < 0 || sourceLabel >= labelCount) {
+                return;
+            }
+            graph.forEachTypedRelationship(nodeId, Direction.BOTH, (sourceNodeId, targetNodeId, typeId, targetLabel) -> {
+                if (isEntry(typeId, targetNodeId, targetLabel, localIndex, labelCount, edgeLabelCount)) {
+                    int index = (sourceLabel * edgeLabelCount + typeId) * labelCount + targetLabel;
+                    if (present.get(index) == 0) {
+                        present.set(index, 1);
+                    }
+                }
+                return true;
+            });
+        });
+
+        int[][] offsets = new int[matrixCount][];
+        for (int index = 0; index < matrixCount; index++) {
+            if (present.get(index) != 0) {
+                offsets[index] = new int[nodesWithLabel[index / (edgeLabelCount * labelCount)].limit() + 1];
+            }
+        }
+
+        // count the entries of each row, a row is only written by the thread owning its node
+        ParallelUtil.iterateParallel(executor, nodeCount, threads, nodeId -> {
+            int sourceLabel = graph.getLabel(nodeId);
+            int row = localIndex[nodeId];
+            if (row < 0 || sourceLabel < 0 || sourceLabel >= labelCount) {
+                return;
+            }
+            graph.forEachTypedRelationship(nodeId, Direction.BOTH, (sourceNodeId, targetNodeId, typeId, targetLabel) -> {
+                if (isEntry(typeId, targetNodeId, targetLabel, localIndex, labelCount, edgeLabelCount)) {
+                    offsets[(sourceLabel * edgeLabelCount + typeId) * labelCount + targetLabel][row]++;
+                }
+                return true;
+            });
+        });
+
+        // offsets[row] becomes the end of the row and is moved back to its start while filling
+        int[][] columns = new int[matrixCount][];
+        for (int index = 0; index < matrixCount; index++) {
+            if (offsets[index] != null) {
+                int[] rowOffsets = offsets[index];
+                int rows = rowOffsets.length - 1;
+                for (int row = 1; row < rows; row++) {
+                    rowOffsets[row] += rowOffsets[row - 1];
+                }
+                rowOffsets[rows] = rows == 0 ? 0 : rowOffsets[rows - 1];
+                columns[index] = new int[rowOffsets[rows]];
+            }
+        }
+        ParallelUtil.iterateParallel(executor, nodeCount, threads, nodeId -> {
+            int sourceLabel = graph.getLabel(nodeId);
+            int row = localIndex[nodeId];
+            if (row < 0 || sourceLabel < 0 || sourceLabel >= labelCount) {
+                return;
+            }
+            graph.forEachTypedRelationship(nodeId, Direction.BOTH, (sourceNodeId, targetNodeId, typeId, targetLabel) -> {
+                if (isEntry(typeId, targetNodeId, targetLabel, localIndex, labelCount, edgeLabelCount)) {
+                    int index = (sourceLabel * edgeLabelCount + typeId) * labelCount + targetLabel;
+                    columns[index][--offsets[index][row]] = localIndex[targetNodeId];
+                }
+                return true;
+            });
+        });
+
+        Matrix[] matrices = new Matrix[matrixCount];
+        for (int index = 0; index < matrixCount; index++) {
+            if (offsets[index] != null) {
+                int targetLabel = index % labelCount;
+                matrices[index] = new Matrix(offsets[index].length - 1, nodesWithLabel[targetLabel].limit(), offsets[index], columns[index], null);
+            }
+        }
+        return new MetaPathMatrices(labelCount, edgeLabelCount, nodeLabels, nodesWithLabel, matrices);
+    }
+
+    private static boolean isEntry(int typeId, int targetNodeId, int targetLabel, int[] localIndex, int labelCount, int edgeLabelCount) {
+        return typeId >= 0 && typeId < edgeLabelCount && targetLabel >= 0 && targetLabel < labelCount && localIndex[targetNodeId] >= 0;
+    }
+
+    private int index(int sourceLabel, int edgeLabel, int targetLabel) {
+        return (sourceLabel * edgeLabelCount + edgeLabel) * labelCount + targetLabel;
+    }
+
+    /**
+     * @return the matrix of the schema edge or null if no such relationship exists
+     */
+    public Matrix matrix(int sourceLabel, int edgeLabel, int targetLabel) {
+        if (sourceLabel < 0 || sourceLabel >= labelCount || edgeLabel < 0 || edgeLabel >= edgeLabelCount
+                || targetLabel < 0 || targetLabel >= labelCount) {
+            return null;
+        }
+        return matrices[index(sourceLabel, edgeLabel, targetLabel)];
+    }
+
+    /**
+     * @return the ids of all node labels, ascending
+     */
+    public int[] nodeLabels() {
+        return nodeLabels.clone();
+    }
+
+    /**
+     * @return the node ids of the label, i.e. the mapping of row and column numbers to nodes,
+     * as a read-only view of the graph from position 0 to its limit
+     */
+    public IntBuffer nodesWithLabel(int label) {
+        return label >= 0 && label < labelCount && nodesWithLabel[label] != null ? nodesWithLabel[label].duplicate() : NodeLabels.NO_NODES;
+    }
+
+    /**
+     * @return the instance count of one meta-path
+     */
+    public long count(int[] metaPath) {
+        Vector vector = Vector.ones(nodesWithLabel(metaPath[0]).limit());
+        for (int i = 1; i + 1 < metaPath.length && vector.size() > 0; i += 2) {
+            Matrix matrix = matrix(metaPath[i - 1], metaPath[i], metaPath[i + 1]);
+            if (matrix == null) {
+                return 0L;
+            }
+            vector = matrix.multiply(vector, 0, vector.size(), accumulators.get());
+        }
+        return vector.sum();
+    }
+
+    /**
+     * visit the instance counts of all meta-paths with up to metaPathLength node labels which
+     * start at a single node, given by its label and its position within the label
+     */
+    public void countFrom(int label, int row, int metaPathLength, MetaPathFile.MetaPathConsumer consumer) {
+        int[] metaPath = {label};
+        consumer.accept(metaPath, 1L);
+        countFrom(metaPath, new Vector(new int[]{row}, new long[]{1L}), metaPathLength - 1, consumer);
+    }
+
+    private void countFrom(int[] metaPath, Vector vector, int remainingHops, MetaPathFile.MetaPathConsumer consumer) {
+        if (remainingHops <= 0) {
+            return;
+        }
+        int lastLabel = metaPath[metaPath.length - 1];
+        for (int pair : extensions[lastLabel]) {
+            int edgeLabel = pair / labelCount;
+            int nodeLabel = pair % labelCount;
+            Vector next = matrices[index(lastLabel, edgeLabel, nodeLabel)].multiply(vector, 0, vector.size(), accumulators.get());
+            if (next.size() > 0) {
+                int[] newMetaPath = Arrays.copyOf(metaPath, metaPath.length + 2);
+                newMetaPath[metaPath.length] = edgeLabel;
+                newMetaPath[metaPath.length + 1] = nodeLabel;
+                consumer.accept(newMetaPath, next.sum());
+                countFrom(newMetaPath, next, remainingHops - 1, consumer);
+            }
+        }
+    }
+
+    /**
+     * The commuting matrix of the meta-path: entry (i, j) is the number of instances between the
+     * i-th node of the first and the j-th node of the last label of the meta-path.
+     */
+    public Matrix commutingMatrix(int[] metaPath, ExecutorService executor, int concurrency) {
+        Matrix product = Matrix.identity(nodesWithLabel(metaPath[0]).limit());
+        for (int i = 1; i + 1 < metaPath.length; i += 2) {
+            Matrix matrix = matrix(metaPath[i - 1], metaPath[i], metaPath[i + 1]);
+            if (matrix == null) {
+                return Matrix.empty(product.rows(), nodesWithLabel(metaPath[metaPath.length - 1]).limit());
+            }
+            product = i == 1 ? matrix : product.multiply(matrix, executor, concurrency);
+        }
+        return product;
+    }
+
+    /**
+     * @return the support of the meta-path: the number of nodes of its first label with at least
+     * one instance. It is evaluated from the end of the meta-path towards its start, the
+     * enumeration of {@link #countAll} caches these passes by suffix instead.
+     */
+    public long support(int[] metaPath) {
+        boolean[] reached = new boolean[nodesWithLabel(metaPath[metaPath.length - 1]).limit()];
+        Arrays.fill(reached, true);
+        for (int i = metaPath.length - 2; i > 0; i -= 2) {
+            Matrix matrix = matrix(metaPath[i - 1], metaPath[i], metaPath[i + 1]);
+            if (matrix == null) {
+                return 0L;
+            }
+            reached = matrix.reaches(reached);
+        }
+        long support = 0L;
+        for (boolean r : reached) {
+            if (r) {
+                support++;
+            }
+        }
+        return support;
+    }
+
+    /**
+     * Task counting the instances of all meta-paths with up to metaPathLength node labels, to be
+     * invoked in a {@link java.util.concurrent.ForkJoinPool}. The extensions of a prefix are
+     * forked while the pool has idle workers and counted depth first on the same thread
+     * otherwise, so a thread holds about one product vector per hop and the vectors counted
+     * depth first are reused. Large vector products are split into row ranges whose partial
+     * results are summed.
+     */
+    public RecursiveAction countAll(int metaPathLength, BooleanSupplier running, MetaPathFile.MetaPathConsumer consumer) {
+        return countAll(metaPathLength, MetaPathPruning.none(), running, consumer);
+    }
+
+    /**
+     * Task counting the meta-paths allowed by the pruning, prefixes rejected by it are not extended
+     */
+    public RecursiveAction countAll(int metaPathLength, MetaPathPruning pruning, BooleanSupplier running, MetaPathFile.MetaPathConsumer consumer) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<CountTask> tasks = new ArrayList<>();
+                SupportCache supports = pruning.needsSupport() ? new SupportCache() : null;
+                for (int label : nodeLabels) {
+                    if (!pruning.allowsLabel(label)) {
+                        continue;
+                    }
+                    int[] metaPath = {label};
+                    Vector vector = Vector.ones(nodesWithLabel[label].limit());
+                    if (vector.size() > 0 && pruning.accept(metaPath, vector.sum(), vector.size(), consumer)) {
+                        tasks.add(new CountTask(metaPath, vector, supports, metaPathLength - 1, pruning, running, consumer));
+                    }
+                }
+                invokeAll(tasks);
+                pruning.flush(consumer);
+            }
+        };
+    }
+
+    private final class CountTask extends RecursiveAction {
+        private final int[] metaPath;
+        private final Vector vector;
+        private final SupportCache supports;
+        private final int remainingHops;
+        private final MetaPathPruning pruning;
+        private final BooleanSupplier running;
+        private final MetaPathFile.MetaPathConsumer consumer;
+
+        /**
+         * @param supports the support of the enumerated meta-paths, null if the pruning needs no support
+         */
+        CountTask(int[] metaPath, Vector vector, SupportCache supports, int remainingHops, MetaPathPruning pruning, BooleanSupplier running, MetaPathFile.MetaPathConsumer consumer) {
+            this.metaPath = metaPath;
+            this.vector = vector;
+            this.supports = supports;
+            this.remainingHops = remainingHops;
+            this.pruning = pruning;
+            this.running = running;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (remainingHops <= 0 || !running.getAsBoolean()) {
+                return;
+            }
+            int lastLabel = metaPath[metaPath.length - 1];
+            VectorStack stack = buffers.get();
+            Vector next = stack.push();
+            List<CountTask> forked = new ArrayList<>();
+            try {
+                for (int pair : extensions[lastLabel]) {
+                    int edgeLabel = pair / labelCount;
+                    int nodeLabel = pair % labelCount;
+                    if (!pruning.allows(edgeLabel, nodeLabel)) {
+                        continue;
+                    }
+                    Matrix matrix = matrices[index(lastLabel, edgeLabel, nodeLabel)];
+                    next = new ProductTask(matrix, vector, 0, vector.size(), next).compute();
+                    if (next.size() == 0) {
+                        continue;
+                    }
+                    int[] newMetaPath = Arrays.copyOf(metaPath, metaPath.length + 2);
+                    newMetaPath[metaPath.length] = edgeLabel;
+                    newMetaPath[metaPath.length + 1] = nodeLabel;
+                    long support = supports == null ? 0L : supports.support(newMetaPath);
+                    if (!pruning.accept(newMetaPath, next.sum(), support, consumer)) {
+                        continue;
+                    }
+                    if (getSurplusQueuedTaskCount() < MAX_SURPLUS_TASKS) {
+                        // may be stolen, so it gets a vector of its own
+                        CountTask child = new CountTask(newMetaPath, next.copy(), supports, remainingHops - 1, pruning, running, consumer);
+                        child.fork();
+                        forked.add(child);
+                    } else {
+                        new CountTask(newMetaPath, next, supports, remainingHops - 1, pruning, running, consumer).compute();
+                    }
+                }
+                for (CountTask child : forked) {
+                    child.join();
+                }
+            } finally {
+                stack.pop();
+            }
+        }
+    }
+
+    private final class ProductTask extends RecursiveTask<Vector> {
+        private final Matrix matrix;
+        private final Vector vector;
+        private final int from;
+        private final int to;
+        private final Vector target;
+
+        /**
+         * @param target the vector the product is written to, a new one for null
+         */
+        ProductTask(Matrix matrix, Vector vector, int from, int to, Vector target) {
+            this.matrix = matrix;
+            this.vector = vector;
+            this.from = from;
+            this.to = to;
+            this.target = target;
+        }
+
+        @Override
+        protected Vector compute() {
+            if (to - from > ParallelUtil.DEFAULT_BATCH_SIZE) {
+                int mid = (from + to) >>> 1;
+                ProductTask left = new ProductTask(matrix, vector, from, mid, null);
+                left.fork();
+                Vector right = new ProductTask(matrix, vector, mid, to, null).compute();
+                return Vector.add(left.join(), right, accumulators.get(), target);
+            }
+            return matrix.multiply(vector, from, to, accumulators.get(), target);
+        }
+    }
+
+    /**
+     * The support of the meta-paths of one enumeration. The start rows of a meta-path with an
+     * instance are the rows of its first matrix with an entry in the start rows of the rest of
+     * the meta-path, so these row sets are cached by suffix: the support of an extension costs
+     * one pass over the matrix of its first hop, the remaining hops are shared by all
+     * meta-paths ending the same way.
+     */
+    private final class SupportCache {
+        private final ConcurrentHashMap<IntArrayList, RoaringBitSet> startRows = new ConcurrentHashMap<>();
+
+        /**
+         * @param metaPath a meta-path with at least two node labels
+         */
+        long support(int[] metaPath) {
+            return startRows(metaPath, 0).cardinality();
+        }
+
+        /**
+         * @return the rows of the node label at from with an instance of the rest of the meta-path
+         */
+        private RoaringBitSet startRows(int[] metaPath, int from) {
+            IntArrayList suffix = new IntArrayList(metaPath.length - from);
+            suffix.add(metaPath, from, metaPath.length - from);
+            RoaringBitSet rows = startRows.get(suffix);
+            if (rows != null) {
+                return rows;
+            }
+            Matrix matrix = matrix(metaPath[from], metaPath[from + 1], metaPath[from + 2]);
+            if (matrix == null) {
+                rows = new RoaringBitSet();
+            } else if (from + 3 == metaPath.length) {
+                rows = matrix.nonEmptyRows();
+            } else {
+                rows = matrix.reaches(startRows(metaPath, from + 2));
+            }
+            RoaringBitSet previous = startRows.putIfAbsent(suffix, rows);
+            return previous == null ? rows : previous;
+        }
+    }
+
+    /**
+     * Sparse vector of non-zero counts, the indices are not ordered. The arrays of a reused
+     * vector may be longer than its size.
+     */
+    public static final class Vector {
+        private int[] indices;
+        private long[] values;
+        private int size;
+
+        Vector(int[] indices, long[] values) {
+            this.indices = indices;
+            this.values = values;
+            this.size = indices.length;
+        }
+
+        static Vector ones(int length) {
+            int[] indices = new int[length];
+            long[] values = new long[length];
+            for (int i = 0; i < length; i++) {
+                indices[i] = i;
+                values[i] = 1L;
+            }
+            return new Vector(indices, values);
+        }
+
+        static Vector add(Vector a, Vector b, Accumulator accumulator, Vector target) {
+            accumulator.add(a, 0, a.size());
+            accumulator.add(b, 0, b.size());
+            return accumulator.drain(target);
+        }
+
+        Vector copy() {
+            return new Vector(Arrays.copyOf(indices, size), Arrays.copyOf(values, size));
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int index(int i) {
+            return indices[i];
+        }
+
+        public long value(int i) {
+            return values[i];
+        }
+
+        public long sum() {
+            long sum = 0L;
+            for (int i = 0; i < size; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Compressed sparse row matrix of positive counts. Without values every entry is 1 and
+     * repeated columns within a row stand for parallel relationships.
+     */
+    public static final class Matrix {
+        private final int rows;
+        private final int columns;
+        private final int[] offsets;
+        private final int[] indices;
+        private final long[] values;
+
+        Matrix(int rows, int columns, int[] offsets, int[] indices, long[] values) {
+            this.rows = rows;
+            this.columns = columns;
+            this.offsets = offsets;
+            this.indices = indices;
+            this.values = values;
+        }
+
+        static Matrix identity(int size) {
+            int[] offsets = new int[size + 1];
+            int[] indices = new int[size];
+            for (int i = 0; i < size; i++) {
+                offsets[i + 1] = i + 1;
+                indices[i] = i;
+            }
+            return new Matrix(size, size, offsets, indices, null);
+        }
+
+        static Matrix empty(int rows, int columns) {
+            return new Matrix(rows, columns, new int[rows + 1], new int[0], null);
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public int columns() {
+            return columns;
+        }
+
+        /**
+         * @return number of stored entries
+         */
+        public int entries() {
+            return indices.length;
+        }
+
+        /**
+         * visit the stored entries of the row, parallel relationships of an adjacency matrix
+         * are visited once each
+         */
+        public void forEachInRow(int row, EntryConsumer consumer) {
+            for (int k = offsets[row]; k < offsets[row + 1]; k++) {
+                consumer.accept(indices[k], values == null ? 1L : values[k]);
+            }
+        }
+
+        /**
+         * @return the sum of the row, i.e. the number of instances starting at the row's node
+         */
+        public long rowSum(int row) {
+            if (values == null) {
+                return offsets[row + 1] - offsets[row];
+            }
+            long sum = 0L;
+            for (int k = offsets[row]; k < offsets[row + 1]; k++) {
+                sum += values[k];
+            }
+            return sum;
+        }
+
+        /**
+         * @return for every row whether it has an entry in a column marked in the given array
+         */
+        boolean[] reaches(boolean[] columnsReached) {
+            boolean[] reached = new boolean[rows];
+            for (int row = 0; row < rows; row++) {
+                for (int k = offsets[row]; k < offsets[row + 1]; k++) {
+                    if (columnsReached[indices[k]]) {
+                        reached[row] = true;
+                        break;
+                    }
+                }
+            }
+            return reached;
+        }
+
+        /**
+         * @return the rows with an entry in one of the given columns
+         */
+        RoaringBitSet reaches(RoaringBitSet columnsReached) {
+            RoaringBitSet reached = new RoaringBitSet();
+            for (int row = 0; row < rows; row++) {
+                for (int k = offsets[row]; k < offsets[row + 1]; k++) {
+                    if (columnsReached.contains(indices[k])) {
+                        reached.add(row);
+                        break;
+                    }
+                }
+            }
+            return reached;
+        }
+
+        /**
+         * @return the rows with at least one entry
+         */
+        RoaringBitSet nonEmptyRows() {
+            RoaringBitSet nonEmpty = new RoaringBitSet();
+            for (int row = 0; row < rows; row++) {
+                if (offsets[row + 1] > offsets[row]) {
+                    nonEmpty.add(row);
+                }
+            }
+            return nonEmpty;
+        }
+
+        /**
+         * the row vector times this matrix, for the entries from (inclusive) to (exclusive) of the vector
+         */
+        Vector multiply(Vector vector, int from, int to, Accumulator accumulator) {
+            return multiply(vector, from, to, accumulator, null);
+        }
+
+        /**
+         * @param target the vector the product is written to, a new one for null
+         */
+        Vector multiply(Vector vector, int from, int to, Accumulator accumulator, Vector target) {
+            accumulator.ensureCapacity(columns);
+            for (int i = from; i < to; i++) {
+                int row = vector.indices[i];
+                long value = vector.values[i];
+                for (int k = offsets[row]; k < offsets[row + 1]; k++) {
+                    accumulator.add(indices[k], values == null ? value : value * values[k]);
+                }
+            }
+            return accumulator.drain(target);
+        }
+
+        /**
+         * this matrix times the other, computed row by row with the rows split into batches
+         */
+        public Matrix multiply(Matrix other, ExecutorService executor, int concurrency) {
+            if (columns != other.rows) {
+                throw new IllegalArgumentException("cannot multiply " + rows + "x" + columns + " with " + other.rows + "x" + other.columns);
+            }
+            int[][] rowIndices = new int[rows][];
+            long[][] rowValues = new long[rows][];
+            ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+            ParallelUtil.iterateParallel(executor, rows, Math.max(concurrency, 1), row -> {
+                Accumulator accumulator = accumulators.get();
+                accumulator.ensureCapacity(other.columns);
+                for (int k = offsets[row]; k < offsets[row + 1]; k++) {
+                    int middle = indices[k];
+                    long value = values == null ? 1L : values[k];
+                    for (int l = other.offsets[middle]; l < other.offsets[middle + 1]; l++) {
+                        accumulator.add(other.indices[l], other.values == null ? value : value * other.values[l]);
+                    }
+                }
+                Vector product = accumulator.drain();
+                rowIndices[row] = product.indices;
+                rowValues[row] = product.values;
+            });
+
+            int[] productOffsets = new int[rows + 1];
+            for (int row = 0; row < rows; row++) {
+                productOffsets[row + 1] = Math.addExact(productOffsets[row], rowIndices[row].length);
+            }
+            int[] productIndices = new int[productOffsets[rows]];
+            long[] productValues = new long[productOffsets[rows]];
+            for (int row = 0; row < rows; row++) {
+                System.arraycopy(rowIndices[row], 0, productIndices, productOffsets[row], rowIndices[row].length);
+                System.arraycopy(rowValues[row], 0, productValues, productOffsets[row], rowValues[row].length);
+            }
+            return new Matrix(rows, other.columns, productOffsets, productIndices, productValues);
+        }
+    }
+
+    public interface EntryConsumer {
+        void accept(int column, long value);
+    }
+
+    /**
+     * Dense scratch vector with the list of its non-zero indices, reused by the products of one thread
+     */
+    static final class Accumulator {
+        private long[] values = new long[0];
+        private int[] touched = new int[16];
+        private int size = 0;
+
+        void ensureCapacity(int length) {
+            if (values.length < length) {
+                values = Arrays.copyOf(values, length);
+            }
+        }
+
+        void add(int index, long value) {
+            if (values[index] == 0L) {
+                if (size == touched.length) {
+                    touched = Arrays.copyOf(touched, size + (size >> 1));
+                }
+                touched[size++] = index;
+            }
+            values[index] += value;
+        }
+
+        void add(Vector vector, int from, int to) {
+            for (int i = from; i < to; i++) {
+                ensureCapacity(vector.indices[i] + 1);
+                add(vector.indices[i], vector.values[i]);
+            }
+        }
+
+        Vector drain() {
+            return drain(null);
+        }
+
+        /**
+         * move the non-zero entries to the target, a new vector for null, and reset
+         */
+        Vector drain(Vector target) {
+            if (target == null) {
+                target = new Vector(new int[size], new long[size]);
+            } else if (target.indices.length < size) {
+                target.indices = new int[size];
+                target.values = new long[size];
+            }
+            for (int i = 0; i < size; i++) {
+                int index = touched[i];
+                target.indices[i] = index;
+                target.values[i] = values[index];
+                values[index] = 0L;
+            }
+            target.size = size;
+            size = 0;
+            return target;
+        }
+    }
+
+    /**
+     * The product vectors of the count tasks running on one thread. A task takes a vector for the
+     * products of its extensions and returns it when it is done, tasks run while joining are
+     * nested on the same thread, so the vectors are handed out as a stack.
+     */
+    static final class VectorStack {
+        private Vector[] vectors = new Vector[8];
+        private int top = 0;
+
+        Vector push() {
+            if (top == vectors.length) {
+                vectors = Arrays.copyOf(vectors, top * 2);
+            }
+            if (vectors[top] == null) {
+                vectors[top] = new Vector(new int[0], new long[0]);
+            }
+            return vectors[top++];
+        }
+
+        void pop() {
+            top--;
+        }
+    }
+}
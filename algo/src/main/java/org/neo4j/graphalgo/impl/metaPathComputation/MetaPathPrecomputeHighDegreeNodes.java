@@ -2,7 +2,9 @@ package org.neo4j.graphalgo.impl.metaPathComputation;
 
 import org.neo4j.graphalgo.api.ArrayGraphInterface;
 import org.neo4j.graphalgo.api.Degrees;
+import org.neo4j.graphalgo.api.TypedRelationshipConsumer;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
 
@@ -162,14 +164,13 @@ public class MetaPathPrecomputeHighDegreeNodes extends MetaPathComputation {
     }
 
     private void fillNextInstances(HashSet<Integer> currentInstances, ArrayList<HashSet<Integer>> nextInstances) {
+        TypedRelationshipConsumer consumer = (instance, nodeId, edgeLabel, label) -> {
+            int labelID = labelDictionary.get(new AbstractMap.SimpleEntry<>(edgeLabel, label));
+            nextInstances.get(labelID).add(nodeId); // add the node to the corresponding instances array
+            return true;
+        };
         for (int instance : currentInstances) {
-            for (int nodeId : arrayGraphInterface.getAdjacentNodes(instance)) { //TODO: check if getAdjacentNodes works
-                int label = arrayGraphInterface.getLabel(nodeId); //get the id of the label of the node
-                int edgeLabel = arrayGraphInterface.getEdgeLabel(instance, nodeId);
-                int labelID = labelDictionary.get(new AbstractMap.SimpleEntry<>(edgeLabel, label));
-
-                nextInstances.get(labelID).add(nodeId); // add the node to the corresponding instances array
-            }
+            arrayGraphInterface.forEachTypedRelationship(instance, Direction.BOTH, consumer);
         }
     }
 
@@ -243,30 +244,13 @@ public class MetaPathPrecomputeHighDegreeNodes extends MetaPathComputation {
     }
 
     private List<Integer> getMaxDegreeNodes() {
-        ArrayList<Integer> nodeList = new ArrayList();
-        List<Integer> maxDegreeNodes;
-        graph.forEachNode(nodeList::add);
-        nodeList.sort(new DegreeComparator(graph)); //TODO Use Array instead of list?
-
-        maxDegreeNodes = nodeList.subList((int) (nodeList.size() - Math.ceil((double) nodeList.size() * ratioHighDegreeNodes)), nodeList.size());
-        for (int nodeID : maxDegreeNodes) { //TODO always consecutive? (without gap)
-            debugOut.println("nodeID: " + nodeID + "; degree: " + graph.degree(nodeID, Direction.BOTH) + "; label: " + graph.getLabel(nodeID));
-
+        HubSelection hubSelection = HubSelection.of(graph, Math.toIntExact(graph.nodeCount()), Pools.DEFAULT, Pools.DEFAULT_CONCURRENCY);
+        int[] hubs = hubSelection.byRatio(ratioHighDegreeNodes);
+        List<Integer> maxDegreeNodes = new ArrayList<>(hubs.length);
+        for (int nodeID : hubs) {
+            maxDegreeNodes.add(nodeID);
+            debugOut.println("nodeID: " + nodeID + "; degree: " + hubSelection.degree(nodeID) + "; label: " + graph.getLabel(nodeID));
         }
         return maxDegreeNodes;
     }
 }
-
-
-class DegreeComparator implements Comparator<Integer> {
-    HeavyGraph graph;
-
-    DegreeComparator(HeavyGraph graph) {
-        this.graph = graph;
-    }
-
-    @Override
-    public int compare(Integer a, Integer b) {
-        return Integer.compare(graph.degree(a, Direction.BOTH), graph.degree(b, Direction.BOTH));
-    }
-}
\ No newline at end of file
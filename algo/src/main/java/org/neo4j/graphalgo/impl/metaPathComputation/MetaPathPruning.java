@@ -0,0 +1,158 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import com.carrotsearch.hppc.IntHashSet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Restrictions applied while meta-paths are enumerated, so that branches which cannot qualify
+ * are never expanded.
+ * <p>
+ * The allowed labels and edge types restrict every position of a meta-path. The minimum count
+ * and top-k selection apply to the support of a meta-path: the number of distinct start nodes
+ * with at least one instance. Unlike the number of instances the support never grows when a
+ * meta-path is extended, so a prefix below the minimum, or below the k-th best support found
+ * so far, is dropped together with all its extensions. Ties at the k-th support are broken by
+ * the order in which meta-paths are found.
+ * <p>
+ * An instance keeps the top-k selection of one enumeration and must not be reused.
+ */
+public final class MetaPathPruning {
+
+    private final long minCount;
+    private final int topK;
+    private final IntHashSet allowedLabels;
+    private final IntHashSet allowedEdgeTypes;
+    private final PriorityQueue<Selected> selected;
+    private volatile long threshold;
+
+    private MetaPathPruning(long minCount, int topK, IntHashSet allowedLabels, IntHashSet allowedEdgeTypes) {
+        this.minCount = Math.max(minCount, 0L);
+        this.topK = Math.max(topK, 0);
+        this.allowedLabels = allowedLabels;
+        this.allowedEdgeTypes = allowedEdgeTypes;
+        this.selected = new PriorityQueue<>(Comparator.comparingLong(s -> s.support));
+        this.threshold = this.minCount;
+    }
+
+    /**
+     * @return restrictions which allow every meta-path
+     */
+    public static MetaPathPruning none() {
+        return new MetaPathPruning(0L, 0, null, null);
+    }
+
+    /**
+     * @param minCount         minimum number of distinct start nodes, 0 for no minimum
+     * @param topK             number of meta-paths with the highest support to keep, 0 for all
+     * @param allowedLabels    node label ids which may occur or null for all
+     * @param allowedEdgeTypes edge label ids which may occur or null for all
+     */
+    public static MetaPathPruning of(long minCount, int topK, int[] allowedLabels, int[] allowedEdgeTypes) {
+        return new MetaPathPruning(minCount, topK, toSet(allowedLabels), toSet(allowedEdgeTypes));
+    }
+
+    /**
+     * parse a comma separated list of label ids, an empty string stands for all labels (null)
+     */
+    public static int[] parseIds(String ids) {
+        if (ids == null || ids.trim().isEmpty()) {
+            return null;
+        }
+        String[] parts = ids.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+
+    private static IntHashSet toSet(int[] ids) {
+        return ids == null ? null : IntHashSet.from(ids);
+    }
+
+    public boolean allowsLabel(int label) {
+        return allowedLabels == null || allowedLabels.contains(label);
+    }
+
+    public boolean allowsEdgeType(int edgeType) {
+        return allowedEdgeTypes == null || allowedEdgeTypes.contains(edgeType);
+    }
+
+    /**
+     * @return whether the meta-path may be extended by the edge and node label
+     */
+    public boolean allows(int edgeLabel, int nodeLabel) {
+        return allowsEdgeType(edgeLabel) && allowsLabel(nodeLabel);
+    }
+
+    /**
+     * @return whether {@link #accept} needs the support of the meta-paths
+     */
+    public boolean needsSupport() {
+        return minCount > 0 || topK > 0;
+    }
+
+    /**
+     * Pass a meta-path found by the enumeration on to the consumer, or hold it back for the
+     * top-k selection until {@link #flush}.
+     *
+     * @return false if the meta-path cannot qualify and must not be extended
+     */
+    public boolean accept(int[] metaPath, long count, long support, MetaPathFile.MetaPathConsumer consumer) {
+        if (!needsSupport()) {
+            consumer.accept(metaPath, count);
+            return true;
+        }
+        if (support < threshold) {
+            return false;
+        }
+        if (topK == 0) {
+            consumer.accept(metaPath, count);
+            return true;
+        }
+        synchronized (selected) {
+            if (selected.size() == topK) {
+                if (support <= selected.peek().support) {
+                    return false;
+                }
+                selected.poll();
+            }
+            selected.add(new Selected(metaPath, count, support));
+            if (selected.size() == topK) {
+                threshold = Math.max(minCount, selected.peek().support + 1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * pass the meta-paths held back for the top-k selection to the consumer, by descending support
+     */
+    public void flush(MetaPathFile.MetaPathConsumer consumer) {
+        List<Selected> result;
+        synchronized (selected) {
+            result = new ArrayList<>(selected);
+            selected.clear();
+        }
+        result.sort(Comparator.comparingLong((Selected s) -> s.support).reversed());
+        for (Selected s : result) {
+            consumer.accept(s.metaPath, s.count);
+        }
+    }
+
+    private static final class Selected {
+        final int[] metaPath;
+        final long count;
+        final long support;
+
+        Selected(int[] metaPath, long count, long support) {
+            this.metaPath = metaPath;
+            this.count = count;
+            this.support = support;
+        }
+    }
+}
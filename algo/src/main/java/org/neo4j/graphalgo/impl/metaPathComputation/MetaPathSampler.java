@@ -0,0 +1,216 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import com.carrotsearch.hppc.IntArrayList;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Estimates meta-path instance counts from a uniform sample of start nodes.
+ * <p>
+ * For every start label the nodes are sampled without replacement and the instances of all
+ * meta-paths starting at a sampled node are counted exactly. With N nodes of the start label,
+ * m sampled nodes and X the per node count of a meta-path, its count is estimated as
+ * N * mean(X). The 95% confidence interval uses the normal approximation with the finite
+ * population correction, Var = N^2 * (1 - m/N) * s^2 / m. Once all nodes of a label are
+ * sampled the counts of its meta-paths are exact. A terminated sampling yields no estimates,
+ * the nodes counted so far are no sample of the requested size.
+ * <p>
+ * With a target relative error the sample of a label is doubled until the half-width of the
+ * interval of every meta-path seen from at least {@link #MIN_SUPPORT} sampled nodes is within
+ * the target. Meta-paths seen from fewer nodes are too rare to bound this way and are reported
+ * with their (wide) intervals.
+ */
+public final class MetaPathSampler {
+
+    static final int MIN_SUPPORT = 30;
+    private static final double Z_95 = 1.959964;
+
+    private final MetaPathMatrices matrices;
+    private final int metaPathLength;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final BooleanSupplier running;
+
+    public MetaPathSampler(MetaPathMatrices matrices, int metaPathLength, ExecutorService executor, int concurrency, BooleanSupplier running) {
+        this.matrices = matrices;
+        this.metaPathLength = metaPathLength;
+        this.executor = executor;
+        this.concurrency = Math.max(concurrency, 1);
+        this.running = running;
+    }
+
+    /**
+     * @param sampleSize     number of start nodes sampled per label, the initial sample if a target error is given
+     * @param relativeError  target relative half-width of the confidence intervals or 0 for a fixed sample
+     * @param seed           seed of the sampling
+     * @return the estimates, empty if the sampling was terminated
+     */
+    public List<Estimate> estimate(int sampleSize, double relativeError, long seed) {
+        if (sampleSize < 2) {
+            throw new IllegalArgumentException("sample size must be at least 2, got " + sampleSize);
+        }
+        List<Estimate> estimates = new ArrayList<>();
+        Random random = new Random(seed);
+        for (int label : matrices.nodeLabels()) {
+            if (!estimateLabel(label, sampleSize, relativeError, random.nextLong(), estimates)) {
+                return new ArrayList<>();
+            }
+        }
+        return estimates;
+    }
+
+    /**
+     * @return false if the sampling was terminated, a partial sample is not turned into estimates
+     */
+    private boolean estimateLabel(int label, int sampleSize, double relativeError, long seed, List<Estimate> estimates) {
+        int population = matrices.nodesWithLabel(label).limit();
+        int[] order = shuffle(population, seed);
+        Map<IntArrayList, Statistics> statistics = new HashMap<>();
+
+        int sampled = 0;
+        int target = Math.min(sampleSize, population);
+        while (sampled < target) {
+            sampled += sample(label, order, sampled, target, statistics);
+            if (sampled < target || !running.getAsBoolean()) {
+                return false;
+            }
+            if (relativeError <= 0 || withinError(statistics, population, sampled, relativeError)) {
+                break;
+            }
+            target = (int) Math.min((long) target * 2, population);
+        }
+
+        for (Map.Entry<IntArrayList, Statistics> entry : statistics.entrySet()) {
+            estimates.add(entry.getValue().estimate(entry.getKey().toArray(), population, sampled));
+        }
+        return true;
+    }
+
+    /**
+     * partial Fisher-Yates shuffle, any prefix of the result is a uniform sample
+     */
+    private static int[] shuffle(int population, long seed) {
+        int[] order = new int[population];
+        for (int i = 0; i < population; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = population - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    /**
+     * count the meta-paths of the sampled nodes from (inclusive) to (exclusive) in parallel chunks,
+     * each chunk aggregates locally and is merged once
+     *
+     * @return the number of nodes actually counted, less than requested if the sampling was terminated
+     */
+    private int sample(int label, int[] order, int from, int to, Map<IntArrayList, Statistics> statistics) {
+        int chunks = Math.min(concurrency, to - from);
+        int chunkSize = ParallelUtil.threadSize(chunks, to - from);
+        AtomicInteger processed = new AtomicInteger();
+        ParallelUtil.iterateParallel(executor, chunks, chunks, chunk -> {
+            Map<IntArrayList, Statistics> local = new HashMap<>();
+            int end = Math.min(to, from + (chunk + 1) * chunkSize);
+            int i = from + chunk * chunkSize;
+            for (; i < end && running.getAsBoolean(); i++) {
+                matrices.countFrom(label, order[i], metaPathLength, (metaPath, count) ->
+                        local.computeIfAbsent(IntArrayList.from(metaPath), key -> new Statistics()).add(count));
+            }
+            processed.addAndGet(Math.max(0, i - (from + chunk * chunkSize)));
+            synchronized (statistics) {
+                local.forEach((metaPath, value) -> statistics.merge(metaPath, value, Statistics::merge));
+            }
+        });
+        return processed.get();
+    }
+
+    private static boolean withinError(Map<IntArrayList, Statistics> statistics, int population, int sampled, double relativeError) {
+        if (sampled >= population) {
+            return true;
+        }
+        boolean supported = false;
+        for (Statistics value : statistics.values()) {
+            if (value.support >= MIN_SUPPORT) {
+                supported = true;
+                Estimate estimate = value.estimate(null, population, sampled);
+                if (estimate.upperBound - estimate.count > relativeError * estimate.count) {
+                    return false;
+                }
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * Sum, sum of squares and number of sampled nodes with at least one instance
+     */
+    private static final class Statistics {
+        private double sum;
+        private double sumOfSquares;
+        private int support;
+
+        void add(long count) {
+            sum += count;
+            sumOfSquares += (double) count * count;
+            support++;
+        }
+
+        Statistics merge(Statistics other) {
+            sum += other.sum;
+            sumOfSquares += other.sumOfSquares;
+            support += other.support;
+            return this;
+        }
+
+        Estimate estimate(int[] metaPath, int population, int sampled) {
+            double mean = sum / sampled;
+            double count = population * mean;
+            double halfWidth = 0.0;
+            if (sampled < population) {
+                double variance = Math.max(0.0, (sumOfSquares - sum * mean) / (sampled - 1));
+                halfWidth = Z_95 * population * Math.sqrt((1.0 - (double) sampled / population) * variance / sampled);
+            }
+            // the instances seen in the sample exist in any case
+            return new Estimate(metaPath, count, Math.max(sum, count - halfWidth), count + halfWidth, sampled, population);
+        }
+    }
+
+    /**
+     * Estimated instance count of a meta-path with its 95% confidence interval
+     */
+    public static final class Estimate {
+        public final int[] metaPath;
+        public final double count;
+        public final double lowerBound;
+        public final double upperBound;
+        public final int sampledNodes;
+        public final int startNodes;
+
+        Estimate(int[] metaPath, double count, double lowerBound, double upperBound, int sampledNodes, int startNodes) {
+            this.metaPath = metaPath;
+            this.count = count;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.sampledNodes = sampledNodes;
+            this.startNodes = startNodes;
+        }
+
+        public boolean isExact() {
+            return sampledNodes == startNodes;
+        }
+    }
+}
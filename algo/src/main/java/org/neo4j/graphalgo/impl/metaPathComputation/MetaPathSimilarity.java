@@ -0,0 +1,550 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import org.neo4j.graphalgo.api.ArrayGraphInterface;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.queue.IntMinPriorityQueue;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Top-k similar nodes per node along one meta-path, by PathSim or HeteSim.
+ * <p>
+ * The meta-path is split at its middle node label. Every node of its last label walks the right
+ * half backwards once, the resulting vectors are kept inverted by the nodes of the middle label.
+ * The nodes of its first label are then handled in batches in parallel: each walks the left half
+ * and its scores against all targets are the sparse dot products with the inverted vectors. The
+ * commuting matrix is never materialised, a batch only needs the top-k of its sources and one
+ * dense scratch vector per thread. {@link #resultStream} hands the top-k of every batch to the
+ * consumer through a bounded queue, only {@link #compute} keeps them for all nodes.
+ * <ul>
+ * <li>PathSim: s(x, y) = 2 M(x, y) / (M(x, x) + M(y, y)) for the commuting matrix M of a
+ * symmetric meta-path, the walks count instances.</li>
+ * <li>HeteSim: the cosine of the probability vectors of reaching the middle from both ends, the
+ * walks follow transition probabilities. If the meta-path has an odd number of edges, each
+ * relationship of the middle edge type becomes an intermediate object of its own.</li>
+ * </ul>
+ */
+public class MetaPathSimilarity extends MetaPathComputation {
+
+    public enum Measure {
+        PATH_SIM, HETE_SIM;
+
+        public static Measure parse(String measure) {
+            switch (measure.trim().toLowerCase()) {
+                case "pathsim":
+                    return PATH_SIM;
+                case "hetesim":
+                    return HETE_SIM;
+                default:
+                    throw new IllegalArgumentException("unknown similarity measure " + measure + ", expected pathSim or heteSim");
+            }
+        }
+    }
+
+    private ArrayGraphInterface arrayGraphInterface;
+    private int nodeCount;
+    private int[] metaPath;
+    private Measure measure = Measure.PATH_SIM;
+    private int topK = 10;
+    private ExecutorService executor = Pools.DEFAULT;
+    private int concurrency = Pools.DEFAULT_CONCURRENCY;
+    private int batchSize = 1024;
+
+    /**
+     * @param metaPath alternating node label and edge label ids, starting and ending with a node label
+     */
+    public MetaPathSimilarity(ArrayGraphInterface arrayGraphInterface, int nodeCount, int[] metaPath) {
+        if (metaPath.length < 3 || metaPath.length % 2 == 0) {
+            throw new IllegalArgumentException("a meta-path needs at least one edge label between two node labels, got " + Arrays.toString(metaPath));
+        }
+        this.arrayGraphInterface = arrayGraphInterface;
+        this.nodeCount = nodeCount;
+        this.metaPath = metaPath;
+    }
+
+    public MetaPathSimilarity withMeasure(Measure measure) {
+        this.measure = measure;
+        return this;
+    }
+
+    /**
+     * number of most similar nodes kept per node
+     */
+    public MetaPathSimilarity withTopK(int topK) {
+        this.topK = Math.max(topK, 1);
+        return this;
+    }
+
+    public MetaPathSimilarity withConcurrency(ExecutorService executor, int concurrency) {
+        this.executor = executor;
+        this.concurrency = Math.max(concurrency, 1);
+        return this;
+    }
+
+    /**
+     * number of source nodes handled by one task
+     */
+    public MetaPathSimilarity withBatchSize(int batchSize) {
+        this.batchSize = Math.max(batchSize, 1);
+        return this;
+    }
+
+    public Result compute() {
+        return compute(MetaPathMatrices.build(arrayGraphInterface, nodeCount, executor, concurrency));
+    }
+
+    /**
+     * the top-k of all nodes, e.g. to write them
+     */
+    public Result compute(MetaPathMatrices matrices) {
+        checkMeasure();
+        Result result = new Result(nodeCount);
+        computeBatches(matrices, this::running, (sources, similarNodes, scores) -> {
+            for (int i = 0; i < sources.length; i++) {
+                if (similarNodes[i] != null) {
+                    result.set(sources[i], similarNodes[i], scores[i]);
+                }
+            }
+        });
+        return result;
+    }
+
+    public Stream<Row> resultStream() {
+        return resultStream(MetaPathMatrices.build(arrayGraphInterface, nodeCount, executor, concurrency));
+    }
+
+    /**
+     * stream the top-k of the nodes batch by batch, at most one batch per thread waits for the consumer
+     */
+    public Stream<Row> resultStream(MetaPathMatrices matrices) {
+        checkMeasure();
+        BoundedResultStream<List<Row>> results = new BoundedResultStream<>(concurrency, this);
+        BooleanSupplier running = () -> running() && !results.isClosed();
+        return results.start(() -> computeBatches(matrices, running, (sources, similarNodes, scores) -> {
+            List<Row> rows = new ArrayList<>();
+            for (int i = 0; i < sources.length; i++) {
+                for (int k = 0; similarNodes[i] != null && k < similarNodes[i].length; k++) {
+                    rows.add(new Row(sources[i], similarNodes[i][k], scores[i][k]));
+                }
+            }
+            results.put(rows);
+        })).flatMap(List::stream);
+    }
+
+    private void computeBatches(MetaPathMatrices matrices, BooleanSupplier running, BatchConsumer consumer) {
+        int edges = metaPath.length / 2;
+        for (int position = 0; position < edges; position++) {
+            if (forward(matrices, position) == null) {
+                return;
+            }
+        }
+
+        int middle = (edges + 1) / 2;
+        IntBuffer sources = matrices.nodesWithLabel(metaPath[0]);
+        IntBuffer targets = matrices.nodesWithLabel(metaPath[metaPath.length - 1]);
+        Targets inverted = invertTargets(matrices, targets.limit(), middle);
+
+        int batches = ParallelUtil.threadSize(batchSize, sources.limit());
+        AtomicLong done = new AtomicLong();
+        List<Runnable> tasks = new ArrayList<>(batches);
+        for (int batch = 0; batch < batches; batch++) {
+            int start = batch * batchSize;
+            int end = Math.min(sources.limit(), start + batchSize);
+            tasks.add(() -> {
+                Accumulator walk = new Accumulator();
+                Accumulator scores = new Accumulator();
+                scores.ensureCapacity(targets.limit());
+                IntMinPriorityQueue queue = new IntMinPriorityQueue(topK + 1);
+                int[][] batchNodes = new int[end - start][];
+                double[][] batchScores = new double[end - start][];
+                for (int row = start; row < end && running.getAsBoolean(); row++) {
+                    Walk left = walkLeft(matrices, row, middle, walk);
+                    double sourceNorm = measure == Measure.PATH_SIM ? inverted.norms[row] : left.norm;
+                    for (int i = 0; i < left.vector.size(); i++) {
+                        int node = left.vector.indices[i];
+                        double value = left.vector.values[i];
+                        for (int k = inverted.offsets[node]; k < inverted.offsets[node + 1]; k++) {
+                            scores.add(inverted.targets[k], value * inverted.values[k]);
+                        }
+                    }
+                    Vector dotProducts = scores.drain();
+                    for (int i = 0; i < dotProducts.size(); i++) {
+                        int target = dotProducts.indices[i];
+                        if (targets.get(target) == sources.get(row)) {
+                            continue;
+                        }
+                        double score = measure == Measure.PATH_SIM
+                                ? 2.0 * dotProducts.values[i] / (sourceNorm + inverted.norms[target])
+                                : dotProducts.values[i] / (sourceNorm * inverted.norms[target]);
+                        queue.add(target, score);
+                        if (queue.size() > topK) {
+                            queue.pop();
+                        }
+                    }
+                    batchNodes[row - start] = new int[queue.size()];
+                    batchScores[row - start] = new double[queue.size()];
+                    for (int i = queue.size() - 1; i >= 0; i--) {
+                        batchScores[row - start][i] = queue.topCost();
+                        batchNodes[row - start][i] = targets.get(queue.pop());
+                    }
+                }
+                int[] batchSources = new int[end - start];
+                for (int row = start; row < end; row++) {
+                    batchSources[row - start] = sources.get(row);
+                }
+                consumer.accept(batchSources, batchNodes, batchScores);
+                getProgressLogger().logProgress(done.addAndGet(end - start), sources.limit());
+            });
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Integer.MAX_VALUE, 1, TimeUnit.MILLISECONDS, this, executor);
+    }
+
+    /**
+     * the vectors of all targets over the middle label, inverted, and their norms. For PathSim
+     * the norm of a target is M(y, y), the vector of its own left walk times its right walk.
+     */
+    private Targets invertTargets(MetaPathMatrices matrices, int targetCount, int middle) {
+        int[][] indices = new int[targetCount][];
+        double[][] values = new double[targetCount][];
+        double[] norms = new double[targetCount];
+        ThreadLocal<Accumulator> accumulators = ThreadLocal.withInitial(Accumulator::new);
+        ParallelUtil.iterateParallel(executor, targetCount, concurrency, row -> {
+            Accumulator accumulator = accumulators.get();
+            Walk right = walkRight(matrices, row, middle, accumulator);
+            indices[row] = right.vector.indices;
+            values[row] = right.vector.values;
+            norms[row] = measure == Measure.PATH_SIM
+                    ? accumulator.dot(walkLeft(matrices, row, middle, accumulator).vector, right.vector)
+                    : right.norm;
+        });
+
+        int middleSize = matrices.nodesWithLabel(metaPath[2 * middle]).limit();
+        int[] offsets = new int[middleSize + 1];
+        for (int[] row : indices) {
+            for (int node : row) {
+                offsets[node + 1]++;
+            }
+        }
+        for (int node = 0; node < middleSize; node++) {
+            offsets[node + 1] = Math.addExact(offsets[node + 1], offsets[node]);
+        }
+        int[] position = Arrays.copyOf(offsets, middleSize);
+        int[] invertedTargets = new int[offsets[middleSize]];
+        double[] invertedValues = new double[offsets[middleSize]];
+        for (int row = 0; row < targetCount; row++) {
+            for (int i = 0; i < indices[row].length; i++) {
+                int k = position[indices[row][i]]++;
+                invertedTargets[k] = row;
+                invertedValues[k] = values[row][i];
+            }
+        }
+        return new Targets(offsets, invertedTargets, invertedValues, norms);
+    }
+
+    /**
+     * walk the meta-path from a node of its first label to the middle label
+     */
+    private Walk walkLeft(MetaPathMatrices matrices, int row, int middle, Accumulator accumulator) {
+        Vector vector = Vector.of(row);
+        boolean transition = measure == Measure.HETE_SIM;
+        boolean splitMiddleEdge = transition && (metaPath.length / 2) % 2 == 1;
+        for (int position = 0; position < middle - 1; position++) {
+            vector = vector.multiply(forward(matrices, position), transition, accumulator);
+        }
+        MetaPathMatrices.Matrix last = forward(matrices, middle - 1);
+        if (splitMiddleEdge) {
+            // the relationships of the middle edge are reached with probability u(a) / degree(a) each
+            double norm = Math.sqrt(vector.sumOfSquares(last));
+            return new Walk(vector.divideByRowSums(last).multiply(last, false, accumulator), norm);
+        }
+        vector = vector.multiply(last, transition, accumulator);
+        return new Walk(vector, vector.norm());
+    }
+
+    /**
+     * walk the meta-path backwards from a node of its last label to the middle label
+     */
+    private Walk walkRight(MetaPathMatrices matrices, int row, int middle, Accumulator accumulator) {
+        Vector vector = Vector.of(row);
+        boolean transition = measure == Measure.HETE_SIM;
+        boolean splitMiddleEdge = transition && (metaPath.length / 2) % 2 == 1;
+        for (int position = metaPath.length / 2 - 1; position >= middle; position--) {
+            vector = vector.multiply(backward(matrices, position), transition, accumulator);
+        }
+        if (splitMiddleEdge) {
+            // the relationships of the middle edge are reached with probability v(b) / degree(b) each
+            MetaPathMatrices.Matrix middleEdge = backward(matrices, middle - 1);
+            return new Walk(vector.divideByRowSums(middleEdge), Math.sqrt(vector.sumOfSquares(middleEdge)));
+        }
+        return new Walk(vector, vector.norm());
+    }
+
+    /**
+     * the matrix from the node label at the position to the next one
+     */
+    private MetaPathMatrices.Matrix forward(MetaPathMatrices matrices, int position) {
+        return matrices.matrix(metaPath[2 * position], metaPath[2 * position + 1], metaPath[2 * position + 2]);
+    }
+
+    /**
+     * the matrix from the node label after the position back to the one at the position
+     */
+    private MetaPathMatrices.Matrix backward(MetaPathMatrices matrices, int position) {
+        return matrices.matrix(metaPath[2 * position + 2], metaPath[2 * position + 1], metaPath[2 * position]);
+    }
+
+    private void checkMeasure() {
+        if (measure == Measure.PATH_SIM && !isSymmetric(metaPath)) {
+            throw new IllegalArgumentException("PathSim needs a symmetric meta-path, got " + Arrays.toString(metaPath));
+        }
+    }
+
+    static boolean isSymmetric(int[] metaPath) {
+        for (int i = 0; i < metaPath.length / 2; i++) {
+            if (metaPath[i] != metaPath[metaPath.length - 1 - i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public MetaPathSimilarity me() {
+        return this;
+    }
+
+    @Override
+    public MetaPathSimilarity release() {
+        return null;
+    }
+
+    /**
+     * The most similar nodes of every node of the first label of the meta-path, by mapped node id,
+     * held for all nodes at once to write them
+     */
+    public static final class Result {
+        private final int[][] similarNodes;
+        private final double[][] scores;
+
+        Result(int nodeCount) {
+            this.similarNodes = new int[nodeCount][];
+            this.scores = new double[nodeCount][];
+        }
+
+        private void set(int node, int[] nodes, double[] values) {
+            similarNodes[node] = nodes;
+            scores[node] = values;
+        }
+
+        /**
+         * @return the similar nodes by descending score, null if the node is not of the first label of the meta-path
+         */
+        public int[] similarNodes(int node) {
+            return similarNodes[node];
+        }
+
+        /**
+         * @return the scores of the similar nodes, descending
+         */
+        public double[] scores(int node) {
+            return scores[node];
+        }
+
+        /**
+         * @return the number of nodes with at least one similar node
+         */
+        public long nodeCount() {
+            return Arrays.stream(similarNodes).filter(nodes -> nodes != null && nodes.length > 0).count();
+        }
+
+        public Stream<Row> stream() {
+            return IntStream.range(0, similarNodes.length)
+                    .filter(node -> similarNodes[node] != null)
+                    .boxed()
+                    .flatMap(node -> IntStream.range(0, similarNodes[node].length)
+                            .mapToObj(i -> new Row(node, similarNodes[node][i], scores[node][i])));
+        }
+    }
+
+    /**
+     * One similar node: mapped node ids and the score
+     */
+    public static final class Row {
+        public final int sourceNode;
+        public final int targetNode;
+        public final double score;
+
+        public Row(int sourceNode, int targetNode, double score) {
+            this.sourceNode = sourceNode;
+            this.targetNode = targetNode;
+            this.score = score;
+        }
+    }
+
+    /**
+     * The top-k of the sources of one batch by descending score, null for the sources not
+     * computed because the algorithm was terminated
+     */
+    private interface BatchConsumer {
+        void accept(int[] sources, int[][] similarNodes, double[][] scores);
+    }
+
+    /**
+     * The right walks of all targets by node of the middle label in CSR layout
+     */
+    private static final class Targets {
+        final int[] offsets;
+        final int[] targets;
+        final double[] values;
+        final double[] norms;
+
+        Targets(int[] offsets, int[] targets, double[] values, double[] norms) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.values = values;
+            this.norms = norms;
+        }
+    }
+
+    private static final class Walk {
+        final Vector vector;
+        final double norm;
+
+        Walk(Vector vector, double norm) {
+            this.vector = vector;
+            this.norm = norm;
+        }
+    }
+
+    /**
+     * Sparse vector of positive weights, the indices are row numbers within a node label and not ordered
+     */
+    static final class Vector {
+        final int[] indices;
+        final double[] values;
+
+        Vector(int[] indices, double[] values) {
+            this.indices = indices;
+            this.values = values;
+        }
+
+        static Vector of(int index) {
+            return new Vector(new int[]{index}, new double[]{1.0});
+        }
+
+        int size() {
+            return indices.length;
+        }
+
+        /**
+         * this row vector times the matrix, with transition the weight of a row is spread evenly over its entries
+         */
+        Vector multiply(MetaPathMatrices.Matrix matrix, boolean transition, Accumulator accumulator) {
+            accumulator.ensureCapacity(matrix.columns());
+            for (int i = 0; i < indices.length; i++) {
+                long rowSum = matrix.rowSum(indices[i]);
+                if (rowSum == 0L) {
+                    continue;
+                }
+                double value = transition ? values[i] / rowSum : values[i];
+                matrix.forEachInRow(indices[i], (column, count) -> accumulator.add(column, value * count));
+            }
+            return accumulator.drain();
+        }
+
+        Vector divideByRowSums(MetaPathMatrices.Matrix matrix) {
+            double[] divided = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                long rowSum = matrix.rowSum(indices[i]);
+                divided[i] = rowSum == 0L ? 0.0 : values[i] / rowSum;
+            }
+            return new Vector(indices, divided);
+        }
+
+        /**
+         * @return the sum of the squared weights, each divided by the sum of its row in the matrix
+         */
+        double sumOfSquares(MetaPathMatrices.Matrix matrix) {
+            double sum = 0.0;
+            for (int i = 0; i < values.length; i++) {
+                long rowSum = matrix.rowSum(indices[i]);
+                if (rowSum > 0L) {
+                    sum += values[i] * values[i] / rowSum;
+                }
+            }
+            return sum;
+        }
+
+        double norm() {
+            double sum = 0.0;
+            for (double value : values) {
+                sum += value * value;
+            }
+            return Math.sqrt(sum);
+        }
+    }
+
+    /**
+     * Dense scratch vector with the list of its non-zero indices, reused by the walks of one thread
+     */
+    static final class Accumulator {
+        private double[] values = new double[0];
+        private int[] touched = new int[16];
+        private int size = 0;
+
+        void ensureCapacity(int length) {
+            if (values.length < length) {
+                values = Arrays.copyOf(values, length);
+            }
+        }
+
+        void add(int index, double value) {
+            if (values[index] == 0.0) {
+                if (size == touched.length) {
+                    touched = Arrays.copyOf(touched, size + (size >> 1));
+                }
+                touched[size++] = index;
+            }
+            values[index] += value;
+        }
+
+        /**
+         * the dot product of two vectors, the scratch vector is left empty
+         */
+        double dot(Vector a, Vector b) {
+            for (int i = 0; i < a.size(); i++) {
+                ensureCapacity(a.indices[i] + 1);
+                add(a.indices[i], a.values[i]);
+            }
+            double dot = 0.0;
+            for (int i = 0; i < b.size(); i++) {
+                if (b.indices[i] < values.length) {
+                    dot += values[b.indices[i]] * b.values[i];
+                }
+            }
+            drain();
+            return dot;
+        }
+
+        Vector drain() {
+            int[] indices = Arrays.copyOf(touched, size);
+            double[] result = new double[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = values[indices[i]];
+                values[indices[i]] = 0.0;
+            }
+            size = 0;
+            return new Vector(indices, result);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Prefix trie of meta-paths keyed by label id. Each trie node is one label of a meta-path
+ * (alternating node and edge labels), meta-paths sharing a prefix share its nodes.
+ * A node which terminates a stored meta-path carries its instance count and weight.
+ * <p>
+ * The nodes are kept in parallel primitive arrays. Children are found through one map
+ * keyed by (parent node, label) and enumerated through a sibling list sorted by label,
+ * so lookups take O(length) and enumeration visits the meta-paths in lexicographic order.
+ * <p>
+ * {@link #add(int[], long)} may be called concurrently, reading must not overlap with adding.
+ */
+public final class MetaPathTrie {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final long NO_COUNT = -1L;
+
+    private final LongIntHashMap children = new LongIntHashMap();
+    private int[] labels;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private long[] counts;
+    private double[] weights;
+    private int nodeCount;
+    private int size;
+    private int maxLength;
+
+    public MetaPathTrie() {
+        this(64);
+    }
+
+    public MetaPathTrie(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        labels = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        counts = new long[capacity];
+        weights = new double[capacity];
+        nodeCount = 0;
+        newNode(NONE);
+    }
+
+    /**
+     * build a trie from a precomputed meta-path file, either binary ({@link MetaPathFile})
+     * or text with one "label | label | ...\tcount" line per meta-path
+     */
+    public static MetaPathTrie load(String filePath) throws IOException {
+        MetaPathTrie trie = new MetaPathTrie();
+        if (MetaPathFile.isMetaPathFile(filePath)) {
+            MetaPathFile.reader(filePath).forEach(trie::add);
+            return trie;
+        }
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    parseLine(line, trie);
+                }
+            }
+        }
+        return trie;
+    }
+
+    private static void parseLine(String line, MetaPathTrie trie) {
+        int tab = line.indexOf('\t');
+        String[] parts = line.substring(0, tab).split(" \\| ");
+        int[] metaPath = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            metaPath[i] = Integer.parseInt(parts[i]);
+        }
+        trie.add(metaPath, Long.parseLong(line.substring(tab + 1)));
+    }
+
+    /**
+     * add the instance count of a meta-path. Counts of a meta-path added more than once are summed.
+     */
+    public synchronized void add(int[] metaPath, long count) {
+        int node = ROOT;
+        for (int label : metaPath) {
+            node = getOrCreateChild(node, label);
+        }
+        if (counts[node] == NO_COUNT) {
+            counts[node] = count;
+            size++;
+            maxLength = Math.max(maxLength, metaPath.length);
+        } else {
+            counts[node] += count;
+        }
+    }
+
+    /**
+     * set the weight of a meta-path which has been added before
+     */
+    public void setWeight(int[] metaPath, double weight) {
+        int node = find(metaPath);
+        if (node == NONE || counts[node] == NO_COUNT) {
+            throw new IllegalArgumentException("unknown meta-path " + Arrays.toString(metaPath));
+        }
+        weights[node] = weight;
+    }
+
+    public boolean contains(int[] metaPath) {
+        int node = find(metaPath);
+        return node != NONE && counts[node] != NO_COUNT;
+    }
+
+    /**
+     * @return the instance count of the meta-path or 0 if it is not stored
+     */
+    public long count(int[] metaPath) {
+        int node = find(metaPath);
+        return node == NONE || counts[node] == NO_COUNT ? 0L : counts[node];
+    }
+
+    /**
+     * @return the weight of the meta-path or 0 if it is not stored
+     */
+    public double weight(int[] metaPath) {
+        int node = find(metaPath);
+        return node == NONE || counts[node] == NO_COUNT ? 0.0 : weights[node];
+    }
+
+    /**
+     * @return number of stored meta-paths
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * visit all stored meta-paths in lexicographic order
+     */
+    public void forEach(MetaPathFile.MetaPathConsumer consumer) {
+        forEachWithPrefix(new int[0], consumer);
+    }
+
+    /**
+     * visit all stored meta-paths starting with the given labels, including the prefix itself
+     */
+    public void forEachWithPrefix(int[] prefix, MetaPathFile.MetaPathConsumer consumer) {
+        int node = find(prefix);
+        if (node == NONE) {
+            return;
+        }
+        int[] path = Arrays.copyOf(prefix, Math.max(prefix.length, maxLength));
+        visit(node, path, prefix.length, NONE, consumer);
+    }
+
+    /**
+     * visit all stored meta-paths which start with the start label and end with the end label
+     */
+    public void forEach(int startLabel, int endLabel, MetaPathFile.MetaPathConsumer consumer) {
+        int node = child(ROOT, startLabel);
+        if (node == NONE) {
+            return;
+        }
+        int[] path = new int[maxLength];
+        path[0] = startLabel;
+        visit(node, path, 1, endLabel, consumer);
+    }
+
+    private void visit(int node, int[] path, int depth, int endLabel, MetaPathFile.MetaPathConsumer consumer) {
+        if (counts[node] != NO_COUNT && (endLabel == NONE || path[depth - 1] == endLabel)) {
+            consumer.accept(Arrays.copyOf(path, depth), counts[node]);
+        }
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            path[depth] = labels[child];
+            visit(child, path, depth + 1, endLabel, consumer);
+        }
+    }
+
+    private int find(int[] metaPath) {
+        int node = ROOT;
+        for (int i = 0; i < metaPath.length && node != NONE; i++) {
+            node = child(node, metaPath[i]);
+        }
+        return node;
+    }
+
+    private int child(int node, int label) {
+        return children.getOrDefault(key(node, label), NONE);
+    }
+
+    private int getOrCreateChild(int node, int label) {
+        long key = key(node, label);
+        int child = children.getOrDefault(key, NONE);
+        if (child != NONE) {
+            return child;
+        }
+        child = newNode(label);
+        children.put(key, child);
+
+        // keep siblings sorted by label
+        int previous = NONE;
+        int current = firstChild[node];
+        while (current != NONE && labels[current] < label) {
+            previous = current;
+            current = nextSibling[current];
+        }
+        nextSibling[child] = current;
+        if (previous == NONE) {
+            firstChild[node] = child;
+        } else {
+            nextSibling[previous] = child;
+        }
+        return child;
+    }
+
+    private int newNode(int label) {
+        if (nodeCount == labels.length) {
+            int capacity = labels.length + (labels.length >> 1) + 1;
+            labels = Arrays.copyOf(labels, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        int node = nodeCount++;
+        labels[node] = label;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        counts[node] = NO_COUNT;
+        weights[node] = 0.0;
+        return node;
+    }
+
+    private static long key(int node, int label) {
+        return ((long) node << 32) | (label & 0xFFFFFFFFL);
+    }
+}
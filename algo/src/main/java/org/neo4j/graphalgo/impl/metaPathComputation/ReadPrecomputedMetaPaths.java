@@ -1,8 +1,10 @@
 package org.neo4j.graphalgo.impl.metaPathComputation;
 
 import java.io.*;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class ReadPrecomputedMetaPaths extends MetaPathComputation {
 
@@ -13,6 +15,15 @@ public class ReadPrecomputedMetaPaths extends MetaPathComputation {
     public ReadPrecomputedMetaPaths.Result readMetaPaths(String filePath)
     {
         HashMap<String, Long> metaPathDict = new HashMap<>();
+        if (MetaPathFile.isMetaPathFile(filePath)) {
+            try {
+                MetaPathFile.reader(filePath).forEach((metaPath, count) ->
+                        metaPathDict.put(Arrays.stream(metaPath).mapToObj(Integer::toString).collect(Collectors.joining(" | ")), count));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new ReadPrecomputedMetaPaths.Result(metaPathDict);
+        }
         try(BufferedReader br = new BufferedReader(new FileReader(filePath))) {
             String line = br.readLine();
 
@@ -0,0 +1,338 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.LongLongHashMap;
+import com.carrotsearch.hppc.cursors.LongLongCursor;
+import org.neo4j.graphalgo.api.ArrayGraphInterface;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.impl.metaPathComputation.getSchema.GetSchema;
+import org.neo4j.graphalgo.impl.metaPathComputation.getSchema.SchemaCache;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.storageengine.api.Token;
+
+import java.io.FileNotFoundException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+import static java.lang.Math.toIntExact;
+
+/**
+ * The schema of a labelled graph as a compact typed adjacency: for every node label the
+ * (edge type, neighbour label) pairs which occur at its nodes, together with the number of
+ * relationships behind each of them.
+ * <p>
+ * The schema edges of label {@code labels()[i]} are stored from {@code offsets[i]} up to
+ * (exclusive) {@code offsets[i + 1]} in {@code edgeTypes}, {@code neighbourLabels} and
+ * {@code counts}, sorted by edge type and neighbour label. A relationship is counted once from
+ * each of its end nodes, so the count of (A, T, B) is the number of rows of the undirected
+ * pattern {@code (:A)-[:T]-(:B)}, and a schema edge between two labels is present from both sides.
+ */
+public final class SchemaGraph {
+
+    private final int[] labels;
+    private final IntIntHashMap labelIndex;
+    private final int[] offsets;
+    private final int[] edgeTypes;
+    private final int[] neighbourLabels;
+    private final long[] counts; // null if the counts are unknown
+
+    private SchemaGraph(int[] labels, int[] offsets, int[] edgeTypes, int[] neighbourLabels, long[] counts) {
+        this.labels = labels;
+        this.offsets = offsets;
+        this.edgeTypes = edgeTypes;
+        this.neighbourLabels = neighbourLabels;
+        this.counts = counts;
+        this.labelIndex = new IntIntHashMap(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            labelIndex.put(labels[i], i);
+        }
+    }
+
+    /**
+     * read the schema from the typed adjacency of all nodes. The nodes are split into one chunk
+     * per thread, each chunk counts its schema edges locally and is merged once. A node
+     * contributes with its label as given by {@link ArrayGraphInterface#getLabel(int)}.
+     */
+    public static SchemaGraph build(ArrayGraphInterface graph, int nodeCount, ExecutorService executor, int concurrency) {
+        int[] labels = graph.getAllLabels().stream().mapToInt(Integer::intValue).filter(label -> label >= 0).sorted().toArray();
+        long labelBound = labels.length == 0 ? 1 : labels[labels.length - 1] + 1L;
+        long edgeTypeBound = graph.getAllEdgeLabels().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1L;
+
+        LongLongHashMap schemaEdges = new LongLongHashMap();
+        int chunks = Math.max(1, Math.min(concurrency, nodeCount));
+        int chunkSize = ParallelUtil.threadSize(chunks, nodeCount);
+        ParallelUtil.iterateParallel(executor, chunks, chunks, chunk -> {
+            LongLongHashMap local = new LongLongHashMap();
+            int end = Math.min(nodeCount, (chunk + 1) * chunkSize);
+            for (int nodeId = chunk * chunkSize; nodeId < end; nodeId++) {
+                int label = graph.getLabel(nodeId);
+                if (label < 0) {
+                    continue;
+                }
+                graph.forEachTypedRelationship(nodeId, Direction.BOTH, (sourceNodeId, targetNodeId, typeId, targetLabel) -> {
+                    if (typeId >= 0 && targetLabel >= 0) {
+                        local.addTo((label * edgeTypeBound + typeId) * labelBound + targetLabel, 1L);
+                    }
+                    return true;
+                });
+            }
+            synchronized (schemaEdges) {
+                for (LongLongCursor cursor : local) {
+                    schemaEdges.addTo(cursor.key, cursor.value);
+                }
+            }
+        });
+
+        long[] keys = schemaEdges.keys().toArray();
+        Arrays.sort(keys);
+        int[] offsets = new int[labels.length + 1];
+        int[] edgeTypes = new int[keys.length];
+        int[] neighbourLabels = new int[keys.length];
+        long[] counts = new long[keys.length];
+        int current = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int sourceLabel = (int) (keys[i] / labelBound / edgeTypeBound);
+            while (labels[current] < sourceLabel) {
+                offsets[++current] = i;
+            }
+            edgeTypes[i] = (int) (keys[i] / labelBound % edgeTypeBound);
+            neighbourLabels[i] = (int) (keys[i] % labelBound);
+            counts[i] = schemaEdges.get(keys[i]);
+        }
+        while (current < labels.length) {
+            offsets[++current] = keys.length;
+        }
+        return new SchemaGraph(labels, offsets, edgeTypes, neighbourLabels, counts);
+    }
+
+    /**
+     * create a schema from an adjacency given as label -> (neighbour label, edge type) pairs.
+     * The relationship counts are unknown, see {@link #hasCounts()}.
+     */
+    public static SchemaGraph fromAdjacency(Map<Integer, ? extends Collection<AbstractMap.SimpleEntry<Integer, Integer>>> adjacency) {
+        int[] labels = adjacency.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] offsets = new int[labels.length + 1];
+        List<AbstractMap.SimpleEntry<Integer, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < labels.length; i++) {
+            List<AbstractMap.SimpleEntry<Integer, Integer>> neighbours = new ArrayList<>(adjacency.get(labels[i]));
+            neighbours.sort(Comparator.comparing((AbstractMap.SimpleEntry<Integer, Integer> entry) -> entry.getValue())
+                    .thenComparing(AbstractMap.SimpleEntry::getKey));
+            entries.addAll(neighbours);
+            offsets[i + 1] = entries.size();
+        }
+        int[] edgeTypes = new int[entries.size()];
+        int[] neighbourLabels = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            neighbourLabels[i] = entries.get(i).getKey();
+            edgeTypes[i] = entries.get(i).getValue();
+        }
+        return new SchemaGraph(labels, offsets, edgeTypes, neighbourLabels, null);
+    }
+
+    /**
+     * create a schema from the result of {@link GetSchema}, the relationship counts are unknown
+     */
+    public static SchemaGraph fromSchema(GetSchema.Result schema) {
+        HashMap<Integer, HashSet<AbstractMap.SimpleEntry<Integer, Integer>>> adjacency = new HashMap<>();
+        schema.getReverseLabelDictionary().forEach((index, label) -> {
+            if (label < 0) {
+                return;
+            }
+            HashSet<AbstractMap.SimpleEntry<Integer, Integer>> neighbours = new HashSet<>();
+            for (Pair pair : schema.getSchema().get(index)) {
+                int neighbourLabel = schema.getReverseLabelDictionary().get(pair.first());
+                if (neighbourLabel >= 0 && pair.second() >= 0) {
+                    neighbours.add(new AbstractMap.SimpleEntry<>(neighbourLabel, pair.second()));
+                }
+            }
+            adjacency.put(label, neighbours);
+        });
+        return fromAdjacency(adjacency);
+    }
+
+    /**
+     * the schema of the graph with its relationship counts if a graph is given, otherwise the
+     * schema of the database from the {@link SchemaCache}, whose counts are unknown. Either way
+     * no graph is loaded.
+     */
+    public static SchemaGraph of(GraphDatabaseAPI api, HeavyGraph graph, ExecutorService executor, int concurrency) throws FileNotFoundException {
+        return graph != null
+                ? build(graph, toIntExact(graph.nodeCount()), executor, concurrency)
+                : fromSchema(SchemaCache.get(api));
+    }
+
+    /**
+     * the names of all node labels indexed by their id, which is the label id of a loaded graph
+     */
+    public static HashMap<Integer, String> labelNames(GraphDatabaseAPI api) {
+        return tokenNames(api, statement -> statement.readOperations().labelsGetAllTokens());
+    }
+
+    /**
+     * the names of all relationship types indexed by their id, which is the edge type id of a
+     * loaded graph
+     */
+    public static HashMap<Integer, String> relationshipTypeNames(GraphDatabaseAPI api) {
+        return tokenNames(api, statement -> statement.readOperations().relationshipTypesGetAllTokens());
+    }
+
+    private static HashMap<Integer, String> tokenNames(GraphDatabaseAPI api, Function<Statement, Iterator<? extends Token>> tokensOf) {
+        HashMap<Integer, String> names = new HashMap<>();
+        ThreadToStatementContextBridge contextBridge = api.getDependencyResolver().resolveDependency(ThreadToStatementContextBridge.class);
+        try (Transaction tx = api.beginTx();
+             Statement statement = contextBridge.get()) {
+            Iterator<? extends Token> tokens = tokensOf.apply(statement);
+            while (tokens.hasNext()) {
+                Token token = tokens.next();
+                names.put(token.id(), token.name());
+            }
+            tx.success();
+        }
+        return names;
+    }
+
+    /**
+     * all node labels in ascending order
+     */
+    public int[] labels() {
+        return labels;
+    }
+
+    public boolean containsLabel(int label) {
+        return labelIndex.containsKey(label);
+    }
+
+    /**
+     * number of schema edges of the label
+     */
+    public int degree(int label) {
+        int index = labelIndex.getOrDefault(label, -1);
+        return index < 0 ? 0 : offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * iterate over the schema edges of the label ordered by edge type and neighbour label
+     */
+    public void forEachEdge(int label, SchemaEdgeConsumer consumer) {
+        int index = labelIndex.getOrDefault(label, -1);
+        if (index < 0) {
+            return;
+        }
+        for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+            consumer.accept(edgeTypes[i], neighbourLabels[i], count(i));
+        }
+    }
+
+    /**
+     * number of schema edges of all labels, the schema edges are numbered from 0 to this
+     * (exclusive) by label, edge type and neighbour label
+     */
+    public int edgeCount() {
+        return edgeTypes.length;
+    }
+
+    /**
+     * the number of the schema edge or -1 if it does not exist
+     */
+    public int edgeIndex(int label, int edgeType, int neighbourLabel) {
+        int index = labelIndex.getOrDefault(label, -1);
+        if (index < 0) {
+            return -1;
+        }
+        int low = offsets[index];
+        int high = offsets[index + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compare = edgeTypes[mid] != edgeType
+                    ? Integer.compare(edgeTypes[mid], edgeType)
+                    : Integer.compare(neighbourLabels[mid], neighbourLabel);
+            if (compare < 0) {
+                low = mid + 1;
+            } else if (compare > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * the label the schema edge starts at
+     */
+    public int sourceLabel(int edge) {
+        int low = 0;
+        int high = labels.length - 1;
+        // last label whose first schema edge is at or before the edge
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= edge) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return labels[low];
+    }
+
+    public int edgeType(int edge) {
+        return edgeTypes[edge];
+    }
+
+    public int neighbourLabel(int edge) {
+        return neighbourLabels[edge];
+    }
+
+    /**
+     * whether the relationship counts of the schema edges are known, they are if the schema
+     * is built from a graph
+     */
+    public boolean hasCounts() {
+        return counts != null;
+    }
+
+    /**
+     * number of relationships of the schema edge, 0 if unknown
+     */
+    public long count(int edge) {
+        return counts == null ? 0L : counts[edge];
+    }
+
+    /**
+     * number of relationships of the schema edge, 0 if it does not exist
+     */
+    public long count(int label, int edgeType, int neighbourLabel) {
+        int edge = edgeIndex(label, edgeType, neighbourLabel);
+        return edge < 0 ? 0L : count(edge);
+    }
+
+    /**
+     * sum of the counts of all schema edges
+     */
+    public long totalCount() {
+        long total = 0L;
+        for (int edge = 0; edge < edgeCount(); edge++) {
+            total += count(edge);
+        }
+        return total;
+    }
+
+    public interface SchemaEdgeConsumer {
+        void accept(int edgeType, int neighbourLabel, long count);
+    }
+}
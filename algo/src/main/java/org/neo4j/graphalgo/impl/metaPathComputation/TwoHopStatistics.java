@@ -0,0 +1,132 @@
+package org.neo4j.graphalgo.impl.metaPathComputation;
+
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Relationship counts and weights of the two-hop meta-paths (node label, edge type, node label),
+ * indexed by the number of the schema edge in {@link SchemaGraph}.
+ * <p>
+ * The weight of a two-hop meta-path is its share of the relationships of all of them, the
+ * weight of a longer meta-path the product of the weights of its two-hop meta-paths. The table
+ * is filled once, every schema edge by one task writing its own slot, and only read afterwards,
+ * so weights can be evaluated from any number of threads without locking.
+ */
+public final class TwoHopStatistics {
+
+    private final SchemaGraph schema;
+    private final long[] counts;
+    private final double[] weights;
+
+    private TwoHopStatistics(SchemaGraph schema, long[] counts) {
+        this.schema = schema;
+        this.counts = counts;
+        long total = 0L;
+        for (long count : counts) {
+            total += count;
+        }
+        this.weights = new double[counts.length];
+        for (int edge = 0; edge < counts.length; edge++) {
+            weights[edge] = total == 0L ? 0.0 : (double) counts[edge] / total;
+        }
+    }
+
+    /**
+     * take the counts of the schema, or ask the counter for every schema edge if the schema
+     * has none. The counter is called in parallel.
+     */
+    public static TwoHopStatistics compute(SchemaGraph schema, Counter counter, ExecutorService executor, int concurrency) {
+        long[] counts = new long[schema.edgeCount()];
+        ParallelUtil.iterateParallel(executor, counts.length, Math.max(concurrency, 1), edge -> counts[edge] = schema.hasCounts()
+                ? schema.count(edge)
+                : counter.count(schema.sourceLabel(edge), schema.edgeType(edge), schema.neighbourLabel(edge)));
+        return new TwoHopStatistics(schema, counts);
+    }
+
+    /**
+     * count the rows of the undirected pattern {@code (:A)-[:T]-(:B)} in the database, the ids
+     * are resolved through the name maps when the count is asked for
+     */
+    public static Counter cypherCounter(GraphDatabaseAPI api, Map<Integer, String> labelNames, Map<Integer, String> edgeTypeNames) {
+        return (label, edgeType, neighbourLabel) -> {
+            try (Transaction tx = api.beginTx()) {
+                org.neo4j.graphdb.Result result = api.execute("MATCH (:`" + labelNames.get(label) + "`)-[:`"
+                        + edgeTypeNames.get(edgeType) + "`]-(:`" + labelNames.get(neighbourLabel) + "`) RETURN count(*)");
+                long count = (long) result.next().get("count(*)");
+                tx.success();
+                return count;
+            }
+        };
+    }
+
+    /**
+     * parse a meta-path joined by "|" as written by the schema based meta-path computations
+     */
+    public static int[] parseMetaPath(String joinedMetaPath) {
+        String[] ids = joinedMetaPath.split("\\|");
+        int[] metaPath = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            metaPath[i] = Integer.parseInt(ids[i]);
+        }
+        return metaPath;
+    }
+
+    public long count(int label, int edgeType, int neighbourLabel) {
+        int edge = schema.edgeIndex(label, edgeType, neighbourLabel);
+        return edge < 0 ? 0L : counts[edge];
+    }
+
+    public double weight(int label, int edgeType, int neighbourLabel) {
+        int edge = schema.edgeIndex(label, edgeType, neighbourLabel);
+        return edge < 0 ? 0.0 : weights[edge];
+    }
+
+    /**
+     * product of the weights of the two-hop meta-paths along the meta-path
+     * (node label, edge type, node label, ...), 0 if one of them does not exist
+     */
+    public double weight(int[] metaPath) {
+        double weight = 1.0;
+        for (int i = 0; i + 2 < metaPath.length; i += 2) {
+            weight *= weight(metaPath[i], metaPath[i + 1], metaPath[i + 2]);
+        }
+        return weight;
+    }
+
+    /**
+     * the weights of the meta-paths joined by "|" keyed by the meta-path, the meta-paths are
+     * split into one batch per thread
+     */
+    public HashMap<String, Double> weights(Collection<String> joinedMetaPaths, ExecutorService executor, int concurrency) {
+        String[] metaPaths = joinedMetaPaths.toArray(new String[0]);
+        double[] weights = new double[metaPaths.length];
+        ParallelUtil.iterateParallel(executor, metaPaths.length, Math.max(concurrency, 1),
+                i -> weights[i] = weight(parseMetaPath(metaPaths[i])));
+        HashMap<String, Double> map = new HashMap<>();
+        for (int i = 0; i < metaPaths.length; i++) {
+            map.put(metaPaths[i], weights[i]);
+        }
+        return map;
+    }
+
+    /**
+     * the weights keyed by the joined two-hop meta-paths "label|edgeType|label"
+     */
+    public HashMap<String, Double> toMap() {
+        HashMap<String, Double> map = new HashMap<>();
+        for (int edge = 0; edge < weights.length; edge++) {
+            map.put(schema.sourceLabel(edge) + "|" + schema.edgeType(edge) + "|" + schema.neighbourLabel(edge), weights[edge]);
+        }
+        return map;
+    }
+
+    public interface Counter {
+        long count(int label, int edgeType, int neighbourLabel);
+    }
+}
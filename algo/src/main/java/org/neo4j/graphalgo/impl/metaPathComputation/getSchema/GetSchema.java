@@ -4,6 +4,7 @@ import com.carrotsearch.hppc.IntIntHashMap;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathComputation;
 import org.neo4j.graphalgo.impl.metaPathComputation.Pair;
+import org.neo4j.graphdb.Direction;
 
 import java.util.*;
 import java.io.*;
@@ -45,23 +46,6 @@ public class GetSchema extends MetaPathComputation {
         ArrayList<AddNeighboursToSchemaThread> threads = startThreads();
         joinThreads(threads);
         ArrayList<HashSet<Pair>> schema = mergeSchemata(threads);
-
-        try {
-            FileOutputStream fileOut = new FileOutputStream("metagraph.ser");
-            ObjectOutputStream out = new ObjectOutputStream(fileOut);
-            out.writeObject(schema);
-            out.close();
-            fileOut.close();
-
-            fileOut = new FileOutputStream("reversedLabelDictionary.ser");
-            out = new ObjectOutputStream(fileOut);
-            out.writeObject(reversedLabelDictionary);
-            out.close();
-            fileOut.close();
-
-        } catch (IOException i) {
-            i.printStackTrace();
-        }
         return schema;
     }
 
@@ -119,15 +103,12 @@ public class GetSchema extends MetaPathComputation {
     }
 
     private boolean addNeighboursToSchema(int node, ArrayList<HashSet<Pair>> schema) {
-        int[] neighbours = graph.getOutgoingNodes(node);
-        Integer[] labels = graph.getLabels(node);
+        int[] labels = graph.getLabels(node);
         for (int label : labels) {
             Integer labelId = getLabelId(label);
 
-            for (int neighbour : neighbours) {
-                int edgeLabel = graph.getEdgeLabel(node, neighbour);
-
-                Integer[] neighbourLabels = graph.getLabels(neighbour);
+            graph.forEachTypedRelationship(node, Direction.OUTGOING, (source, neighbour, edgeLabel, firstNeighbourLabel) -> {
+                int[] neighbourLabels = graph.getLabels(neighbour);
                 for (int neighbourLabel : neighbourLabels) {
                     Integer neighbourLabelId = getLabelId(neighbourLabel);
 
@@ -137,7 +118,8 @@ public class GetSchema extends MetaPathComputation {
                     Pair incomingEdge = new Pair(labelId, edgeLabel);
                     schema.get(neighbourLabelId).add(incomingEdge);
                 }
-            }
+                return true;
+            });
         }
 
         return true;
@@ -208,6 +190,17 @@ public class GetSchema extends MetaPathComputation {
             return "Result{}";
         }
 
+        /**
+         * @return a deep copy which can be changed without affecting this result
+         */
+        public Result copy() {
+            ArrayList<HashSet<Pair>> schemaCopy = new ArrayList<>(schema.size());
+            for (HashSet<Pair> row : schema) {
+                schemaCopy.add(new HashSet<>(row));
+            }
+            return new Result(schemaCopy, labelDictionary.clone(), new HashMap<>(reverseLabelDictionary));
+        }
+
         public ArrayList<HashSet<Pair>> getSchema() {
             return schema;
         }
@@ -0,0 +1,204 @@
+package org.neo4j.graphalgo.impl.metaPathComputation.getSchema;
+
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.kernel.NeoStoreDataSource;
+import org.neo4j.kernel.impl.store.StoreId;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Graph-scoped cache of the schema computed by {@link GetSchema}.
+ * <p>
+ * A schema is valid as long as no transaction has been committed since it was computed. It is
+ * looked up in memory first, then in the {@link SchemaFile} of the store, and only computed from
+ * a freshly loaded graph if both are missing or stale. The computed schema is kept in memory and
+ * written to the file, so it survives a restart of the database. The files are kept in the
+ * working directory like the other meta-path files, never in the store directory of the
+ * database, and are named after the store they belong to.
+ * <p>
+ * Only the lookup of the entry is synchronised. The schema is computed outside of the lock,
+ * concurrent callers for the same graph wait for the same computation, callers for other graphs
+ * are not blocked. Every caller gets its own copy of the cached schema.
+ */
+public final class SchemaCache {
+
+    public static final String FILE_PREFIX = "metagraph_";
+
+    private static final Map<GraphDatabaseAPI, Entry> CACHE = new WeakHashMap<>();
+
+    private SchemaCache() {
+    }
+
+    /**
+     * the schema of the graph as of its last committed transaction, the file is kept in the working directory
+     */
+    public static GetSchema.Result get(GraphDatabaseAPI api) throws FileNotFoundException {
+        return get(api, new File("."));
+    }
+
+    /**
+     * the schema of the graph as of its last committed transaction
+     *
+     * @param directory directory of the schema file
+     */
+    public static GetSchema.Result get(GraphDatabaseAPI api, File directory) throws FileNotFoundException {
+        Version version = Version.of(api);
+        Entry entry;
+        boolean computing = false;
+        synchronized (CACHE) {
+            entry = CACHE.get(api);
+            if (entry == null || !entry.version.equals(version)) {
+                entry = new Entry(version);
+                CACHE.put(api, entry);
+                computing = true;
+            }
+        }
+
+        if (computing) {
+            try {
+                entry.result.complete(load(api, new File(directory, fileName(version)), version));
+            } catch (FileNotFoundException | RuntimeException | Error e) {
+                entry.result.completeExceptionally(e);
+                synchronized (CACHE) {
+                    CACHE.remove(api, entry);
+                }
+                throw e;
+            }
+        }
+
+        try {
+            return entry.result.join().copy();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FileNotFoundException) {
+                throw (FileNotFoundException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * name of the schema file of the store
+     */
+    public static String fileName(Version version) {
+        return FILE_PREFIX + Long.toHexString(version.storeCreationTime()) + "_" + Long.toHexString(version.storeRandomId()) + ".bin";
+    }
+
+    /**
+     * drop the schema of the graph from memory, the file is left as it is
+     */
+    public static void invalidate(GraphDatabaseAPI api) {
+        synchronized (CACHE) {
+            CACHE.remove(api);
+        }
+    }
+
+    private static GetSchema.Result load(GraphDatabaseAPI api, File file, Version version) throws FileNotFoundException {
+        GetSchema.Result result = readFile(file, version);
+        if (result == null) {
+            result = compute(api);
+            writeFile(file, version, result);
+        }
+        return result;
+    }
+
+    private static GetSchema.Result compute(GraphDatabaseAPI api) throws FileNotFoundException {
+        HeavyGraph graph = (HeavyGraph) new GraphLoader(api)
+                .asUndirected(true)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+        GetSchema.Result result = new GetSchema(graph).compute();
+        graph.release();
+        return result;
+    }
+
+    private static GetSchema.Result readFile(File file, Version version) {
+        try {
+            return SchemaFile.read(file, version);
+        } catch (IOException e) {
+            // a broken file is recomputed and overwritten
+            return null;
+        }
+    }
+
+    private static void writeFile(File file, Version version, GetSchema.Result result) {
+        try {
+            SchemaFile.write(file, version, result);
+        } catch (IOException e) {
+            // e.g. an in-memory store without a directory, the schema is still cached in memory
+        }
+    }
+
+    /**
+     * the store and the last committed transaction a schema was computed at
+     */
+    public static final class Version {
+
+        private final long storeCreationTime;
+        private final long storeRandomId;
+        private final long transactionId;
+
+        public Version(long storeCreationTime, long storeRandomId, long transactionId) {
+            this.storeCreationTime = storeCreationTime;
+            this.storeRandomId = storeRandomId;
+            this.transactionId = transactionId;
+        }
+
+        public static Version of(GraphDatabaseAPI api) {
+            StoreId storeId = api.getDependencyResolver().resolveDependency(NeoStoreDataSource.class).getStoreId();
+            long transactionId = api.getDependencyResolver().resolveDependency(TransactionIdStore.class).getLastCommittedTransactionId();
+            return new Version(storeId.getCreationTime(), storeId.getRandomId(), transactionId);
+        }
+
+        public long storeCreationTime() {
+            return storeCreationTime;
+        }
+
+        public long storeRandomId() {
+            return storeRandomId;
+        }
+
+        public long transactionId() {
+            return transactionId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Version)) {
+                return false;
+            }
+            Version version = (Version) obj;
+            return storeCreationTime == version.storeCreationTime
+                    && storeRandomId == version.storeRandomId
+                    && transactionId == version.transactionId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(storeCreationTime, storeRandomId, transactionId);
+        }
+    }
+
+    private static final class Entry {
+        private final Version version;
+        private final CompletableFuture<GetSchema.Result> result = new CompletableFuture<>();
+
+        private Entry(Version version) {
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.neo4j.graphalgo.impl.metaPathComputation.getSchema;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import org.neo4j.graphalgo.impl.metaPathComputation.Pair;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Binary file format for a computed schema, replacing the serialized java objects.
+ * <p>
+ * Layout (big endian):
+ * <pre>
+ * header:  int magic | int version | long store creation time | long store random id | long transaction id
+ * labels:  int labelCount | labelCount x int label id, in the order of the label index
+ * rows:    per label index: int pairCount | pairCount x (int neighbour label index | int edge type)
+ * </pre>
+ * The store id and the last committed transaction id the schema was computed at are stored
+ * with it, a file is only read back for the same {@link SchemaCache.Version}.
+ */
+public final class SchemaFile {
+
+    public static final int MAGIC = 0x4D534348; // "MSCH"
+    public static final int VERSION = 1;
+
+    private SchemaFile() {
+    }
+
+    public static void write(File file, SchemaCache.Version version, GetSchema.Result result) throws IOException {
+        ArrayList<HashSet<Pair>> schema = result.getSchema();
+        HashMap<Integer, Integer> reverseLabelDictionary = result.getReverseLabelDictionary();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(version.storeCreationTime());
+            out.writeLong(version.storeRandomId());
+            out.writeLong(version.transactionId());
+            out.writeInt(schema.size());
+            for (int index = 0; index < schema.size(); index++) {
+                out.writeInt(reverseLabelDictionary.get(index));
+            }
+            for (HashSet<Pair> row : schema) {
+                out.writeInt(row.size());
+                for (Pair pair : row) {
+                    out.writeInt(pair.first());
+                    out.writeInt(pair.second());
+                }
+            }
+        }
+    }
+
+    /**
+     * read the schema if the file exists and was written for the version, null otherwise
+     */
+    public static GetSchema.Result read(File file, SchemaCache.Version version) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            SchemaCache.Version fileVersion = new SchemaCache.Version(in.readLong(), in.readLong(), in.readLong());
+            if (!fileVersion.equals(version)) {
+                return null;
+            }
+            int labelCount = in.readInt();
+            IntIntHashMap labelDictionary = new IntIntHashMap(labelCount);
+            HashMap<Integer, Integer> reverseLabelDictionary = new HashMap<>(labelCount);
+            for (int index = 0; index < labelCount; index++) {
+                int label = in.readInt();
+                labelDictionary.put(label, index);
+                reverseLabelDictionary.put(index, label);
+            }
+            ArrayList<HashSet<Pair>> schema = new ArrayList<>(labelCount);
+            for (int index = 0; index < labelCount; index++) {
+                int pairCount = in.readInt();
+                HashSet<Pair> row = new HashSet<>(pairCount * 2);
+                for (int i = 0; i < pairCount; i++) {
+                    row.add(new Pair(in.readInt(), in.readInt()));
+                }
+                schema.add(row);
+            }
+            return new GetSchema.Result(schema, labelDictionary, reverseLabelDictionary);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.neo4j.graphalgo.metaPathComputationProcs;
 
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.impl.metaPathComputation.ComputeAllMetaPathsBetweenTypes;
 import org.neo4j.graphalgo.results.metaPathComputationResults.ComputeAllMetaPathsBetweenTypesResult;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -28,18 +29,25 @@ public class ComputeAllMetaPathsBetweenTypesProc {
     public KernelTransaction transaction;
 
     @Procedure("algo.computeAllMetaPathsBetweenTypes")
-    @Description("CALL algo.computeAllMetaPathsBetweenTypes(length:int, type1:String, type2:String) YIELD length: \n" +
-            "Precomputes all metapaths up to a metapath-length given by 'length' and saves them to a File called 'Precomputed_MetaPaths.txt' \n")//TODO change description
+    @Description("CALL algo.computeAllMetaPathsBetweenTypes(length:int, type1:String, type2:String, concurrency:int, graph:string) YIELD length: \n" +
+            "Precomputes all metapaths up to a metapath-length given by 'length' and saves them to a File called 'Precomputed_MetaPaths.txt' \n" +
+            "Without 'graph' the schema is taken from the schema cache and the relationships of each schema edge are counted in the database \n" +
+            MetaPathGraphs.GRAPH_DESCRIPTION)//TODO change description
 
     public Stream<ComputeAllMetaPathsBetweenTypesResult> ComputeAllMetaPathsBetweenTypes(
             @Name(value = "length", defaultValue = "5") String lengthString,
             @Name(value = "type1", defaultValue = "none") String type1,
-            @Name(value = "type2", defaultValue = "none") String type2) throws Exception {
+            @Name(value = "type2", defaultValue = "none") String type2,
+            @Name(value = "concurrency", defaultValue = "0") String concurrencyString,
+            @Name(value = "graph", defaultValue = "") String graphName) throws Exception {
         int length = Integer.valueOf(lengthString);
+        int concurrency = Integer.valueOf(concurrencyString);
 
         final ComputeAllMetaPathsBetweenTypesResult.Builder builder = ComputeAllMetaPathsBetweenTypesResult.builder();
 
-        final ComputeAllMetaPathsBetweenTypes algo = new ComputeAllMetaPathsBetweenTypes(length, type1, type2, api);
+        final ComputeAllMetaPathsBetweenTypes algo = new ComputeAllMetaPathsBetweenTypes(length, type1, type2, api)
+                .withGraph(graphName.isEmpty() ? null : MetaPathGraphs.load(api, graphName))
+                .withConcurrency(Pools.DEFAULT, concurrency > 0 ? concurrency : Pools.DEFAULT_CONCURRENCY);
         HashSet<String> metaPaths;
         Result result = algo.compute();
         metaPaths = result.getFinalMetaPaths();
@@ -1,11 +1,14 @@
 package org.neo4j.graphalgo.metaPathComputationProcs;
 
+import com.carrotsearch.hppc.IntHashSet;
 import org.neo4j.graphalgo.api.IdMapping;
-import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
-import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.impl.metaPathComputation.ComputeAllMetaPathsForInstances;
+import org.neo4j.graphalgo.impl.metaPathComputation.InstanceMetaPaths;
 import org.neo4j.graphalgo.results.metaPathComputationResults.ComputeAllMetaPathsForInstancesResult;
+import org.neo4j.graphalgo.results.metaPathComputationResults.ComputeAllMetaPathsForInstancesStreamResult;
 import org.neo4j.graphalgo.results.metaPathComputationResults.ComputeAllMetaPathsResult;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -34,36 +37,27 @@ public class ComputeAllMetaPathsForInstancesProc {
     public KernelTransaction transaction;
 
     @Procedure("algo.computeAllMetaPathsForInstances")
-    @Description("CALL algo.computeAllMetaPathsForInstances(startNodes:long[], endNodes:long[], length:int) YIELD length: \n" +
-            "Compute all metaPaths up to a metapath-length given by 'length' that start with a startNode and end with a endNOde and saves them to a File called 'Precomputed_MetaPaths_Instances.txt' \n")
+    @Description("CALL algo.computeAllMetaPathsForInstances(startNodes:long[], endNodes:long[], length:int, bidirectional:boolean, graph:string) YIELD length: \n" +
+            "Compute all metaPaths up to a metapath-length given by 'length' that start with a startNode and end with a endNOde and saves them to a File called 'Precomputed_MetaPaths_Instances.txt' \n" +
+            "With bidirectional=true the search expands from both node sets to half the length and joins them in the middle \n" +
+            MetaPathGraphs.GRAPH_DESCRIPTION)
 
     public Stream<ComputeAllMetaPathsForInstancesResult> computeAllMetaPaths(
             @Name(value = "startNodes", defaultValue = "{}") String startNodesString,
             @Name(value = "endNodes", defaultValue = "{}") String endNodesString,
-            @Name(value = "length", defaultValue = "5") String lengthString) throws IOException {
+            @Name(value = "length", defaultValue = "5") String lengthString,
+            @Name(value = "bidirectional", defaultValue = "false") String bidirectionalString,
+            @Name(value = "graph", defaultValue = "") String graphName) throws IOException {
 
         int length = Integer.valueOf(lengthString);
+        boolean bidirectional = Boolean.parseBoolean(bidirectionalString);
 
-        String[] endNodesAsStrings = endNodesString.substring(1,endNodesString.length()-1).split(Pattern.quote(", "));
-        Long[] endNodes = new Long[endNodesAsStrings.length];
-        for (int i = 0; i < endNodesAsStrings.length; i++) {
-            endNodes[i] = Long.parseLong(endNodesAsStrings[i]);
-        }
-
-        String[] startNodesAsStrings = startNodesString.substring(1,startNodesString.length()-1).split(Pattern.quote(", "));
-        Long[] startNodes = new Long[startNodesAsStrings.length];
-        for (int i = 0; i < startNodesAsStrings.length; i++) {
-            startNodes[i] = Long.parseLong(startNodesAsStrings[i]);
-        }
+        Long[] endNodes = parseNodeIds(endNodesString);
+        Long[] startNodes = parseNodeIds(startNodesString);
 
         final ComputeAllMetaPathsForInstancesResult.Builder builder = ComputeAllMetaPathsForInstancesResult.builder();
 
-        final HeavyGraph graph;
-
-        graph = (HeavyGraph) new GraphLoader(api)
-                .asUndirected(true)
-                .withLabelAsProperty(true)
-                .load(HeavyGraphFactory.class);
+        final HeavyGraph graph = MetaPathGraphs.load(api, graphName);
 
         HashSet<Integer> convertedEndNodes = new HashSet<>();//converting in the proc allows for easier testing
         convertIds(graph, endNodes, convertedEndNodes);
@@ -75,12 +69,70 @@ public class ComputeAllMetaPathsForInstancesProc {
 
         final ComputeAllMetaPathsForInstances algo = new ComputeAllMetaPathsForInstances(graph, graph, length, startNodeList, endNodeList);
         HashSet<String> metaPaths;
-        metaPaths = algo.compute().getFinalMetaPaths();
+        metaPaths = algo.withBidirectionalSearch(bidirectional).compute().getFinalMetaPaths();
         builder.setMetaPaths(metaPaths);
         graph.release();
        return Stream.of(builder.build());
     }
 
+    @Procedure("algo.computeAllMetaPathsForInstances.stream")
+    @Description("CALL algo.computeAllMetaPathsForInstances.stream(startNodes:long[], endNodes:long[], length:int, concurrency:int, graph:string) YIELD startNode, endNode, metaPath, count: \n" +
+            "Streams for every start node the metapaths up to a metapath-length given by 'length' to each node they reach and the number of their instances between the two nodes. " +
+            "'metaPath' alternates node label ids and edge label ids. Without 'endNodes' all reached nodes are returned. " +
+            "The start nodes are computed in parallel and the rows of a start node are streamed once it is finished \n" +
+            MetaPathGraphs.GRAPH_DESCRIPTION)
+
+    public Stream<ComputeAllMetaPathsForInstancesStreamResult> computeAllMetaPathsStream(
+            @Name(value = "startNodes", defaultValue = "{}") String startNodesString,
+            @Name(value = "endNodes", defaultValue = "{}") String endNodesString,
+            @Name(value = "length", defaultValue = "5") String lengthString,
+            @Name(value = "concurrency", defaultValue = "0") String concurrencyString,
+            @Name(value = "graph", defaultValue = "") String graphName) {
+
+        int length = Integer.valueOf(lengthString);
+        int concurrency = Integer.valueOf(concurrencyString);
+
+        final HeavyGraph graph = MetaPathGraphs.load(api, graphName);
+
+        Long[] endNodes = parseNodeIds(endNodesString);
+        final InstanceMetaPaths algo = new InstanceMetaPaths(graph, length)
+                .withEndNodes(endNodes.length == 0 ? null : mappedIds(graph, endNodes))
+                .withConcurrency(Pools.DEFAULT, concurrency > 0 ? concurrency : Pools.DEFAULT_CONCURRENCY);
+        algo.withTerminationFlag(TerminationFlag.wrap(transaction));
+        return algo.resultStream(mappedIds(graph, parseNodeIds(startNodesString)))
+                .map(row -> new ComputeAllMetaPathsForInstancesStreamResult(
+                        graph.toOriginalNodeId(row.startNode), graph.toOriginalNodeId(row.endNode), row.metaPath, row.count));
+    }
+
+    /**
+     * parse node ids given as "{id, id, ...}", "{}" is no node
+     */
+    static Long[] parseNodeIds(String nodeIdsString) {
+        String nodeIds = nodeIdsString.substring(1, nodeIdsString.length() - 1).trim();
+        if (nodeIds.isEmpty()) {
+            return new Long[0];
+        }
+        String[] nodeIdsAsStrings = nodeIds.split(Pattern.quote(", "));
+        Long[] parsedIds = new Long[nodeIdsAsStrings.length];
+        for (int i = 0; i < nodeIdsAsStrings.length; i++) {
+            parsedIds[i] = Long.parseLong(nodeIdsAsStrings[i]);
+        }
+        return parsedIds;
+    }
+
+    /**
+     * the distinct mapped ids of the nodes which are part of the graph
+     */
+    private int[] mappedIds(IdMapping idMapping, Long[] nodeIds) {
+        IntHashSet mappedIds = new IntHashSet();
+        for (long nodeId : nodeIds) {
+            if (idMapping.contains(nodeId)) {
+                mappedIds.add(idMapping.toMappedNodeId(nodeId));
+            }
+        }
+        return mappedIds.toArray();
+    }
+
     public void convertIds(IdMapping idMapping, Long[] incomingIds, HashSet<Integer> convertedIds) {
         for (long id : incomingIds) {
             convertedIds.add(idMapping.toMappedNodeId(id));
@@ -1,10 +1,13 @@
 package org.neo4j.graphalgo.metaPathComputationProcs;
 
-import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
-import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.impl.metaPathComputation.ComputeAllMetaPaths;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathPruning;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathSampler;
+import org.neo4j.graphalgo.results.metaPathComputationResults.ComputeAllMetaPathsEstimateResult;
 import org.neo4j.graphalgo.results.metaPathComputationResults.ComputeAllMetaPathsResult;
+import org.neo4j.graphalgo.results.metaPathComputationResults.ComputeAllMetaPathsStreamResult;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
@@ -15,10 +18,15 @@ import org.neo4j.procedure.Procedure;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.stream.Stream;
 
 public class ComputeAllMetaPathsProc {
 
+    static final String PRUNING_DESCRIPTION =
+            "Only metapaths with at least 'minCount' distinct start nodes are computed, 'topK' keeps the k metapaths " +
+            "with the most distinct start nodes. 'allowedLabels' and 'allowedEdgeTypes' are comma separated label ids, " +
+            "metapaths containing other labels are not computed. Prefixes which cannot qualify are not expanded \n";
 
     @Context
     public GraphDatabaseAPI api;
@@ -30,24 +38,26 @@ public class ComputeAllMetaPathsProc {
     public KernelTransaction transaction;
 
     @Procedure("algo.computeAllMetaPaths")
-    @Description("CALL algo.computeAllMetaPaths(length:int) YIELD length: \n" +
-            "Precomputes all metapaths up to a metapath-length given by 'length' and saves them to a File called 'Precomputed_MetaPaths.txt' \n")
+    @Description("CALL algo.computeAllMetaPaths(length:int, minCount:int, topK:int, allowedLabels:string, allowedEdgeTypes:string, graph:string) YIELD length: \n" +
+            "Precomputes all metapaths up to a metapath-length given by 'length' and saves them to a File called 'Precomputed_MetaPaths.txt'. " +
+            PRUNING_DESCRIPTION + MetaPathGraphs.GRAPH_DESCRIPTION)
 
     public Stream<ComputeAllMetaPathsResult> computeAllMetaPaths(
-            @Name(value = "length", defaultValue = "5") String lengthString) throws Exception {
+            @Name(value = "length", defaultValue = "5") String lengthString,
+            @Name(value = "minCount", defaultValue = "0") String minCountString,
+            @Name(value = "topK", defaultValue = "0") String topKString,
+            @Name(value = "allowedLabels", defaultValue = "") String allowedLabelsString,
+            @Name(value = "allowedEdgeTypes", defaultValue = "") String allowedEdgeTypesString,
+            @Name(value = "graph", defaultValue = "") String graphName) throws Exception {
         int length = Integer.valueOf(lengthString);
+        MetaPathPruning pruning = pruning(minCountString, topKString, allowedLabelsString, allowedEdgeTypesString);
 
         final ComputeAllMetaPathsResult.Builder builder = ComputeAllMetaPathsResult.builder();
 
-        final HeavyGraph graph;
-
-        graph = (HeavyGraph) new GraphLoader(api)
-                .asUndirected(true)
-                .withLabelAsProperty(true)
-                .load(HeavyGraphFactory.class);
-
+        final HeavyGraph graph = MetaPathGraphs.load(api, graphName);
 
         final ComputeAllMetaPaths algo = new ComputeAllMetaPaths(graph, graph, length);
+        algo.withPruning(pruning);
         ArrayList<String> metaPaths;
         metaPaths = algo.compute().getFinalMetaPaths();
         builder.setMetaPaths(metaPaths);
@@ -56,4 +66,72 @@ public class ComputeAllMetaPathsProc {
         //System.out.println(Stream.of(builder.build()));
         return Stream.of(builder.build());
     }
-}
\ No newline at end of file
+
+    @Procedure("algo.computeAllMetaPaths.stream")
+    @Description("CALL algo.computeAllMetaPaths.stream(length:int, minCount:int, topK:int, allowedLabels:string, allowedEdgeTypes:string, graph:string) YIELD metaPath, count: \n" +
+            "Streams all metapaths up to a metapath-length given by 'length' while they are computed. " +
+            "'metaPath' alternates node label ids and edge label ids, 'count' is the number of instances. " +
+            "With 'topK' the metapaths are streamed once the computation is finished. " +
+            PRUNING_DESCRIPTION + MetaPathGraphs.GRAPH_DESCRIPTION)
+
+    public Stream<ComputeAllMetaPathsStreamResult> computeAllMetaPathsStream(
+            @Name(value = "length", defaultValue = "5") String lengthString,
+            @Name(value = "minCount", defaultValue = "0") String minCountString,
+            @Name(value = "topK", defaultValue = "0") String topKString,
+            @Name(value = "allowedLabels", defaultValue = "") String allowedLabelsString,
+            @Name(value = "allowedEdgeTypes", defaultValue = "") String allowedEdgeTypesString,
+            @Name(value = "graph", defaultValue = "") String graphName) throws Exception {
+        int length = Integer.valueOf(lengthString);
+        MetaPathPruning pruning = pruning(minCountString, topKString, allowedLabelsString, allowedEdgeTypesString);
+
+        final HeavyGraph graph = MetaPathGraphs.load(api, graphName);
+
+        final ComputeAllMetaPaths algo = new ComputeAllMetaPaths(graph, graph, length);
+        algo.withTerminationFlag(TerminationFlag.wrap(transaction));
+        algo.withPruning(pruning);
+        return algo.resultStream()
+                .map(row -> new ComputeAllMetaPathsStreamResult(row.metaPath, row.count));
+    }
+
+    @Procedure("algo.computeAllMetaPaths.approximate")
+    @Description("CALL algo.computeAllMetaPaths.approximate(length:int, sampleSize:int, relativeError:double, seed:int, graph:string) " +
+            "YIELD metaPath, count, lowerBound, upperBound, sampledNodes, exact: \n" +
+            "Estimates the instance counts of all metapaths up to a metapath-length given by 'length' from 'sampleSize' " +
+            "sampled start nodes per label. With a 'relativeError' > 0 the sample is doubled until the 95% confidence " +
+            "intervals of the frequent metapaths are within that error. Metapaths are returned by descending estimated count \n" +
+            MetaPathGraphs.GRAPH_DESCRIPTION)
+
+    public Stream<ComputeAllMetaPathsEstimateResult> computeAllMetaPathsApproximate(
+            @Name(value = "length", defaultValue = "5") String lengthString,
+            @Name(value = "sampleSize", defaultValue = "1000") String sampleSizeString,
+            @Name(value = "relativeError", defaultValue = "0") String relativeErrorString,
+            @Name(value = "seed", defaultValue = "42") String seedString,
+            @Name(value = "graph", defaultValue = "") String graphName) throws Exception {
+        int length = Integer.valueOf(lengthString);
+        int sampleSize = Integer.valueOf(sampleSizeString);
+        double relativeError = Double.valueOf(relativeErrorString);
+        long seed = Long.valueOf(seedString);
+
+        final HeavyGraph graph = MetaPathGraphs.load(api, graphName);
+
+        List<MetaPathSampler.Estimate> estimates;
+        try {
+            final ComputeAllMetaPaths algo = new ComputeAllMetaPaths(graph, graph, length);
+            algo.withTerminationFlag(TerminationFlag.wrap(transaction));
+            estimates = algo.estimate(sampleSize, relativeError, seed);
+        } finally {
+            graph.release();
+        }
+        return estimates.stream()
+                .sorted((a, b) -> Double.compare(b.count, a.count))
+                .map(ComputeAllMetaPathsEstimateResult::new);
+    }
+
+    static MetaPathPruning pruning(String minCountString, String topKString, String allowedLabelsString, String allowedEdgeTypesString) {
+        return MetaPathPruning.of(
+                Long.valueOf(minCountString),
+                Integer.valueOf(topKString),
+                MetaPathPruning.parseIds(allowedLabelsString),
+                MetaPathPruning.parseIds(allowedEdgeTypesString));
+    }
+}
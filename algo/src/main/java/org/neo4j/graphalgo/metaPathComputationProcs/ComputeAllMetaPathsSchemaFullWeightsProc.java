@@ -1,5 +1,6 @@
 package org.neo4j.graphalgo.metaPathComputationProcs;
 
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.impl.metaPathComputation.ComputeAllMetaPathsBetweenTypes;
 import org.neo4j.graphalgo.impl.metaPathComputation.ComputeAllMetaPathsSchemaFullWeights;
 import org.neo4j.graphalgo.results.metaPathComputationResults.ComputeAllMetaPathsBetweenTypesResult;
@@ -26,16 +27,23 @@ public class ComputeAllMetaPathsSchemaFullWeightsProc {
     public KernelTransaction transaction;
 
     @Procedure("algo.ComputeAllMetaPathsSchemaFullWeights")
-    @Description("CALL algo.ComputeAllMetaPathsSchemaFullWeights(length:int) YIELD length: \n" +
-            "Precomputes all metapaths up to a metapath-length given by 'length' but dont garuatny their existence' \n")//TODO change description
+    @Description("CALL algo.ComputeAllMetaPathsSchemaFullWeights(length:int, concurrency:int, graph:string) YIELD length: \n" +
+            "Precomputes all metapaths up to a metapath-length given by 'length' but dont garuatny their existence' \n" +
+            "Without 'graph' the schema is taken from the schema cache and the relationships of each schema edge are counted in the database \n" +
+            MetaPathGraphs.GRAPH_DESCRIPTION)//TODO change description
 
     public Stream<ComputeAllMetaPathsBetweenTypesResult> ComputeAllMetaPathsSchemaFullWeights(
-            @Name(value = "length", defaultValue = "5") String lengthString) throws Exception {
+            @Name(value = "length", defaultValue = "5") String lengthString,
+            @Name(value = "concurrency", defaultValue = "0") String concurrencyString,
+            @Name(value = "graph", defaultValue = "") String graphName) throws Exception {
         int length = Integer.valueOf(lengthString);
+        int concurrency = Integer.valueOf(concurrencyString);
 
         final ComputeAllMetaPathsBetweenTypesResult.Builder builder = ComputeAllMetaPathsBetweenTypesResult.builder();
 
-        final ComputeAllMetaPathsSchemaFullWeights algo = new ComputeAllMetaPathsSchemaFullWeights(length, api);
+        final ComputeAllMetaPathsSchemaFullWeights algo = new ComputeAllMetaPathsSchemaFullWeights(length, api)
+                .withGraph(graphName.isEmpty() ? null : MetaPathGraphs.load(api, graphName))
+                .withConcurrency(Pools.DEFAULT, concurrency > 0 ? concurrency : Pools.DEFAULT_CONCURRENCY);
         HashSet<String> metaPaths;
         ComputeAllMetaPathsSchemaFullWeights.Result result = algo.compute();
         metaPaths = result.getFinalMetaPaths();
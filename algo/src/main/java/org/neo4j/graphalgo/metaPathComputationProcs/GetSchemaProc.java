@@ -1,25 +1,17 @@
 package org.neo4j.graphalgo.metaPathComputationProcs;
 
-import org.neo4j.graphalgo.core.GraphLoader;
-import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
-import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
 import org.neo4j.graphalgo.impl.metaPathComputation.getSchema.GetSchema;
-import org.neo4j.graphalgo.impl.metaPathComputation.Pair;
+import org.neo4j.graphalgo.impl.metaPathComputation.getSchema.SchemaCache;
 import org.neo4j.graphalgo.results.metaPathComputationResults.GetSchemaResult;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Context;
 import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.stream.Stream;
 
 public class GetSchemaProc {
@@ -33,53 +25,22 @@ public class GetSchemaProc {
     public KernelTransaction transaction;
 
     @Procedure("algo.GetSchema")
-    @Description("CALL algo.GetSchema() YIELD schema: \n" +
-            "return schema as adjacency list \n")
+    @Description("CALL algo.GetSchema(graph:string) YIELD schema: \n" +
+            "return schema as adjacency list, cached until the next committed transaction \n" +
+            MetaPathGraphs.GRAPH_DESCRIPTION)
 
-    public Stream<GetSchemaResult> GetSchema() throws FileNotFoundException {
+    public Stream<GetSchemaResult> GetSchema(
+            @Name(value = "graph", defaultValue = "") String graphName) throws FileNotFoundException {
 
         final GetSchemaResult.Builder builder = GetSchemaResult.builder();
 
-        ArrayList<HashSet<Pair>> schema = null;
-        HashMap<Integer, Integer> reversedLabelDictionary = null;
-        boolean notYetComputed = false;
-        try {
-            FileInputStream fileIn = new FileInputStream("metagraph.ser");
-            ObjectInputStream in = new ObjectInputStream(fileIn);
-            schema = (ArrayList<HashSet<Pair>>) in.readObject();
-            in.close();
-            fileIn.close();
+        // the cache holds the schema of the whole database, a named graph may be reduced
+        GetSchema.Result result = graphName.isEmpty()
+                ? SchemaCache.get(api)
+                : new GetSchema(MetaPathGraphs.load(api, graphName)).compute();
 
-            fileIn = new FileInputStream("reversedLabelDictionary.ser");
-            in = new ObjectInputStream(fileIn);
-            reversedLabelDictionary = (HashMap<Integer, Integer>) in.readObject();
-            in.close();
-            fileIn.close();
-        } catch (IOException i) {
-            notYetComputed = true;
-        } catch (ClassNotFoundException c) {
-            c.printStackTrace();
-            notYetComputed = true;
-        }
-
-        if(notYetComputed){
-            final HeavyGraph graph;
-
-            graph = (HeavyGraph) new GraphLoader(api)
-                    .asUndirected(true)
-                    .withLabelAsProperty(true)
-                    .load(HeavyGraphFactory.class);
-
-            final GetSchema algo = new GetSchema(graph);
-            GetSchema.Result result = algo.compute();
-            graph.release();
-
-            schema = result.getSchema();
-            reversedLabelDictionary = result.getReverseLabelDictionary();
-        }
-
-        builder.setSchema(schema);
-        builder.setReverseLabelDictionary(reversedLabelDictionary);
+        builder.setSchema(result.getSchema());
+        builder.setReverseLabelDictionary(result.getReverseLabelDictionary());
 
         return Stream.of(builder.build());
     }
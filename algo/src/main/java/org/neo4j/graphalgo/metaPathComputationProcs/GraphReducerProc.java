@@ -1,5 +1,6 @@
 package org.neo4j.graphalgo.metaPathComputationProcs;
 
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.impl.metaPathComputation.GraphReducer;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -21,16 +22,24 @@ public class GraphReducerProc {
     public Log log;
 
     @Procedure(value = "algo.graphReducer", mode = Mode.WRITE)
-    @Description("algo.graphReducer(goodEdgeTypes:String[], goodNodeTypes:String[]) YIELD success, executionTime" +
-            "- Remove all nodes and relationships that are not given as goodEdgeTypes or goodNodeTypes.")
+    @Description("algo.graphReducer(goodEdgeTypes:String[], goodNodeTypes:String[], batchSize:int, concurrency:int) YIELD success, executionTime" +
+            "- Remove all nodes and relationships that are not given as goodEdgeTypes or goodNodeTypes. " +
+            "Deletes 'batchSize' nodes per transaction in up to 'concurrency' threads.")
             public Stream<GraphReducerProc.Result> graphReducer(
             @Name(value = "goodEdgeTypes") String goodEdgeTypesString,
-            @Name(value = "goodNodeTypes") String goodNodeTypesString) {
+            @Name(value = "goodNodeTypes") String goodNodeTypesString,
+            @Name(value = "batchSize", defaultValue = "10000") String batchSizeString,
+            @Name(value = "concurrency", defaultValue = "0") String concurrencyString) {
 
         String[] goodEdgeTypes = goodEdgeTypesString.substring(1,goodEdgeTypesString.length()-1).split(Pattern.quote(", "));
         String[] goodNodeTypes = goodNodeTypesString.substring(1,goodNodeTypesString.length()-1).split(Pattern.quote(", "));
 
-        final GraphReducer algo = new GraphReducer(db, log, goodNodeTypes, goodEdgeTypes);
+        int concurrency = Integer.valueOf(concurrencyString);
+
+        final GraphReducer algo = new GraphReducer(api, log, goodNodeTypes, goodEdgeTypes)
+                .withBatchSize(Integer.valueOf(batchSizeString))
+                .withConcurrency(Pools.DEFAULT, concurrency > 0 ? concurrency : Pools.DEFAULT_CONCURRENCY);
+        algo.withLog(log);
 
         long startTime = System.currentTimeMillis();
         algo.compute();
@@ -0,0 +1,48 @@
+package org.neo4j.graphalgo.metaPathComputationProcs;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.loadgraph.LoadGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+/**
+ * The graph the meta-path procedures run on: the graph loaded by
+ * {@code algo.graph.load(name, null, null, {undirected:true, direction:'BOTH'})} if a graph name
+ * is given, a freshly loaded undirected heavy graph with labels otherwise. Releasing a named graph
+ * has no effect, so the procedures release the graph in both cases.
+ */
+final class MetaPathGraphs {
+
+    static final String GRAPH_DESCRIPTION =
+            "With 'graph' the name of a graph loaded by algo.graph.load with undirected:true and direction:'BOTH' it is used instead of loading the graph again \n";
+
+    private MetaPathGraphs() {
+    }
+
+    static HeavyGraph load(GraphDatabaseAPI api, String graphName) {
+        return load(api, graphName, Pools.DEFAULT_CONCURRENCY);
+    }
+
+    static HeavyGraph load(GraphDatabaseAPI api, String graphName, int concurrency) {
+        if (graphName == null || graphName.isEmpty()) {
+            return (HeavyGraph) new GraphLoader(api)
+                    .asUndirected(true)
+                    .withLabelAsProperty(true)
+                    .withConcurrency(concurrency)
+                    .load(HeavyGraphFactory.class);
+        }
+        Graph graph = new GraphLoader(api)
+                .withName(graphName)
+                .load(LoadGraphFactory.class);
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph " + graphName + " is not loaded, call algo.graph.load first");
+        }
+        if (!(graph instanceof HeavyGraph)) {
+            throw new IllegalArgumentException("Graph " + graphName + " is a " + graph.getType() + " graph, meta-paths need a heavy graph");
+        }
+        return (HeavyGraph) graph;
+    }
+}
@@ -1,9 +1,13 @@
 package org.neo4j.graphalgo.metaPathComputationProcs;
 
-import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
-import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.impl.metaPathComputation.HubIndexBuilder;
+import org.neo4j.graphalgo.impl.metaPathComputation.HubSelection;
 import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathPrecomputeHighDegreeNodes;
+import org.neo4j.graphalgo.results.metaPathComputationResults.HubIndexResult;
 import org.neo4j.graphalgo.results.metaPathComputationResults.MetaPathPrecomputeHighDegreeNodesResult;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -20,6 +24,8 @@ import java.util.stream.Stream;
 
 public class MetaPathPrecomputeHighDegreeNodesProc {
 
+    private static final String HUB_INDEX_FILE = "Precomputed_MetaPaths_HighDegree.bin";
+
     @Context
     public GraphDatabaseAPI api;
 
@@ -30,25 +36,21 @@ public class MetaPathPrecomputeHighDegreeNodesProc {
     public KernelTransaction transaction;
 
     @Procedure("algo.metaPathPrecomputeHighDegreeNodes")
-    @Description("CALL algo.metaPathPrecomputeHighDegreeNodes(length:int, ratioHighDegreeNodes:float) YIELD length: \n" +
-            "Compute for a certain amount of nodes, given by 'ratioHighDegreeNodes', with the highest degrees their meta-paths up to a meta-path-length given by 'length' and save their nodeID, meta-paths and the end-nodes of these meta-paths in a file called 'Precomputed_MetaPaths_HighDegree.txt' \n")
+    @Description("CALL algo.metaPathPrecomputeHighDegreeNodes(length:int, ratioHighDegreeNodes:float, graph:string) YIELD length: \n" +
+            "Compute for a certain amount of nodes, given by 'ratioHighDegreeNodes', with the highest degrees their meta-paths up to a meta-path-length given by 'length' and save their nodeID, meta-paths and the end-nodes of these meta-paths in a file called 'Precomputed_MetaPaths_HighDegree.txt' \n" +
+            MetaPathGraphs.GRAPH_DESCRIPTION)
 
     public Stream<MetaPathPrecomputeHighDegreeNodesResult> computeAllMetaPaths(
             @Name(value = "length", defaultValue = "5") String lengthString,
-            @Name(value = "ratioHighDegreeNodes", defaultValue = "0.0000001") String ratioHighDegreeNodesString) throws IOException, InterruptedException {
+            @Name(value = "ratioHighDegreeNodes", defaultValue = "0.0000001") String ratioHighDegreeNodesString,
+            @Name(value = "graph", defaultValue = "") String graphName) throws IOException, InterruptedException {
 
         int length = Integer.valueOf(lengthString);
         float ratioHighDegreeNodes = Float.valueOf(ratioHighDegreeNodesString);
 
         final MetaPathPrecomputeHighDegreeNodesResult.Builder builder = MetaPathPrecomputeHighDegreeNodesResult.builder();
 
-        final HeavyGraph graph;
-
-        graph = (HeavyGraph) new GraphLoader(api)
-                .asUndirected(true)
-                .withLabelAsProperty(true)
-                .load(HeavyGraphFactory.class);
-
+        final HeavyGraph graph = MetaPathGraphs.load(api, graphName);
 
         final MetaPathPrecomputeHighDegreeNodes algo = new MetaPathPrecomputeHighDegreeNodes(graph, graph, graph, length, ratioHighDegreeNodes);
         HashMap<Integer, HashMap<String, HashSet<Integer>>> metaPaths = new HashMap<>();
@@ -59,4 +61,43 @@ public class MetaPathPrecomputeHighDegreeNodesProc {
         //System.out.println(Stream.of(builder.build()));
         return Stream.of(builder.build());
     }
+
+    @Procedure("algo.metaPathPrecomputeHighDegreeNodes.index")
+    @Description("CALL algo.metaPathPrecomputeHighDegreeNodes.index(length:int, ratioHighDegreeNodes:float, minDegree:int, concurrency:int, graph:string) YIELD hubs, recomputedHubs, reusedHubs: \n" +
+            "Compute for the nodes with the highest degrees, given by 'ratioHighDegreeNodes' or by 'minDegree' if it is not negative, their meta-paths up to a meta-path-length given by 'length' and their end-nodes and save them in a binary file called 'Precomputed_MetaPaths_HighDegree.bin'. " +
+            "Hubs whose neighbourhood did not change since the file was last written are copied from it instead of being computed again. \n" +
+            MetaPathGraphs.GRAPH_DESCRIPTION)
+
+    public Stream<HubIndexResult> buildHubIndex(
+            @Name(value = "length", defaultValue = "5") String lengthString,
+            @Name(value = "ratioHighDegreeNodes", defaultValue = "0.0000001") String ratioHighDegreeNodesString,
+            @Name(value = "minDegree", defaultValue = "-1") String minDegreeString,
+            @Name(value = "concurrency", defaultValue = "-1") String concurrencyString,
+            @Name(value = "graph", defaultValue = "") String graphName) throws IOException {
+
+        int length = Integer.valueOf(lengthString);
+        float ratioHighDegreeNodes = Float.valueOf(ratioHighDegreeNodesString);
+        int minDegree = Integer.valueOf(minDegreeString);
+        int concurrency = Integer.valueOf(concurrencyString) > 0 ? Integer.valueOf(concurrencyString) : Pools.DEFAULT_CONCURRENCY;
+
+        final HubIndexResult.Builder builder = HubIndexResult.builder();
+
+        final HeavyGraph graph;
+        try (ProgressTimer timer = builder.timeLoad()) {
+            graph = MetaPathGraphs.load(api, graphName, concurrency);
+        }
+
+        try (ProgressTimer timer = builder.timeEval()) {
+            HubSelection hubSelection = HubSelection.of(graph, Math.toIntExact(graph.nodeCount()), Pools.DEFAULT, concurrency);
+            int[] hubs = minDegree >= 0 ? hubSelection.minDegree(minDegree) : hubSelection.byRatio(ratioHighDegreeNodes);
+            HubIndexBuilder algo = new HubIndexBuilder(graph, graph, length, Pools.DEFAULT, concurrency);
+            algo.withTerminationFlag(TerminationFlag.wrap(transaction));
+            HubIndexBuilder.Result result = algo.build(hubs, HUB_INDEX_FILE, HUB_INDEX_FILE);
+            if (result.isWritten()) {
+                builder.withHubs(result.getHubCount(), result.getReusedCount());
+            }
+        }
+        graph.release();
+        return Stream.of(builder.build());
+    }
 }
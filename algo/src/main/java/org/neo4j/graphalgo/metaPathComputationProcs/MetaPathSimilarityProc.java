@@ -0,0 +1,140 @@
+package org.neo4j.graphalgo.metaPathComputationProcs;
+
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.write.Exporter;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathPruning;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathSimilarity;
+import org.neo4j.graphalgo.results.metaPathComputationResults.MetaPathSimilarityResult;
+import org.neo4j.graphalgo.results.metaPathComputationResults.MetaPathSimilarityStreamResult;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+import org.neo4j.values.storable.Values;
+
+import java.util.stream.Stream;
+
+public class MetaPathSimilarityProc {
+
+    static final String SIMILARITY_DESCRIPTION =
+            "'metaPath' are the node label ids and edge label ids of the metapath separated by ',' or '|', e.g. as returned by algo.computeAllMetaPaths. " +
+            "'measure' is 'pathSim', which needs a symmetric metapath, or 'heteSim'. For every node of the first label of the metapath " +
+            "the 'topK' most similar nodes of its last label are computed, the nodes are handled in batches in up to 'concurrency' threads \n";
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Context
+    public Log log;
+
+    @Context
+    public KernelTransaction transaction;
+
+    @Procedure(value = "algo.metaPathSimilarity", mode = Mode.WRITE)
+    @Description("CALL algo.metaPathSimilarity(metaPath:string, measure:string, topK:int, concurrency:int, writeProperty:string, graph:string) " +
+            "YIELD loadMillis, computeMillis, writeMillis, nodes, writeProperty: \n" +
+            "Computes the metapath based similarity of nodes and writes the scores of the most similar nodes to 'writeProperty' " +
+            "and their ids to 'writeProperty'Nodes, both by descending score. " +
+            SIMILARITY_DESCRIPTION + MetaPathGraphs.GRAPH_DESCRIPTION)
+
+    public Stream<MetaPathSimilarityResult> metaPathSimilarity(
+            @Name(value = "metaPath") String metaPathString,
+            @Name(value = "measure", defaultValue = "pathSim") String measureString,
+            @Name(value = "topK", defaultValue = "10") String topKString,
+            @Name(value = "concurrency", defaultValue = "0") String concurrencyString,
+            @Name(value = "writeProperty", defaultValue = "metaPathSimilarity") String writeProperty,
+            @Name(value = "graph", defaultValue = "") String graphName) {
+        int concurrency = concurrency(concurrencyString);
+        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        MetaPathSimilarityResult.Builder builder = MetaPathSimilarityResult.builder();
+
+        HeavyGraph graph;
+        try (ProgressTimer timer = builder.timeLoad()) {
+            graph = MetaPathGraphs.load(api, graphName, concurrency);
+        }
+
+        MetaPathSimilarity.Result result;
+        try (ProgressTimer timer = builder.timeEval()) {
+            result = similarity(graph, metaPathString, measureString, topKString, concurrency, terminationFlag).compute();
+        }
+        graph.release();
+
+        try (ProgressTimer timer = builder.timeWrite()) {
+            Exporter.of(api, graph)
+                    .withLog(log)
+                    .parallel(Pools.DEFAULT, concurrency, terminationFlag)
+                    .build()
+                    .write(writeProperty, result, (PropertyTranslator<MetaPathSimilarity.Result>) (propertyId, data, nodeId) -> {
+                                double[] scores = data.scores((int) nodeId);
+                                return scores == null || scores.length == 0 ? null : Values.doubleArray(scores);
+                            },
+                            writeProperty + "Nodes", result, (PropertyTranslator<MetaPathSimilarity.Result>) (propertyId, data, nodeId) -> {
+                                int[] similarNodes = data.similarNodes((int) nodeId);
+                                if (similarNodes == null || similarNodes.length == 0) {
+                                    return null;
+                                }
+                                long[] originalIds = new long[similarNodes.length];
+                                for (int i = 0; i < similarNodes.length; i++) {
+                                    originalIds[i] = graph.toOriginalNodeId(similarNodes[i]);
+                                }
+                                return Values.longArray(originalIds);
+                            });
+        }
+
+        return Stream.of(builder
+                .withNodes(result.nodeCount())
+                .withWriteProperty(writeProperty)
+                .build());
+    }
+
+    @Procedure("algo.metaPathSimilarity.stream")
+    @Description("CALL algo.metaPathSimilarity.stream(metaPath:string, measure:string, topK:int, concurrency:int, graph:string) " +
+            "YIELD sourceNode, targetNode, score: \n" +
+            "Streams the most similar nodes of every node with their metapath based similarity. " +
+            SIMILARITY_DESCRIPTION + MetaPathGraphs.GRAPH_DESCRIPTION)
+
+    public Stream<MetaPathSimilarityStreamResult> metaPathSimilarityStream(
+            @Name(value = "metaPath") String metaPathString,
+            @Name(value = "measure", defaultValue = "pathSim") String measureString,
+            @Name(value = "topK", defaultValue = "10") String topKString,
+            @Name(value = "concurrency", defaultValue = "0") String concurrencyString,
+            @Name(value = "graph", defaultValue = "") String graphName) {
+        int concurrency = concurrency(concurrencyString);
+
+        final HeavyGraph graph = MetaPathGraphs.load(api, graphName, concurrency);
+        Stream<MetaPathSimilarity.Row> rows = similarity(graph, metaPathString, measureString, topKString, concurrency, TerminationFlag.wrap(transaction))
+                .resultStream();
+        graph.release();
+        return rows
+                .map(row -> new MetaPathSimilarityStreamResult(
+                        graph.toOriginalNodeId(row.sourceNode), graph.toOriginalNodeId(row.targetNode), row.score));
+    }
+
+    private MetaPathSimilarity similarity(HeavyGraph graph, String metaPathString, String measureString, String topKString,
+                                          int concurrency, TerminationFlag terminationFlag) {
+        int[] metaPath = MetaPathPruning.parseIds(metaPathString.replace('|', ','));
+        if (metaPath == null) {
+            throw new IllegalArgumentException("no metapath given");
+        }
+        MetaPathSimilarity algo = new MetaPathSimilarity(graph, Math.toIntExact(graph.nodeCount()), metaPath)
+                .withMeasure(MetaPathSimilarity.Measure.parse(measureString))
+                .withTopK(Integer.valueOf(topKString))
+                .withConcurrency(Pools.DEFAULT, concurrency);
+        algo.withLog(log);
+        algo.withTerminationFlag(terminationFlag);
+        return algo;
+    }
+
+    private static int concurrency(String concurrencyString) {
+        int concurrency = Integer.valueOf(concurrencyString);
+        return concurrency > 0 ? concurrency : Pools.DEFAULT_CONCURRENCY;
+    }
+}
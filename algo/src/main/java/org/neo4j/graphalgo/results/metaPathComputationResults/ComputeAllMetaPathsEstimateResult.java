@@ -0,0 +1,28 @@
+package org.neo4j.graphalgo.results.metaPathComputationResults;
+
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathSampler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ComputeAllMetaPathsEstimateResult {
+
+    public final List<Long> metaPath;
+    public final double count;
+    public final double lowerBound;
+    public final double upperBound;
+    public final long sampledNodes;
+    public final boolean exact;
+
+    public ComputeAllMetaPathsEstimateResult(MetaPathSampler.Estimate estimate) {
+        this.metaPath = new ArrayList<>(estimate.metaPath.length);
+        for (int label : estimate.metaPath) {
+            this.metaPath.add((long) label);
+        }
+        this.count = estimate.count;
+        this.lowerBound = estimate.lowerBound;
+        this.upperBound = estimate.upperBound;
+        this.sampledNodes = estimate.sampledNodes;
+        this.exact = estimate.isExact();
+    }
+}
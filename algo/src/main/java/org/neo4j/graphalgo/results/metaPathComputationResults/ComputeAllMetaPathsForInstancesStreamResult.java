@@ -0,0 +1,22 @@
+package org.neo4j.graphalgo.results.metaPathComputationResults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ComputeAllMetaPathsForInstancesStreamResult {
+
+    public final long startNode;
+    public final long endNode;
+    public final List<Long> metaPath;
+    public final long count;
+
+    public ComputeAllMetaPathsForInstancesStreamResult(long startNode, long endNode, int[] metaPath, long count) {
+        this.startNode = startNode;
+        this.endNode = endNode;
+        this.metaPath = new ArrayList<>(metaPath.length);
+        for (int label : metaPath) {
+            this.metaPath.add((long) label);
+        }
+        this.count = count;
+    }
+}
@@ -0,0 +1,18 @@
+package org.neo4j.graphalgo.results.metaPathComputationResults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ComputeAllMetaPathsStreamResult {
+
+    public final List<Long> metaPath;
+    public final long count;
+
+    public ComputeAllMetaPathsStreamResult(int[] metaPath, long count) {
+        this.metaPath = new ArrayList<>(metaPath.length);
+        for (int label : metaPath) {
+            this.metaPath.add((long) label);
+        }
+        this.count = count;
+    }
+}
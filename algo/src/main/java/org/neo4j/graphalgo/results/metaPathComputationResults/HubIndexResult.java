@@ -0,0 +1,40 @@
+package org.neo4j.graphalgo.results.metaPathComputationResults;
+
+import org.neo4j.graphalgo.results.AbstractResultBuilder;
+
+public class HubIndexResult {
+
+    public final long loadMillis;
+    public final long computeMillis;
+    public final long hubs;
+    public final long recomputedHubs;
+    public final long reusedHubs;
+
+    private HubIndexResult(long loadMillis, long computeMillis, long hubs, long recomputedHubs, long reusedHubs) {
+        this.loadMillis = loadMillis;
+        this.computeMillis = computeMillis;
+        this.hubs = hubs;
+        this.recomputedHubs = recomputedHubs;
+        this.reusedHubs = reusedHubs;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder extends AbstractResultBuilder<HubIndexResult> {
+
+        private long hubs;
+        private long reusedHubs;
+
+        public Builder withHubs(long hubs, long reusedHubs) {
+            this.hubs = hubs;
+            this.reusedHubs = reusedHubs;
+            return this;
+        }
+
+        public HubIndexResult build() {
+            return new HubIndexResult(loadDuration, evalDuration, hubs, hubs - reusedHubs, reusedHubs);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.neo4j.graphalgo.results.metaPathComputationResults;
+
+import org.neo4j.graphalgo.results.AbstractResultBuilder;
+
+public class MetaPathSimilarityResult {
+
+    public final long loadMillis;
+    public final long computeMillis;
+    public final long writeMillis;
+    public final long nodes;
+    public final String writeProperty;
+
+    private MetaPathSimilarityResult(long loadMillis, long computeMillis, long writeMillis, long nodes, String writeProperty) {
+        this.loadMillis = loadMillis;
+        this.computeMillis = computeMillis;
+        this.writeMillis = writeMillis;
+        this.nodes = nodes;
+        this.writeProperty = writeProperty;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder extends AbstractResultBuilder<MetaPathSimilarityResult> {
+
+        private long nodes;
+        private String writeProperty;
+
+        public Builder withNodes(long nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder withWriteProperty(String writeProperty) {
+            this.writeProperty = writeProperty;
+            return this;
+        }
+
+        public MetaPathSimilarityResult build() {
+            return new MetaPathSimilarityResult(loadDuration, evalDuration, writeDuration, nodes, writeProperty);
+        }
+    }
+}
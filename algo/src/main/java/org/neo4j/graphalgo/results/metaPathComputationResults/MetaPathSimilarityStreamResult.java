@@ -0,0 +1,14 @@
+package org.neo4j.graphalgo.results.metaPathComputationResults;
+
+public class MetaPathSimilarityStreamResult {
+
+    public final long sourceNode;
+    public final long targetNode;
+    public final double score;
+
+    public MetaPathSimilarityStreamResult(long sourceNode, long targetNode, double score) {
+        this.sourceNode = sourceNode;
+        this.targetNode = targetNode;
+        this.score = score;
+    }
+}
@@ -1,5 +1,8 @@
 package org.neo4j.graphalgo.api;
 
+import org.neo4j.graphdb.Direction;
+
+import java.nio.IntBuffer;
 import java.util.Collection;
 import java.util.HashMap;
 
@@ -11,11 +14,23 @@ public interface ArrayGraphInterface {
 
     int[] getIncomingNodes(int nodeId);
 
+    /**
+     * iterate over all relationships of the node in the given direction, yielding the
+     * relationship type and the label of the neighbour without copying the adjacency
+     */
+    void forEachTypedRelationship(int nodeId, Direction direction, TypedRelationshipConsumer consumer);
+
     int getLabel(int nodeId);
 
-    Integer[] getLabels(int nodeId);
+    int[] getLabels(int nodeId);
+
+    /**
+     * all nodes whose label (see {@link #getLabel(int)}) is the given label, sorted by node id,
+     * as a read-only view from position 0 to its limit
+     */
+    IntBuffer getNodesWithLabel(int labelId);
 
-    int getEdgeLabel(Integer nodeId1, Integer nodeId2);
+    int getEdgeLabel(int nodeId1, int nodeId2);
 
     Collection<Integer> getAllEdgeLabels();
 
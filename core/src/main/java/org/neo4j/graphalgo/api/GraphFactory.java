@@ -22,6 +22,7 @@ import org.neo4j.graphalgo.core.*;
 import org.neo4j.graphalgo.core.huge.HugeIdMap;
 import org.neo4j.graphalgo.core.huge.HugeNodeImporter;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
@@ -31,9 +32,7 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.NullLog;
 
-import java.util.AbstractMap;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -78,18 +77,34 @@ public abstract class GraphFactory {
                 api,
                 progress,
                 dimensions.nodeCount(),
-                dimensions.labelId());
+                dimensions.labelId(),
+                dimensions.labelIds());
         return nodeImporter.call();
     }
 
-    protected AbstractMap.SimpleEntry<HashMap<Integer, ArrayList<LabelImporter.IdNameTuple>>, HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer>> loadLabelMap(IdMap mapping, boolean loadLabels) throws EntityNotFoundException {
+    protected NodeLabels loadLabelMap(IdMap mapping, boolean loadLabels, int batchSize) {
         if (!loadLabels){
             return null;
         }
-        final LabelImporter labelImporter = new LabelImporter(
-                api,
-                mapping);
-        return labelImporter.call();
+        int concurrency = setup.concurrency();
+        int actualBatchSize = ParallelUtil.adjustBatchSize(
+                mapping.size(),
+                concurrency,
+                batchSize);
+        Collection<LabelImporter> tasks = ParallelUtil.readParallel(
+                concurrency,
+                actualBatchSize,
+                mapping,
+                (offset, nodeIds) -> new LabelImporter(
+                        api,
+                        progress,
+                        actualBatchSize,
+                        offset,
+                        mapping,
+                        nodeIds),
+                threadPool);
+        progress.resetForRelationships();
+        return LabelImporter.merge(mapping.size(), tasks);
     }
 
     protected HugeIdMap loadHugeIdMap(AllocationTracker tracker) throws EntityNotFoundException {
@@ -99,7 +114,8 @@ public abstract class GraphFactory {
                 progress,
                 dimensions.hugeNodeCount(),
                 dimensions.allNodesCount(),
-                dimensions.labelId());
+                dimensions.labelId(),
+                dimensions.labelIds());
         return nodeImporter.call();
     }
 
@@ -83,6 +83,9 @@ public class GraphSetup {
     public final boolean loadAsUndirected;
     // Tell the factory to construct a label map
     public final boolean loadWithLabels;
+    // labels and relationship types kept by a reduced load, null means no reduction
+    public final String[] reductionLabels;
+    public final String[] reductionRelationshipTypes;
     /**
      * main ctor
      * @param startLabel the start label. null means any label.
@@ -101,6 +104,8 @@ public class GraphSetup {
      * @param batchSize batch size for parallel loading
      * @param accumulateWeights true if relationship-weights should be summed within the loader
      * @param sort
+     * @param reductionLabels the good labels of a reduced load, see {@link #loadReduced()}. null means no reduction.
+     * @param reductionRelationshipTypes the good relationship types of a reduced load. null means no reduction.
      */
     public GraphSetup(
             String startLabel,
@@ -124,7 +129,9 @@ public class GraphSetup {
             boolean loadAsUndirected,
             boolean loadWithLabels,
             AllocationTracker tracker,
-            String name) {
+            String name,
+            String[] reductionLabels,
+            String[] reductionRelationshipTypes) {
 
         this.startLabel = startLabel;
         this.endLabel = endLabel;
@@ -149,6 +156,8 @@ public class GraphSetup {
         this.loadWithLabels = loadWithLabels;
         this.tracker = tracker;
         this.name = name;
+        this.reductionLabels = reductionLabels;
+        this.reductionRelationshipTypes = reductionRelationshipTypes;
     }
 
     /**
@@ -176,6 +185,8 @@ public class GraphSetup {
         this.loadAsUndirected = false;
         this.loadWithLabels = false;
         this.tracker = AllocationTracker.EMPTY;
+        this.reductionLabels = null;
+        this.reductionRelationshipTypes = null;
     }
 
     /**
@@ -206,6 +217,18 @@ public class GraphSetup {
         this.loadAsUndirected = false;
         this.loadWithLabels = false;
         this.tracker = AllocationTracker.EMPTY;
+        this.reductionLabels = null;
+        this.reductionRelationshipTypes = null;
+    }
+
+    /**
+     * whether only nodes and relationships which would survive algo.graphReducer are loaded:
+     * relationships of the reduction relationship types and nodes which have a reduction label or
+     * a label adjacent to one of these relationship types. The start label and relationship type
+     * are ignored then.
+     */
+    public boolean loadReduced() {
+        return reductionLabels != null && reductionRelationshipTypes != null;
     }
 
     public boolean loadConcurrent() {
@@ -18,12 +18,18 @@
  */
 package org.neo4j.graphalgo.core;
 
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntHashSet;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.core.utils.StatementTask;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.storageengine.api.Token;
+
+import java.util.Arrays;
+import java.util.Iterator;
 
 public final class GraphDimensions extends StatementTask<GraphDimensions, RuntimeException> {
     private final GraphSetup setup;
@@ -32,6 +38,7 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
     private long allNodesCount;
     private long maxRelCount;
     private int labelId;
+    private int[] labelIds;
     private int[] relationId;
     private int weightId;
     private int relWeightId;
@@ -65,6 +72,14 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
         return labelId;
     }
 
+    /**
+     * the labels of a reduced load in ascending order, a node is loaded if it has one of them.
+     * null if the load is not reduced.
+     */
+    public int[] labelIds() {
+        return labelIds;
+    }
+
     public int[] relationId() {
         return relationId;
     }
@@ -109,6 +124,9 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
         nodePropId = setup.loadDefaultNodeProperty()
                 ? StatementConstants.NO_SUCH_PROPERTY_KEY
                 : readOp.propertyKeyGetForName(setup.nodePropertyName);
+        if (setup.loadReduced()) {
+            return applyReduction(readOp);
+        }
         nodeCount = readOp.countsForNode(labelId);
         allNodesCount = readOp.nodesGetCount();
         maxRelCount = Math.max(
@@ -117,4 +135,54 @@ public final class GraphDimensions extends StatementTask<GraphDimensions, Runtim
         );
         return this;
     }
+
+    /**
+     * resolve the good relationship types and the good labels, including the labels found at
+     * either end of a good relationship type in the counts store. The node count is the sum of
+     * the label counts, an upper bound for nodes with more than one of the labels.
+     */
+    private GraphDimensions applyReduction(final ReadOperations readOp) {
+        labelId = ReadOperations.ANY_LABEL;
+        IntArrayList relationIds = new IntArrayList();
+        for (String relationshipType : setup.reductionRelationshipTypes) {
+            int relId = readOp.relationshipTypeGetForName(relationshipType);
+            if (relId != StatementConstants.NO_SUCH_RELATIONSHIP_TYPE && !relationIds.contains(relId)) {
+                relationIds.add(relId);
+            }
+        }
+        relationId = relationIds.toArray();
+
+        IntHashSet goodLabels = new IntHashSet();
+        for (String label : setup.reductionLabels) {
+            int id = readOp.labelGetForName(label);
+            if (id != StatementConstants.NO_SUCH_LABEL) {
+                goodLabels.add(id);
+            }
+        }
+        Iterator<Token> labels = readOp.labelsGetAllTokens();
+        while (labels.hasNext()) {
+            int id = labels.next().id();
+            for (int relId : relationId) {
+                if (readOp.countsForRelationship(id, relId, ReadOperations.ANY_LABEL) > 0
+                        || readOp.countsForRelationship(ReadOperations.ANY_LABEL, relId, id) > 0) {
+                    goodLabels.add(id);
+                    break;
+                }
+            }
+        }
+        labelIds = goodLabels.toArray();
+        Arrays.sort(labelIds);
+
+        allNodesCount = readOp.nodesGetCount();
+        nodeCount = 0L;
+        for (int id : labelIds) {
+            nodeCount += readOp.countsForNode(id);
+        }
+        nodeCount = Math.min(nodeCount, allNodesCount);
+        maxRelCount = 0L;
+        for (int relId : relationId) {
+            maxRelCount += readOp.countsForRelationshipWithoutTxState(ReadOperations.ANY_LABEL, relId, ReadOperations.ANY_LABEL);
+        }
+        return this;
+    }
 }
@@ -83,6 +83,8 @@ public class GraphLoader {
     private boolean sort = false;
     private boolean loadAsUndirected = false;
     private boolean loadWithLabels = false;
+    private String[] reductionLabels = null;
+    private String[] reductionRelationshipTypes = null;
 
     /**
      * Creates a new serial GraphLoader.
@@ -215,6 +217,22 @@ public class GraphLoader {
         return withLabelAsProperty(true);
     }
 
+    /**
+     * Instructs the loader to load the graph as algo.graphReducer would leave it, without
+     * modifying the database: only relationships of the given types and only nodes which have
+     * one of the given labels or a label adjacent to a relationship of one of the given types.
+     * Replaces any label or relationship type filter.
+     *
+     * @param goodLabels the labels to keep, may be empty
+     * @param goodRelationshipTypes the relationship types to keep, may be empty
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withReduction(String[] goodLabels, String[] goodRelationshipTypes) {
+        this.reductionLabels = Objects.requireNonNull(goodLabels);
+        this.reductionRelationshipTypes = Objects.requireNonNull(goodRelationshipTypes);
+        return this;
+    }
+
     public GraphLoader withName(String name) {
         this.name = name;
         return this;
@@ -530,7 +548,9 @@ public class GraphLoader {
                 loadAsUndirected,
                 loadWithLabels,
                 tracker,
-                name);
+                name,
+                reductionLabels,
+                reductionRelationshipTypes);
 
         try {
             return (GraphFactory) constructor.invoke(api, setup);
@@ -584,11 +604,19 @@ public class GraphLoader {
     }
 
     public GraphLoader init(Log log, String label, String relationship, ProcedureConfiguration config) {
-        return withLog(log)
+        withLog(log)
                 .withName(config.getGraphName(null))
                 .withOptionalLabel(label).withOptionalRelationshipType(relationship)
                 .withConcurrency(config.getConcurrency())
                 .withBatchSize(config.getBatchSize())
                 .withParams(config.getParams());
+        if (config.hasReduction()) {
+            String[] goodLabels = config.getStrings(ProcedureConstants.GOOD_LABELS_PARAM);
+            String[] goodEdgeTypes = config.getStrings(ProcedureConstants.GOOD_EDGE_TYPES_PARAM);
+            withReduction(
+                    goodLabels == null ? new String[0] : goodLabels,
+                    goodEdgeTypes == null ? new String[0] : goodEdgeTypes);
+        }
+        return this;
     }
 }
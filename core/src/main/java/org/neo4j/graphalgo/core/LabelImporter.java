@@ -1,6 +1,8 @@
 package org.neo4j.graphalgo.core;
 
-import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveIntIterable;
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.StatementTask;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.Statement;
@@ -8,72 +10,122 @@ import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.storageengine.api.Token;
 
-import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 
-public class LabelImporter extends StatementTask<AbstractMap.SimpleEntry<HashMap<Integer, ArrayList<LabelImporter.IdNameTuple>>, HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer>>, EntityNotFoundException> {
+/**
+ * Imports the labels of one batch of nodes. The batches are
+ * concatenated into {@link NodeLabels} by {@link #merge(int, Collection)}.
+ */
+public class LabelImporter extends StatementTask<Void, EntityNotFoundException> {
+    private final ImportProgress progress;
     private final IdMap mapping;
+    private final PrimitiveIntIterable nodes;
+    private final int nodeOffset;
+    private final int nodeSize;
+
+    private int[] labelOffsets;
+    private int[] labelIds;
+    private int labelCount;
+    private String[] tokenNames;
 
     public LabelImporter(
             GraphDatabaseAPI api,
-            IdMap mapping) {
+            ImportProgress progress,
+            int batchSize,
+            int nodeOffset,
+            IdMap mapping,
+            PrimitiveIntIterable nodes) {
         super(api);
+        this.progress = progress;
         this.mapping = mapping;
+        this.nodes = nodes;
+        this.nodeOffset = nodeOffset;
+        this.nodeSize = Math.min(batchSize, mapping.size() - nodeOffset);
     }
 
     @Override
-    public AbstractMap.SimpleEntry<HashMap<Integer, ArrayList<IdNameTuple>>, HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer>> apply(final Statement statement) throws EntityNotFoundException {
-        final ReadOperations readOp = statement.readOperations();
-        Iterator<Token> labelTokens = readOp.labelsGetAllTokens();
-        PrimitiveLongIterator relationships = readOp.relationshipsGetAll();
+    public String threadName() {
+        return String.format(
+                "[Heavy] LabelImport (%d..%d)",
+                nodeOffset,
+                nodeOffset + nodeSize);
+    }
 
-        HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer> nodesToLabelMap = new HashMap<>();
-        while (relationships.hasNext()) {
-            long relationshipId = relationships.next();
-            readOp.relationshipVisit(relationshipId, (relationship, typeId, startNodeId, endNodeId) -> createEdgeTypeEntry(typeId, startNodeId, endNodeId, nodesToLabelMap));
+    @Override
+    public Void apply(final Statement statement) throws EntityNotFoundException {
+        final ReadOperations readOp = statement.readOperations();
+        labelOffsets = new int[nodeSize];
+        labelIds = new int[nodeSize];
+        int offset = 0;
+        PrimitiveIntIterator iterator = nodes.iterator();
+        while (iterator.hasNext()) {
+            final int nodeId = iterator.next();
+            final int localId = nodeId - nodeOffset;
+            labelOffsets[localId] = offset;
+            PrimitiveIntIterator labels = readOp.nodeGetLabels(mapping.toOriginalNodeId(nodeId));
+            while (labels.hasNext()) {
+                if (offset == labelIds.length) {
+                    labelIds = Arrays.copyOf(labelIds, labelIds.length + (labelIds.length >> 1) + 1);
+                }
+                labelIds[offset++] = labels.next();
+            }
+            Arrays.sort(labelIds, labelOffsets[localId], offset);
+            progress.nodeProgress();
         }
+        labelCount = offset;
+        tokenNames = tokenNames(readOp);
+        return null;
+    }
 
-        HashMap<Integer, ArrayList<IdNameTuple>> idLabelMap = new HashMap<>();
-        for (int nodeId = 0; nodeId < readOp.nodesGetCount(); nodeId++) {
-            idLabelMap.put(nodeId, new ArrayList<>());
+    /**
+     * concatenate the label batches of all importers, ordered by their node offset.
+     * Batches which were never started (e.g. abandoned by a saturated pool) are
+     * imported on the calling thread.
+     */
+    public static NodeLabels merge(int nodeCount, Collection<LabelImporter> importers) {
+        int totalLabels = 0;
+        String[] tokenNames = new String[0];
+        for (LabelImporter importer : importers) {
+            if (importer.tokenNames == null) {
+                importer.run();
+            }
+            totalLabels += importer.labelCount;
+            if (importer.tokenNames.length > tokenNames.length) {
+                tokenNames = importer.tokenNames;
+            }
         }
-        while (labelTokens.hasNext()) {
-            Token token = labelTokens.next();
-            PrimitiveLongIterator nodesWithThisLabel = readOp.nodesGetForLabel(token.id());
-            IdNameTuple tuple = new IdNameTuple(token.id(), token.name());
-            while (nodesWithThisLabel.hasNext()) {
-                Integer nodeId = mapping.toMappedNodeId(nodesWithThisLabel.next());
-                idLabelMap.get(nodeId).add(tuple);
+        final int[] labelOffsets = new int[nodeCount + 1];
+        final int[] labelIds = new int[totalLabels];
+        int offset = 0;
+        for (LabelImporter importer : importers) {
+            for (int i = 0; i < importer.nodeSize; i++) {
+                labelOffsets[importer.nodeOffset + i] = importer.labelOffsets[i] + offset;
             }
+            System.arraycopy(importer.labelIds, 0, labelIds, offset, importer.labelCount);
+            offset += importer.labelCount;
+            importer.labelOffsets = null;
+            importer.labelIds = null;
         }
-
-        return new AbstractMap.SimpleEntry<>(idLabelMap, nodesToLabelMap);
-    }
-
-    private boolean createEdgeTypeEntry(int typeId, long startNodeId, long endNodeId, HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer> nodesToLabelMap) {
-        AbstractMap.SimpleEntry<Integer, Integer> pair = new AbstractMap.SimpleEntry<>(mapping.toMappedNodeId(startNodeId), mapping.toMappedNodeId(endNodeId));
-        nodesToLabelMap.put(pair, typeId);
-        return true;
+        labelOffsets[nodeCount] = offset;
+        return new NodeLabels(labelOffsets, labelIds, tokenNames);
     }
 
-    public class IdNameTuple {
-        private int id;
-        private String name;
-
-        public IdNameTuple(int id, String name) {
-            this.id = id;
-            this.name = name;
-        }
-
-        public String getName() {
-            return name;
+    private static String[] tokenNames(ReadOperations readOp) {
+        Iterator<Token> labelTokens = readOp.labelsGetAllTokens();
+        ArrayList<Token> tokens = new ArrayList<>();
+        int maxId = -1;
+        while (labelTokens.hasNext()) {
+            Token token = labelTokens.next();
+            tokens.add(token);
+            maxId = Math.max(maxId, token.id());
         }
-
-        public int getId() {
-            return id;
+        String[] names = new String[maxId + 1];
+        for (Token token : tokens) {
+            names[token.id()] = token.name();
         }
+        return names;
     }
-
 }
@@ -31,22 +31,38 @@ public final class NodeImporter extends StatementTask<IdMap, EntityNotFoundExcep
     private final ImportProgress progress;
     private final int nodeCount;
     private final int labelId;
+    private final int[] labelIds;
 
     public NodeImporter(
             GraphDatabaseAPI api,
             ImportProgress progress,
             int nodeCount,
-            int labelId) {
+            int labelId,
+            int[] labelIds) {
         super(api);
         this.progress = progress;
         this.nodeCount = nodeCount;
         this.labelId = labelId;
+        this.labelIds = labelIds;
     }
 
     @Override
     public IdMap apply(final Statement statement) throws EntityNotFoundException {
         final IdMap mapping = new IdMap(nodeCount);
         final ReadOperations readOp = statement.readOperations();
+        if (labelIds != null) {
+            // a node with more than one of the labels is mapped once
+            for (int id : labelIds) {
+                final PrimitiveLongIterator nodeIds = readOp.nodesGetForLabel(id);
+                while (nodeIds.hasNext()) {
+                    mapping.mapOrGet(nodeIds.next());
+                    progress.nodeProgress();
+                }
+            }
+            mapping.buildMappedIds();
+            progress.resetForRelationships();
+            return mapping;
+        }
         final PrimitiveLongIterator nodeIds = labelId == ReadOperations.ANY_LABEL
                 ? readOp.nodesGetAll()
                 : readOp.nodesGetForLabel(labelId);
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+
+/**
+ * Compact label storage for all nodes of a graph.
+ * <p>
+ * The label ids of node {@code n} are stored in {@code labelIds[labelOffsets[n]]}
+ * up to (exclusive) {@code labelIds[labelOffsets[n + 1]]}, sorted ascending. If every
+ * node has exactly one label the offsets are dropped and {@code labelIds[n]} is
+ * the label of node {@code n}. Label names are kept once in a token table indexed
+ * by label id.
+ * <p>
+ * Additionally the nodes are partitioned by their first label into one sorted
+ * {@code int[]} of node ids, so the nodes of a label can be looked up without
+ * scanning the graph. They are handed out as read-only views of that array.
+ */
+public final class NodeLabels {
+
+    public static final int NO_LABEL = -1;
+
+    /**
+     * the read-only view of a label without nodes
+     */
+    public static final IntBuffer NO_NODES = IntBuffer.allocate(0).asReadOnlyBuffer();
+
+    private static final int[] EMPTY = new int[0];
+
+    private final int[] labelOffsets;
+    private final int[] labelIds;
+    private final String[] tokenNames;
+    private final Collection<Integer> allLabels;
+    private final int[] nodeOffsets;
+    private final int[] nodesByLabel;
+
+    /**
+     * @param labelOffsets offsets into labelIds, one entry per node plus a trailing end offset
+     * @param labelIds     concatenated label ids of all nodes
+     * @param tokenNames   label names indexed by label id
+     */
+    public NodeLabels(int[] labelOffsets, int[] labelIds, String[] tokenNames) {
+        final int nodeCount = labelOffsets.length - 1;
+        this.labelOffsets = labelIds.length == nodeCount && isSingleLabeled(labelOffsets) ? null : labelOffsets;
+        this.labelIds = labelIds;
+        this.tokenNames = tokenNames;
+        this.allLabels = collectLabels(labelIds, tokenNames.length);
+        this.nodeOffsets = new int[tokenNames.length + 1];
+        this.nodesByLabel = partitionByLabel(nodeCount);
+    }
+
+    /**
+     * get the first (lowest) label id of a node or {@link #NO_LABEL}
+     */
+    public int label(int nodeId) {
+        if (labelOffsets == null) {
+            return labelIds[nodeId];
+        }
+        final int offset = labelOffsets[nodeId];
+        return offset < labelOffsets[nodeId + 1] ? labelIds[offset] : NO_LABEL;
+    }
+
+    /**
+     * get all label ids of a node in ascending order
+     */
+    public int[] labels(int nodeId) {
+        if (labelOffsets == null) {
+            return new int[]{labelIds[nodeId]};
+        }
+        final int from = labelOffsets[nodeId];
+        final int to = labelOffsets[nodeId + 1];
+        if (from == to) {
+            return EMPTY;
+        }
+        final int[] labels = new int[to - from];
+        System.arraycopy(labelIds, from, labels, 0, labels.length);
+        return labels;
+    }
+
+    /**
+     * get the ids of all nodes whose first label is the given label, sorted ascending, as a
+     * read-only view from position 0 to its limit, nothing is copied
+     */
+    public IntBuffer nodesWithLabel(int labelId) {
+        if (labelId < 0 || labelId >= tokenNames.length) {
+            return NO_NODES;
+        }
+        final int from = nodeOffsets[labelId];
+        return IntBuffer.wrap(nodesByLabel, from, nodeOffsets[labelId + 1] - from).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * count of nodes whose first label is the given label
+     */
+    public int nodeCount(int labelId) {
+        if (labelId < 0 || labelId >= tokenNames.length) {
+            return 0;
+        }
+        return nodeOffsets[labelId + 1] - nodeOffsets[labelId];
+    }
+
+    /**
+     * count of labels of a node
+     */
+    public int labelCount(int nodeId) {
+        return labelOffsets == null ? 1 : labelOffsets[nodeId + 1] - labelOffsets[nodeId];
+    }
+
+    /**
+     * distinct label ids which are assigned to at least one node
+     */
+    public Collection<Integer> allLabels() {
+        return allLabels;
+    }
+
+    /**
+     * name of the label with the given id or null if unknown
+     */
+    public String name(int labelId) {
+        return labelId >= 0 && labelId < tokenNames.length ? tokenNames[labelId] : null;
+    }
+
+    /**
+     * mapping of all assigned label ids to their names
+     */
+    public HashMap<Integer, String> labelIdToName() {
+        HashMap<Integer, String> labelIdToName = new HashMap<>();
+        for (int labelId : allLabels) {
+            labelIdToName.put(labelId, tokenNames[labelId]);
+        }
+        return labelIdToName;
+    }
+
+    // counting sort of all node ids by their first label
+    private int[] partitionByLabel(int nodeCount) {
+        int labeledNodes = 0;
+        for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+            final int label = label(nodeId);
+            if (label != NO_LABEL) {
+                nodeOffsets[label + 1]++;
+                labeledNodes++;
+            }
+        }
+        for (int labelId = 0; labelId < tokenNames.length; labelId++) {
+            nodeOffsets[labelId + 1] += nodeOffsets[labelId];
+        }
+        final int[] nodes = new int[labeledNodes];
+        final int[] insertAt = Arrays.copyOf(nodeOffsets, tokenNames.length);
+        for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+            final int label = label(nodeId);
+            if (label != NO_LABEL) {
+                nodes[insertAt[label]++] = nodeId;
+            }
+        }
+        return nodes;
+    }
+
+    private static boolean isSingleLabeled(int[] labelOffsets) {
+        for (int i = 1; i < labelOffsets.length; i++) {
+            if (labelOffsets[i] - labelOffsets[i - 1] != 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Collection<Integer> collectLabels(int[] labelIds, int tokenCount) {
+        final boolean[] seen = new boolean[tokenCount];
+        for (int labelId : labelIds) {
+            seen[labelId] = true;
+        }
+        final ArrayList<Integer> labels = new ArrayList<>();
+        for (int labelId = 0; labelId < tokenCount; labelId++) {
+            if (seen[labelId]) {
+                labels.add(labelId);
+            }
+        }
+        return Collections.unmodifiableList(labels);
+    }
+}
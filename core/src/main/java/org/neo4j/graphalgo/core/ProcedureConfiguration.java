@@ -362,6 +362,35 @@ public class ProcedureConfiguration {
         return Optional.empty();
     }
 
+    /**
+     * return a list of strings, given either as list or as single string
+     *
+     * @param key the key
+     * @return the strings or null if the key is not found
+     */
+    @SuppressWarnings("unchecked")
+    public String[] getStrings(String key) {
+        Object value = config.get(key);
+        if (null == value) {
+            return null;
+        }
+        if (value instanceof String) {
+            return new String[]{(String) value};
+        }
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("The value of " + key + " must be a list of strings");
+        }
+        return ((List<String>) value).toArray(new String[0]);
+    }
+
+    /**
+     * return whether the graph is loaded reduced to good labels and edge types
+     */
+    public boolean hasReduction() {
+        return config.containsKey(ProcedureConstants.GOOD_LABELS_PARAM)
+                || config.containsKey(ProcedureConstants.GOOD_EDGE_TYPES_PARAM);
+    }
+
     public Object get(String key) {
         return config.get(key);
     }
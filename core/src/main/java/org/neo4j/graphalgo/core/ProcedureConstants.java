@@ -61,4 +61,8 @@ public class ProcedureConstants {
 
     public static final String CONCURRENCY = "concurrency";
 
+    public static final String GOOD_LABELS_PARAM = "goodLabels";
+
+    public static final String GOOD_EDGE_TYPES_PARAM = "goodEdgeTypes";
+
 }
@@ -27,8 +27,11 @@ import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
 
 import static org.neo4j.graphalgo.core.utils.ArrayUtil.*;
 
@@ -59,6 +62,14 @@ class AdjacencyMatrix {
      * matrix nodeId x [incoming edge-relationIds..]
      */
     private final int[][] incoming;
+    /**
+     * matrix nodeId x [outgoing edge-typeIds..], aligned with {@link #outgoing}
+     */
+    private final int[][] outgoingTypes;
+    /**
+     * matrix nodeId x [incoming edge-typeIds..], aligned with {@link #incoming}
+     */
+    private final int[][] incomingTypes;
 
     final boolean isBoth;
     private final IdCombiner inCombiner;
@@ -70,11 +81,21 @@ class AdjacencyMatrix {
         this(nodeCount, true, true, sorted);
     }
 
+    AdjacencyMatrix(int nodeCount, boolean sorted, boolean withTypes) {
+        this(nodeCount, true, true, sorted, withTypes);
+    }
+
     AdjacencyMatrix(int nodeCount, boolean withIncoming, boolean withOutgoing, boolean sorted) {
+        this(nodeCount, withIncoming, withOutgoing, sorted, false);
+    }
+
+    AdjacencyMatrix(int nodeCount, boolean withIncoming, boolean withOutgoing, boolean sorted, boolean withTypes) {
         this.outOffsets = withOutgoing ? new int[nodeCount] : null;
         this.inOffsets = withIncoming ? new int[nodeCount] : null;
         this.outgoing = withOutgoing ? new int[nodeCount][] : null;
         this.incoming = withIncoming ? new int[nodeCount][] : null;
+        this.outgoingTypes = withOutgoing && withTypes ? new int[nodeCount][] : null;
+        this.incomingTypes = withIncoming && withTypes ? new int[nodeCount][] : null;
         this.sorted = sorted;
         if (withOutgoing) {
             Arrays.fill(outgoing, EMPTY_INTS);
@@ -82,6 +103,12 @@ class AdjacencyMatrix {
         if (withIncoming) {
             Arrays.fill(incoming, EMPTY_INTS);
         }
+        if (outgoingTypes != null) {
+            Arrays.fill(outgoingTypes, EMPTY_INTS);
+        }
+        if (incomingTypes != null) {
+            Arrays.fill(incomingTypes, EMPTY_INTS);
+        }
         if (withOutgoing && withIncoming) {
             outCombiner = RawValues.BOTH;
             inCombiner = RawValues.BOTH;
@@ -124,6 +151,9 @@ class AdjacencyMatrix {
     public void armOut(int sourceNodeId, int degree) {
         if (degree > 0) {
             outgoing[sourceNodeId] = Arrays.copyOf(outgoing[sourceNodeId], degree);
+            if (outgoingTypes != null) {
+                outgoingTypes[sourceNodeId] = Arrays.copyOf(outgoingTypes[sourceNodeId], degree);
+            }
         }
     }
 
@@ -133,6 +163,9 @@ class AdjacencyMatrix {
     public void armIn(int targetNodeId, int degree) {
         if (degree > 0) {
             incoming[targetNodeId] = Arrays.copyOf(incoming[targetNodeId], degree);
+            if (incomingTypes != null) {
+                incomingTypes[targetNodeId] = Arrays.copyOf(incomingTypes[targetNodeId], degree);
+            }
         }
     }
 
@@ -141,6 +174,9 @@ class AdjacencyMatrix {
      */
     public void growOut(int sourceNodeId, int length) {
         outgoing[sourceNodeId] = ArrayUtil.grow(outgoing[sourceNodeId], length);
+        if (outgoingTypes != null) {
+            outgoingTypes[sourceNodeId] = Arrays.copyOf(outgoingTypes[sourceNodeId], outgoing[sourceNodeId].length);
+        }
     }
 
     /**
@@ -148,6 +184,9 @@ class AdjacencyMatrix {
      */
     public void growIn(int targetNodeId, int length) {
         incoming[targetNodeId] = ArrayUtil.grow(incoming[targetNodeId], length);
+        if (incomingTypes != null) {
+            incomingTypes[targetNodeId] = Arrays.copyOf(incomingTypes[targetNodeId], incoming[targetNodeId].length);
+        }
     }
 
     /**
@@ -163,6 +202,15 @@ class AdjacencyMatrix {
         outOffsets[sourceNodeId] = nextDegree;
     }
 
+    /**
+     * add outgoing relation together with its relationship type
+     */
+    public void addOutgoing(int sourceNodeId, int targetNodeId, int typeId) {
+        final int degree = outOffsets[sourceNodeId];
+        addOutgoing(sourceNodeId, targetNodeId);
+        outgoingTypes[sourceNodeId][degree] = typeId;
+    }
+
     /**
      * checks for outgoing target node
      */
@@ -206,6 +254,83 @@ class AdjacencyMatrix {
         inOffsets[targetNodeId] = nextDegree;
     }
 
+    /**
+     * add incoming relation together with its relationship type
+     */
+    public void addIncoming(int sourceNodeId, int targetNodeId, int typeId) {
+        final int degree = inOffsets[targetNodeId];
+        addIncoming(sourceNodeId, targetNodeId);
+        incomingTypes[targetNodeId][degree] = typeId;
+    }
+
+    /**
+     * whether relationship types are stored alongside the adjacency
+     */
+    public boolean hasTypes() {
+        return outgoingTypes != null || incomingTypes != null;
+    }
+
+    /**
+     * get the relationship type of the first edge between both nodes, regardless
+     * of its direction. Returns -1 if no such edge exists or types haven't been loaded.
+     */
+    public int edgeType(int nodeId, int otherNodeId) {
+        if (outgoingTypes != null) {
+            int index = indexOf(outgoing[nodeId], outOffsets[nodeId], otherNodeId);
+            if (index != -1) {
+                return outgoingTypes[nodeId][index];
+            }
+        }
+        if (incomingTypes != null) {
+            int index = indexOf(incoming[nodeId], inOffsets[nodeId], otherNodeId);
+            if (index != -1) {
+                return incomingTypes[nodeId][index];
+            }
+        } else if (outgoingTypes != null) {
+            int index = indexOf(outgoing[otherNodeId], outOffsets[otherNodeId], nodeId);
+            if (index != -1) {
+                return outgoingTypes[otherNodeId][index];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * collect all distinct relationship types stored in the matrix
+     */
+    public Set<Integer> edgeTypes() {
+        final Set<Integer> types = new HashSet<>();
+        collectTypes(outgoingTypes, outOffsets, types);
+        collectTypes(incomingTypes, inOffsets, types);
+        return types;
+    }
+
+    private static void collectTypes(int[][] typeMatrix, int[] offsets, Set<Integer> types) {
+        if (typeMatrix == null) {
+            return;
+        }
+        for (int node = 0; node < typeMatrix.length; node++) {
+            final int degree = offsets[node];
+            final int[] nodeTypes = typeMatrix[node];
+            for (int i = 0; i < degree; i++) {
+                types.add(nodeTypes[i]);
+            }
+        }
+    }
+
+    private int indexOf(int[] rels, int degree, int targetNodeId) {
+        if (sorted && degree > LINEAR_SEARCH_LIMIT) {
+            int index = Arrays.binarySearch(rels, 0, degree, targetNodeId);
+            return index < 0 ? -1 : index;
+        }
+        for (int i = 0; i < degree; i++) {
+            if (rels[i] == targetNodeId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * get the degree for node / direction
      *
@@ -277,6 +402,25 @@ class AdjacencyMatrix {
         }
     }
 
+    /**
+     * iterate over each edge at the given node together with its type and the label of the target node
+     */
+    public void forEachTyped(int nodeId, Direction direction, IntUnaryOperator labels, TypedRelationshipConsumer consumer) {
+        switch (direction) {
+            case OUTGOING:
+                forEachTyped(nodeId, outOffsets, outgoing, outgoingTypes, labels, consumer);
+                break;
+            case INCOMING:
+                forEachTyped(nodeId, inOffsets, incoming, incomingTypes, labels, consumer);
+                break;
+            default:
+                if (forEachTyped(nodeId, inOffsets, incoming, incomingTypes, labels, consumer)) {
+                    forEachTyped(nodeId, outOffsets, outgoing, outgoingTypes, labels, consumer);
+                }
+                break;
+        }
+    }
+
     public int capacity() {
         return outOffsets != null
                 ? outOffsets.length
@@ -289,10 +433,16 @@ class AdjacencyMatrix {
         if (other.outgoing != null) {
             System.arraycopy(other.outgoing, 0, outgoing, offset, length);
             System.arraycopy(other.outOffsets, 0, outOffsets, offset, length);
+            if (other.outgoingTypes != null && outgoingTypes != null) {
+                System.arraycopy(other.outgoingTypes, 0, outgoingTypes, offset, length);
+            }
         }
         if (other.incoming != null) {
             System.arraycopy(other.incoming, 0, incoming, offset, length);
             System.arraycopy(other.inOffsets, 0, inOffsets, offset, length);
+            if (other.incomingTypes != null && incomingTypes != null) {
+                System.arraycopy(other.incomingTypes, 0, incomingTypes, offset, length);
+            }
         }
     }
 
@@ -321,6 +471,23 @@ class AdjacencyMatrix {
         }
     }
 
+    private boolean forEachTyped(int nodeId, int[] offsets, int[][] adjacency, int[][] types, IntUnaryOperator labels, TypedRelationshipConsumer consumer) {
+        if (offsets == null) {
+            return true;
+        }
+        final int degree = offsets[nodeId];
+        final int[] neighbours = adjacency[nodeId];
+        final int[] neighbourTypes = types != null ? types[nodeId] : null;
+        for (int i = 0; i < degree; i++) {
+            final int targetNodeId = neighbours[i];
+            final int typeId = neighbourTypes != null ? neighbourTypes[i] : -1;
+            if (!consumer.accept(nodeId, targetNodeId, typeId, labels.applyAsInt(targetNodeId))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public NodeIterator nodesWithRelationships(Direction direction) {
         if (direction == Direction.OUTGOING) {
             return new DegreeCheckingNodeIterator(outOffsets);
@@ -330,11 +497,34 @@ class AdjacencyMatrix {
     }
 
     public void sortIncoming(int node) {
-        Arrays.sort(incoming[node]);
+        if (incomingTypes != null) {
+            sortWithTypes(incoming[node], incomingTypes[node]);
+        } else {
+            Arrays.sort(incoming[node]);
+        }
     }
 
     public void sortOutgoing(int node) {
-        Arrays.sort(outgoing[node]);
+        if (outgoingTypes != null) {
+            sortWithTypes(outgoing[node], outgoingTypes[node]);
+        } else {
+            Arrays.sort(outgoing[node]);
+        }
+    }
+
+    /**
+     * sorts the adjacency by target node id and keeps the type of every slot in line
+     */
+    private static void sortWithTypes(int[] rels, int[] types) {
+        final long[] combined = new long[rels.length];
+        for (int i = 0; i < rels.length; i++) {
+            combined[i] = RawValues.combineIntInt(rels[i], types[i]);
+        }
+        Arrays.sort(combined);
+        for (int i = 0; i < combined.length; i++) {
+            rels[i] = RawValues.getHead(combined[i]);
+            types[i] = RawValues.getTail(combined[i]);
+        }
     }
 
     public void sortAll(ExecutorService pool, int concurrency) {
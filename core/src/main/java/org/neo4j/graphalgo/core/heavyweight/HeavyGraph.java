@@ -22,13 +22,14 @@ import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.IdMap;
-import org.neo4j.graphalgo.core.LabelImporter;
+import org.neo4j.graphalgo.core.NodeLabels;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphdb.Direction;
 
+import java.nio.IntBuffer;
 import java.util.*;
 import java.util.function.IntPredicate;
-import java.util.stream.Collectors;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Heavy weighted graph built of an adjacency matrix.
@@ -45,10 +46,9 @@ public class HeavyGraph implements Graph, NodeWeights, NodeProperties, Relations
     private WeightMapping nodeWeights;
     private WeightMapping nodeProperties;
     private boolean canRelease = true;
-    // Watch Out! There is no default value. If The nodeId does not exist as key, null will be returned.
-    private AbstractMap.SimpleEntry<HashMap<Integer, ArrayList<LabelImporter.IdNameTuple>>, HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer>> labelMap;
-    private Collection<Integer> labels = null;
+    private NodeLabels labelMap;
     private Collection<Integer> edgeLabels = null;
+    private final IntUnaryOperator labelLookup = this::getLabel;
 
 
     HeavyGraph(
@@ -70,7 +70,7 @@ public class HeavyGraph implements Graph, NodeWeights, NodeProperties, Relations
             final WeightMapping relationshipWeights,
             final WeightMapping nodeWeights,
             final WeightMapping nodeProperties,
-            final AbstractMap.SimpleEntry<HashMap<Integer, ArrayList<LabelImporter.IdNameTuple>>, HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer>> labelMap) {
+            final NodeLabels labelMap) {
         this.nodeIdMap = nodeIdMap;
         this.container = container;
         this.relationshipWeights = relationshipWeights;
@@ -84,60 +84,47 @@ public class HeavyGraph implements Graph, NodeWeights, NodeProperties, Relations
         if (labelMap == null) {
             return -1;
         }
-        return (int) labelMap.getKey().get(nodeId).get(0).getId();
+        return labelMap.label(nodeId);
     }
 
     @Override
-    public Integer[] getLabels(int nodeId){
+    public int[] getLabels(int nodeId){
         if (labelMap == null){
-            return new Integer[0];
+            return new int[0];
         }
-        return labelMap.getKey().get(nodeId).stream().map(tuple -> tuple.getId()).toArray(Integer[]::new);
+        return labelMap.labels(nodeId);
+    }
+
+    @Override
+    public IntBuffer getNodesWithLabel(int labelId) {
+        if (labelMap == null) {
+            return NodeLabels.NO_NODES;
+        }
+        return labelMap.nodesWithLabel(labelId);
     }
 
     @Override
     public Collection<Integer> getAllLabels()
     {
-        if(labels == null) {
-            labels = new HashSet<>();
-            for (ArrayList<LabelImporter.IdNameTuple> labelTuples : labelMap.getKey().values()) {
-                for (LabelImporter.IdNameTuple pair : labelTuples) {
-                    labels.add(pair.getId());
-                }
-            }
-        }
-        return labels;
+        return labelMap.allLabels();
     }
 
     @Override
     public Collection<Integer> getAllEdgeLabels()
     {
-        if(edgeLabels == null) edgeLabels = labelMap.getValue().values().stream().collect(Collectors.toSet());
+        if(edgeLabels == null) edgeLabels = container.edgeTypes();
         return edgeLabels;
     }
 
     @Override
     public HashMap<Integer, String> getLabelIdToNameDict()
     {
-        HashMap<Integer, String> labelIdToNameDict = new HashMap<>();
-        for (ArrayList<LabelImporter.IdNameTuple> labels : labelMap.getKey().values()) {
-            for (LabelImporter.IdNameTuple pair : labels) {
-                labelIdToNameDict.put(pair.getId(), pair.getName());
-            }
-        }
-
-        return labelIdToNameDict;
+        return labelMap.labelIdToName();
     }
 
     @Override
-    public int getEdgeLabel(Integer nodeId1, Integer nodeId2) {
-        AbstractMap.SimpleEntry<Integer, Integer> key = new AbstractMap.SimpleEntry<>(nodeId1, nodeId2);
-        Integer label = labelMap.getValue().get(key);
-        if (label == null) {
-            key = new AbstractMap.SimpleEntry<>(nodeId2, nodeId1);
-            label = labelMap.getValue().get(key);
-        }
-        return label;
+    public int getEdgeLabel(int nodeId1, int nodeId2) {
+        return container.edgeType(nodeId1, nodeId2);
     }
 
     @Override
@@ -149,6 +136,11 @@ public class HeavyGraph implements Graph, NodeWeights, NodeProperties, Relations
     @Override
     public int[] getIncomingNodes(int nodeId) {return container.getIncomingNodes(nodeId);}
 
+    @Override
+    public void forEachTypedRelationship(int nodeId, Direction direction, TypedRelationshipConsumer consumer) {
+        container.forEachTyped(nodeId, direction, labelLookup, consumer);
+    }
+
     @Override
     public long nodeCount() {
         return nodeIdMap.size();
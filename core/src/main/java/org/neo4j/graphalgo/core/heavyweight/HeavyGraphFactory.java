@@ -23,16 +23,13 @@ import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.IdMap;
-import org.neo4j.graphalgo.core.LabelImporter;
+import org.neo4j.graphalgo.core.NodeLabels;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
-import java.util.AbstractMap;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.function.Supplier;
 
 /**
@@ -64,7 +61,7 @@ public class HeavyGraphFactory extends GraphFactory {
 
         final IdMap idMap = loadIdMap();
 
-        final AbstractMap.SimpleEntry<HashMap<Integer, ArrayList<LabelImporter.IdNameTuple>>, HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer>> labelMap = loadLabelMap(idMap, setup.loadWithLabels);
+        final NodeLabels labelMap = loadLabelMap(idMap, setup.loadWithLabels, batchSize);
 
 
         final Supplier<WeightMapping> relWeights = () -> newWeightMap(
@@ -78,7 +75,7 @@ public class HeavyGraphFactory extends GraphFactory {
                 setup.nodeDefaultPropertyValue);
 
         int concurrency = setup.concurrency();
-        final int nodeCount = dimensions.nodeCount();
+        final int nodeCount = idMap.size();
         int actualBatchSize = ParallelUtil.adjustBatchSize(
                 nodeCount,
                 concurrency,
@@ -122,14 +119,14 @@ public class HeavyGraphFactory extends GraphFactory {
             final Supplier<WeightMapping> relWeightsSupplier,
             final Supplier<WeightMapping> nodeWeightsSupplier,
             final Supplier<WeightMapping> nodePropsSupplier,
-            final AbstractMap.SimpleEntry<HashMap<Integer, ArrayList<LabelImporter.IdNameTuple>>, HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer>> labelMap,
+            final NodeLabels labelMap,
             Collection<RelationshipImporter> tasks) {
         if (tasks.size() == 1) {
             RelationshipImporter importer = tasks.iterator().next();
             return importer.toGraph(idMap, labelMap);
         }
 
-        final AdjacencyMatrix matrix = new AdjacencyMatrix(nodeCount, setup.sort);
+        final AdjacencyMatrix matrix = new AdjacencyMatrix(nodeCount, setup.sort, setup.loadWithLabels);
         final WeightMapping relWeights = relWeightsSupplier.get();
         final WeightMapping nodeWeights = nodeWeightsSupplier.get();
         final WeightMapping nodeProps = nodePropsSupplier.get();
@@ -27,7 +27,7 @@ import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.IdMap;
-import org.neo4j.graphalgo.core.LabelImporter;
+import org.neo4j.graphalgo.core.NodeLabels;
 import org.neo4j.graphalgo.core.WeightMap;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.RawValues;
@@ -40,9 +40,6 @@ import org.neo4j.kernel.impl.api.RelationshipVisitor;
 import org.neo4j.kernel.impl.api.store.RelationshipIterator;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
-import java.util.AbstractMap;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.function.Supplier;
 
 
@@ -58,6 +55,7 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
     private final int[] relationId;
     private final boolean loadIncoming;
     private final boolean loadOutgoing;
+    private final boolean loadTypes;
 
     private AdjacencyMatrix matrix;
     private final int nodeOffset;
@@ -90,7 +88,8 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
         this.relationId = dimensions.relationId();
         loadIncoming = setup.loadIncoming;
         loadOutgoing = setup.loadOutgoing;
-        this.matrix = new AdjacencyMatrix(nodeSize, loadIncoming, loadOutgoing, setup.sort);
+        loadTypes = setup.loadWithLabels;
+        this.matrix = new AdjacencyMatrix(nodeSize, loadIncoming, loadOutgoing, setup.sort, loadTypes);
         this.currentNodeCount = 0;
         this.sort = sort;
     }
@@ -123,9 +122,10 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
                                 sourceGraphId,
                                 weights,
                                 relationshipId,
+                                typeId,
                                 endNodeId));
             } else {
-                visitOutgoing = ((relationshipId, typeId, startNodeId, endNodeId) -> visitOutgoing(endNodeId));
+                visitOutgoing = ((relationshipId, typeId, startNodeId, endNodeId) -> visitOutgoing(typeId, endNodeId));
             }
         }
         if (loadIncoming) {
@@ -138,9 +138,10 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
                                 sourceGraphId,
                                 weights,
                                 relationshipId,
+                                typeId,
                                 startNodeId));
             } else {
-                visitIncoming = ((relationshipId, typeId, startNodeId, endNodeId) -> visitIncoming(startNodeId));
+                visitIncoming = ((relationshipId, typeId, startNodeId, endNodeId) -> visitIncoming(typeId, startNodeId));
             }
         }
 
@@ -212,7 +213,7 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
             outDegree = readOp.nodeGetDegree(sourceNodeId, Direction.OUTGOING);
             rels = readOp.nodeGetRelationships(sourceNodeId, Direction.OUTGOING);
         } else {
-            outDegree = readOp.nodeGetDegree(sourceNodeId, Direction.OUTGOING, relationType[0]);
+            outDegree = degree(readOp, sourceNodeId, Direction.OUTGOING, relationType);
             rels = readOp.nodeGetRelationships(sourceNodeId, Direction.OUTGOING, relationType);
         }
 
@@ -239,7 +240,7 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
             outDegree = readOp.nodeGetDegree(sourceNodeId, Direction.INCOMING);
             rels = readOp.nodeGetRelationships(sourceNodeId, Direction.INCOMING);
         } else {
-            outDegree = readOp.nodeGetDegree(sourceNodeId, Direction.INCOMING, relationType[0]);
+            outDegree = degree(readOp, sourceNodeId, Direction.INCOMING, relationType);
             rels = readOp.nodeGetRelationships(sourceNodeId, Direction.INCOMING, relationType);
         }
 
@@ -253,6 +254,18 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
         }
     }
 
+    private static int degree(
+            ReadOperations readOp,
+            long sourceNodeId,
+            Direction direction,
+            int[] relationType) throws EntityNotFoundException {
+        int degree = 0;
+        for (int type : relationType) {
+            degree += readOp.nodeGetDegree(sourceNodeId, direction, type);
+        }
+        return degree;
+    }
+
     private void readNodeWeight(
             ReadOperations readOp,
             long sourceNodeId,
@@ -268,10 +281,14 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
         }
     }
 
-    private int visitOutgoing(long endNodeId) {
+    private int visitOutgoing(int typeId, long endNodeId) {
         final int targetGraphId = idMap.get(endNodeId);
         if (targetGraphId != -1) {
-            matrix.addOutgoing(sourceGraphId, targetGraphId);
+            if (loadTypes) {
+                matrix.addOutgoing(sourceGraphId, targetGraphId, typeId);
+            } else {
+                matrix.addOutgoing(sourceGraphId, targetGraphId);
+            }
         }
         return targetGraphId;
     }
@@ -282,18 +299,23 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
             int sourceGraphId,
             WeightMap weights,
             long relationshipId,
+            int typeId,
             long endNodeId) throws EntityNotFoundException {
-        final int targetGraphId = visitOutgoing(endNodeId);
+        final int targetGraphId = visitOutgoing(typeId, endNodeId);
         if (targetGraphId != -1) {
             visitWeight(readOp, isBoth, sourceGraphId, targetGraphId, weights, relationshipId);
         }
         return targetGraphId;
     }
 
-    private int visitIncoming(long startNodeId) {
+    private int visitIncoming(int typeId, long startNodeId) {
         final int startGraphId = idMap.get(startNodeId);
         if (startGraphId != -1) {
-            matrix.addIncoming(startGraphId, sourceGraphId);
+            if (loadTypes) {
+                matrix.addIncoming(startGraphId, sourceGraphId, typeId);
+            } else {
+                matrix.addIncoming(startGraphId, sourceGraphId);
+            }
         }
         return startGraphId;
     }
@@ -304,8 +326,9 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
             int sourceGraphId,
             WeightMap weights,
             long relationshipId,
+            int typeId,
             long startNodeId) throws EntityNotFoundException {
-        final int targetGraphId = visitIncoming(startNodeId);
+        final int targetGraphId = visitIncoming(typeId, startNodeId);
         if (targetGraphId != -1) {
             visitWeight(readOp, isBoth, sourceGraphId, targetGraphId, weights, relationshipId);
         }
@@ -336,7 +359,7 @@ final class RelationshipImporter extends StatementTask<Void, EntityNotFoundExcep
         weights.put(relId, doubleValue);
     }
 
-    Graph toGraph(final IdMap idMap, final AbstractMap.SimpleEntry<HashMap<Integer, ArrayList<LabelImporter.IdNameTuple>>, HashMap<AbstractMap.SimpleEntry<Integer, Integer>, Integer>> labelMap) {
+    Graph toGraph(final IdMap idMap, final NodeLabels labelMap) {
         return new HeavyGraph(
                 idMap,
                 matrix,
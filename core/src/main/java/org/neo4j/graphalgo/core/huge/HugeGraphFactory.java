@@ -89,7 +89,7 @@ public final class HugeGraphFactory extends GraphFactory {
                     progress);
         }
 
-        final long nodeCount = dimensions.hugeNodeCount();
+        final long nodeCount = mapping.nodeCount();
         final int[] relationId = dimensions.relationId();
         final int weightId = dimensions.weightId();
 
@@ -152,7 +152,7 @@ public final class HugeGraphFactory extends GraphFactory {
             int concurrency,
             AllocationTracker tracker,
             ImportProgress progress) {
-        final long nodeCount = dimensions.hugeNodeCount();
+        final long nodeCount = mapping.nodeCount();
         final int[] relationId = dimensions.relationId();
         final int weightId = dimensions.weightId();
 
@@ -434,9 +434,14 @@ public final class HugeGraphFactory extends GraphFactory {
                 long sourceNodeId,
                 ReadOperations readOp,
                 Direction direction) throws EntityNotFoundException {
-            return relationId == null
-                    ? readOp.nodeGetDegree(sourceNodeId, direction)
-                    : readOp.nodeGetDegree(sourceNodeId, direction, relationId[0]);
+            if (relationId == null) {
+                return readOp.nodeGetDegree(sourceNodeId, direction);
+            }
+            int degree = 0;
+            for (int type : relationId) {
+                degree += readOp.nodeGetDegree(sourceNodeId, direction, type);
+            }
+            return degree;
         }
 
         private RelationshipIterator relationships(
@@ -33,6 +33,7 @@ public final class HugeNodeImporter extends StatementTask<HugeIdMap, EntityNotFo
     private final long nodeCount;
     private final long allNodesCount;
     private final int labelId;
+    private final int[] labelIds;
 
     public HugeNodeImporter(
             GraphDatabaseAPI api,
@@ -40,19 +41,36 @@ public final class HugeNodeImporter extends StatementTask<HugeIdMap, EntityNotFo
             ImportProgress progress,
             long nodeCount,
             long allNodesCount,
-            int labelId) {
+            int labelId,
+            int[] labelIds) {
         super(api);
         this.tracker = tracker;
         this.progress = progress;
         this.nodeCount = nodeCount;
         this.allNodesCount = allNodesCount;
         this.labelId = labelId;
+        this.labelIds = labelIds;
     }
 
     @Override
     public HugeIdMap apply(final Statement statement) throws EntityNotFoundException {
         final HugeIdMap mapping = new HugeIdMap(nodeCount, allNodesCount, tracker);
         final ReadOperations readOp = statement.readOperations();
+        if (labelIds != null) {
+            // a node with more than one of the labels is mapped once
+            for (int id : labelIds) {
+                final PrimitiveLongIterator nodeIds = readOp.nodesGetForLabel(id);
+                while (nodeIds.hasNext()) {
+                    long nodeId = nodeIds.next();
+                    if (!mapping.contains(nodeId)) {
+                        mapping.add(nodeId);
+                    }
+                    progress.nodeProgress();
+                }
+            }
+            progress.resetForRelationships();
+            return mapping;
+        }
         final PrimitiveLongIterator nodeIds = labelId == ReadOperations.ANY_LABEL
                 ? readOp.nodesGetAll()
                 : readOp.nodesGetForLabel(labelId);
@@ -0,0 +1,476 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.container;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints in the layout of a roaring bitmap.
+ * <p>
+ * The values are partitioned by their upper 16 bits into containers. A container
+ * holding at most {@value #ARRAY_LIMIT} values is a sorted char array, a fuller one
+ * is a bitmap of 2^16 bits. Sparse sets thus cost 2 bytes per value, dense sets
+ * one bit per possible value, and union, intersection and cardinality work on
+ * whole containers instead of single values.
+ * <p>
+ * Not thread safe.
+ */
+public final class RoaringBitSet {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    // container i: either a bitmap (bitmaps[i] != null) or the first cardinalities[i] values of arrays[i]
+    private int[] keys;
+    private char[][] arrays;
+    private long[][] bitmaps;
+    private int[] cardinalities;
+    private int size;
+
+    public RoaringBitSet() {
+        keys = new int[4];
+        arrays = new char[4][];
+        bitmaps = new long[4][];
+        cardinalities = new int[4];
+    }
+
+    public static RoaringBitSet of(int... values) {
+        RoaringBitSet set = new RoaringBitSet();
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    /**
+     * @return true if the value was not contained before
+     */
+    public boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative value " + value);
+        }
+        int key = value >>> 16;
+        char low = (char) value;
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new char[4], null, 0);
+        }
+        if (bitmaps[index] != null) {
+            long[] bitmap = bitmaps[index];
+            long word = bitmap[low >>> 6];
+            long bit = 1L << low;
+            if ((word & bit) != 0) {
+                return false;
+            }
+            bitmap[low >>> 6] = word | bit;
+            cardinalities[index]++;
+            return true;
+        }
+        char[] array = arrays[index];
+        int cardinality = cardinalities[index];
+        int position = Arrays.binarySearch(array, 0, cardinality, low);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (cardinality == ARRAY_LIMIT) {
+            long[] bitmap = toBitmap(array, cardinality);
+            bitmap[low >>> 6] |= 1L << low;
+            bitmaps[index] = bitmap;
+            arrays[index] = null;
+        } else {
+            if (cardinality == array.length) {
+                array = arrays[index] = Arrays.copyOf(array, Math.min(ARRAY_LIMIT, cardinality * 2));
+            }
+            System.arraycopy(array, position, array, position + 1, cardinality - position);
+            array[position] = low;
+        }
+        cardinalities[index]++;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf(value >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (bitmaps[index] != null) {
+            return (bitmaps[index][low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch(arrays[index], 0, cardinalities[index], low) >= 0;
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += cardinalities[i];
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * add all values of the other set to this one
+     */
+    public RoaringBitSet or(RoaringBitSet other) {
+        int i = 0;
+        int j = 0;
+        while (j < other.size) {
+            if (i == size || keys[i] > other.keys[j]) {
+                insertContainer(i, other.keys[j], copyArray(other, j), copyBitmap(other, j), other.cardinalities[j]);
+                i++;
+                j++;
+            } else if (keys[i] < other.keys[j]) {
+                i++;
+            } else {
+                orContainer(i, other, j);
+                i++;
+                j++;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return a new set of the values contained in both sets
+     */
+    public RoaringBitSet and(RoaringBitSet other) {
+        RoaringBitSet result = new RoaringBitSet();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                andContainer(result, keys[i], other, i, j);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if both sets contain at least one common value
+     */
+    public boolean intersects(RoaringBitSet other) {
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                if (intersectsContainer(other, i, j)) {
+                    return true;
+                }
+                i++;
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * visit all values in ascending order
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            if (bitmaps[i] != null) {
+                long[] bitmap = bitmaps[i];
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = bitmap[w];
+                    while (word != 0) {
+                        consumer.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] array = arrays[i];
+                for (int k = 0; k < cardinalities[i]; k++) {
+                    consumer.accept(high | array[k]);
+                }
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] values = new int[Math.toIntExact(cardinality())];
+        int[] position = {0};
+        forEach(value -> values[position[0]++] = value);
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RoaringBitSet)) {
+            return false;
+        }
+        RoaringBitSet other = (RoaringBitSet) o;
+        return cardinality() == other.cardinality() && and(other).cardinality() == cardinality();
+    }
+
+    @Override
+    public int hashCode() {
+        int[] hash = {1};
+        forEach(value -> hash[0] = 31 * hash[0] + value);
+        return hash[0];
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private int indexOf(int key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else if (keys[mid] > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insertContainer(int index, int key, char[] array, long[] bitmap, int cardinality) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            arrays = Arrays.copyOf(arrays, capacity);
+            bitmaps = Arrays.copyOf(bitmaps, capacity);
+            cardinalities = Arrays.copyOf(cardinalities, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(arrays, index, arrays, index + 1, size - index);
+        System.arraycopy(bitmaps, index, bitmaps, index + 1, size - index);
+        System.arraycopy(cardinalities, index, cardinalities, index + 1, size - index);
+        keys[index] = key;
+        arrays[index] = array;
+        bitmaps[index] = bitmap;
+        cardinalities[index] = cardinality;
+        size++;
+    }
+
+    private void orContainer(int i, RoaringBitSet other, int j) {
+        if (bitmaps[i] == null && other.bitmaps[j] == null) {
+            char[] merged = new char[cardinalities[i] + other.cardinalities[j]];
+            int cardinality = mergeArrays(arrays[i], cardinalities[i], other.arrays[j], other.cardinalities[j], merged);
+            if (cardinality > ARRAY_LIMIT) {
+                bitmaps[i] = toBitmap(merged, cardinality);
+                arrays[i] = null;
+            } else {
+                arrays[i] = merged;
+            }
+            cardinalities[i] = cardinality;
+            return;
+        }
+        if (bitmaps[i] == null) {
+            bitmaps[i] = toBitmap(arrays[i], cardinalities[i]);
+            arrays[i] = null;
+        }
+        long[] bitmap = bitmaps[i];
+        if (other.bitmaps[j] != null) {
+            long[] otherBitmap = other.bitmaps[j];
+            int cardinality = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                bitmap[w] |= otherBitmap[w];
+                cardinality += Long.bitCount(bitmap[w]);
+            }
+            cardinalities[i] = cardinality;
+        } else {
+            char[] otherArray = other.arrays[j];
+            int cardinality = cardinalities[i];
+            for (int k = 0; k < other.cardinalities[j]; k++) {
+                char low = otherArray[k];
+                long bit = 1L << low;
+                if ((bitmap[low >>> 6] & bit) == 0) {
+                    bitmap[low >>> 6] |= bit;
+                    cardinality++;
+                }
+            }
+            cardinalities[i] = cardinality;
+        }
+    }
+
+    private void andContainer(RoaringBitSet result, int key, RoaringBitSet other, int i, int j) {
+        long[] bitmap = bitmaps[i];
+        long[] otherBitmap = other.bitmaps[j];
+        if (bitmap != null && otherBitmap != null) {
+            long[] intersection = new long[BITMAP_WORDS];
+            int cardinality = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                intersection[w] = bitmap[w] & otherBitmap[w];
+                cardinality += Long.bitCount(intersection[w]);
+            }
+            if (cardinality > ARRAY_LIMIT) {
+                result.insertContainer(result.size, key, null, intersection, cardinality);
+            } else if (cardinality > 0) {
+                result.insertContainer(result.size, key, toArray(intersection, cardinality), null, cardinality);
+            }
+            return;
+        }
+        char[] intersection;
+        int cardinality = 0;
+        if (bitmap == null && otherBitmap == null) {
+            intersection = new char[Math.min(cardinalities[i], other.cardinalities[j])];
+            char[] a = arrays[i];
+            char[] b = other.arrays[j];
+            int x = 0;
+            int y = 0;
+            while (x < cardinalities[i] && y < other.cardinalities[j]) {
+                if (a[x] < b[y]) {
+                    x++;
+                } else if (a[x] > b[y]) {
+                    y++;
+                } else {
+                    intersection[cardinality++] = a[x];
+                    x++;
+                    y++;
+                }
+            }
+        } else {
+            char[] array = bitmap == null ? arrays[i] : other.arrays[j];
+            int arrayCardinality = bitmap == null ? cardinalities[i] : other.cardinalities[j];
+            long[] words = bitmap == null ? otherBitmap : bitmap;
+            intersection = new char[arrayCardinality];
+            for (int k = 0; k < arrayCardinality; k++) {
+                char low = array[k];
+                if ((words[low >>> 6] & (1L << low)) != 0) {
+                    intersection[cardinality++] = low;
+                }
+            }
+        }
+        if (cardinality > 0) {
+            result.insertContainer(result.size, key, intersection, null, cardinality);
+        }
+    }
+
+    private boolean intersectsContainer(RoaringBitSet other, int i, int j) {
+        long[] bitmap = bitmaps[i];
+        long[] otherBitmap = other.bitmaps[j];
+        if (bitmap != null && otherBitmap != null) {
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                if ((bitmap[w] & otherBitmap[w]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (bitmap == null && otherBitmap == null) {
+            char[] a = arrays[i];
+            char[] b = other.arrays[j];
+            int x = 0;
+            int y = 0;
+            while (x < cardinalities[i] && y < other.cardinalities[j]) {
+                if (a[x] < b[y]) {
+                    x++;
+                } else if (a[x] > b[y]) {
+                    y++;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+        char[] array = bitmap == null ? arrays[i] : other.arrays[j];
+        int arrayCardinality = bitmap == null ? cardinalities[i] : other.cardinalities[j];
+        long[] words = bitmap == null ? otherBitmap : bitmap;
+        for (int k = 0; k < arrayCardinality; k++) {
+            char low = array[k];
+            if ((words[low >>> 6] & (1L << low)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int mergeArrays(char[] a, int aSize, char[] b, int bSize, char[] target) {
+        int x = 0;
+        int y = 0;
+        int size = 0;
+        while (x < aSize && y < bSize) {
+            if (a[x] < b[y]) {
+                target[size++] = a[x++];
+            } else if (a[x] > b[y]) {
+                target[size++] = b[y++];
+            } else {
+                target[size++] = a[x++];
+                y++;
+            }
+        }
+        while (x < aSize) {
+            target[size++] = a[x++];
+        }
+        while (y < bSize) {
+            target[size++] = b[y++];
+        }
+        return size;
+    }
+
+    private static long[] toBitmap(char[] array, int cardinality) {
+        long[] bitmap = new long[BITMAP_WORDS];
+        for (int k = 0; k < cardinality; k++) {
+            bitmap[array[k] >>> 6] |= 1L << array[k];
+        }
+        return bitmap;
+    }
+
+    private static char[] toArray(long[] bitmap, int cardinality) {
+        char[] array = new char[cardinality];
+        int size = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = bitmap[w];
+            while (word != 0) {
+                array[size++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+
+    private static char[] copyArray(RoaringBitSet set, int index) {
+        return set.arrays[index] == null ? null : Arrays.copyOf(set.arrays[index], set.cardinalities[index]);
+    }
+
+    private static long[] copyBitmap(RoaringBitSet set, int index) {
+        return set.bitmaps[index] == null ? null : set.bitmaps[index].clone();
+    }
+}
@@ -60,7 +60,8 @@ public final class SparseLongArray extends PagedDataStructure<long[]> {
         final int pageIndex = pageIndex(index);
         final int indexInPage = indexInPage(index);
         long[] page = pages[pageIndex];
-        return page == null ? NOT_FOUND : (page[indexInPage] & Long.MAX_VALUE);
+        // the highest bit marks a set value, so that unset slots of an allocated page are not found
+        return page == null || page[indexInPage] == 0L ? NOT_FOUND : (page[indexInPage] & Long.MAX_VALUE);
     }
 
     public void set(long index, long value) {
@@ -72,7 +73,7 @@ public final class SparseLongArray extends PagedDataStructure<long[]> {
             page = allocateNewPage();
             pages[pageIndex] = page;
         }
-        page[indexInPage] = value;
+        page[indexInPage] = value | Long.MIN_VALUE;
     }
 
     public boolean contains(long index) {
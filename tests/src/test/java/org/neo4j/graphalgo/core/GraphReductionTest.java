@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public final class GraphReductionTest {
+
+    private static GraphDatabaseAPI db;
+
+    private Class<? extends GraphFactory> graphImpl;
+
+    @Parameters(name = "{1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(
+                new Object[]{HeavyGraphFactory.class, "HeavyGraphFactory"},
+                new Object[]{HugeGraphFactory.class, "HugeGraphFactory"}
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    public GraphReductionTest(
+            Class<? extends GraphFactory> graphImpl,
+            String nameIgnoredOnlyForTestName) {
+        this.graphImpl = graphImpl;
+    }
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute("CREATE (a:Author {name:'a'})-[:WROTE]->(p:Paper {name:'p'})-[:CITES]->(v:Venue {name:'v'}),\n" +
+                    "  (p)-[:PUBLISHED_IN]->(v),\n" +
+                    "  (v)-[:LINKS]->(:Other:Venue {name:'o'}),\n" +
+                    "  ({name:'u'})-[:WROTE]->(p),\n" +
+                    "  (:Misc {name:'m'})-[:CITES]->(p)");
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void teardown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldKeepLabelsAdjacentToGoodRelationshipTypes() {
+        final Graph graph = new GraphLoader(db)
+                .withReduction(
+                        new String[]{"Venue", "Other", "Missing"},
+                        new String[]{"WROTE", "PUBLISHED_IN", "MISSING"})
+                .load(graphImpl);
+
+        assertEquals(4, graph.nodeCount());
+        assertTrue(graph.contains(nodeId("Author", "a")));
+        assertTrue(graph.contains(nodeId("Paper", "p")));
+        assertTrue(graph.contains(nodeId("Venue", "v")));
+        assertTrue(graph.contains(nodeId("Other", "o")));
+        assertFalse(graph.contains(nodeId("Misc", "m")));
+
+        assertEquals(1, graph.degree(graph.toMappedNodeId(nodeId("Author", "a")), Direction.OUTGOING));
+        assertEquals(1, graph.degree(graph.toMappedNodeId(nodeId("Paper", "p")), Direction.OUTGOING));
+        assertEquals(1, graph.degree(graph.toMappedNodeId(nodeId("Paper", "p")), Direction.INCOMING));
+        assertEquals(1, graph.degree(graph.toMappedNodeId(nodeId("Venue", "v")), Direction.INCOMING));
+        assertEquals(0, graph.degree(graph.toMappedNodeId(nodeId("Venue", "v")), Direction.OUTGOING));
+        assertEquals(0, graph.degree(graph.toMappedNodeId(nodeId("Other", "o")), Direction.INCOMING));
+    }
+
+    @Test
+    public void shouldLoadNoRelationshipsWithoutGoodRelationshipTypes() {
+        final Graph graph = new GraphLoader(db)
+                .withReduction(new String[]{"Venue"}, new String[0])
+                .load(graphImpl);
+
+        assertEquals(2, graph.nodeCount());
+        graph.forEachNode(node -> {
+            assertEquals(0, graph.degree(node, Direction.BOTH));
+            return true;
+        });
+    }
+
+    private static long nodeId(String label, String name) {
+        try (Transaction tx = db.beginTx()) {
+            long id = db.findNode(Label.label(label), "name", name).getId();
+            tx.success();
+            return id;
+        }
+    }
+}
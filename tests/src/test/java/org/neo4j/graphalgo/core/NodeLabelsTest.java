@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NodeLabelsTest {
+
+    private static final String[] NAMES = {"A", "B", "C"};
+
+    @Test
+    public void testMultipleLabels() {
+        NodeLabels labels = new NodeLabels(new int[]{0, 2, 2, 3}, new int[]{0, 2, 1}, NAMES);
+
+        assertEquals(0, labels.label(0));
+        assertArrayEquals(new int[]{0, 2}, labels.labels(0));
+        assertEquals(NodeLabels.NO_LABEL, labels.label(1));
+        assertArrayEquals(new int[0], labels.labels(1));
+        assertEquals(1, labels.label(2));
+        assertEquals(2, labels.labelCount(0));
+        assertEquals(Arrays.asList(0, 1, 2), labels.allLabels());
+    }
+
+    @Test
+    public void testSingleLabelPerNode() {
+        NodeLabels labels = new NodeLabels(new int[]{0, 1, 2, 3}, new int[]{2, 0, 2}, NAMES);
+
+        assertEquals(2, labels.label(0));
+        assertEquals(0, labels.label(1));
+        assertArrayEquals(new int[]{2}, labels.labels(2));
+        assertEquals(1, labels.labelCount(2));
+        assertEquals(Arrays.asList(0, 2), labels.allLabels());
+        assertEquals("C", labels.labelIdToName().get(2));
+        assertNull(labels.labelIdToName().get(1));
+        assertNull(labels.name(5));
+    }
+
+    @Test
+    public void testNodesWithLabel() {
+        NodeLabels labels = new NodeLabels(new int[]{0, 2, 2, 3, 4}, new int[]{0, 2, 1, 0}, NAMES);
+
+        assertArrayEquals(new int[]{0, 3}, toArray(labels.nodesWithLabel(0)));
+        assertArrayEquals(new int[]{2}, toArray(labels.nodesWithLabel(1)));
+        assertArrayEquals(new int[0], toArray(labels.nodesWithLabel(2)));
+        assertArrayEquals(new int[0], toArray(labels.nodesWithLabel(7)));
+        assertEquals(2, labels.nodeCount(0));
+        assertEquals(0, labels.nodeCount(2));
+
+        // a view of the shared array, not a copy
+        IntBuffer nodes = labels.nodesWithLabel(0);
+        assertEquals(3, nodes.get(1));
+        assertTrue(nodes.isReadOnly());
+    }
+
+    private static int[] toArray(IntBuffer buffer) {
+        int[] values = new int[buffer.remaining()];
+        buffer.get(values);
+        return values;
+    }
+}
@@ -5,15 +5,22 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.metaPathComputationProcs.GettingStartedProc;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.nio.IntBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class LabelMapTest {
 
@@ -145,9 +152,56 @@ public class LabelMapTest {
                 .withLabelAsProperty(true)
                 .load(HeavyGraphFactory.class);
 
-        Integer[] expectedLabels = {0, 1};
+        int[] expectedLabels = {0, 1};
 
-        assertEquals(expectedLabels, graphWithLabelMap.getLabels(0));
+        assertArrayEquals(expectedLabels, graphWithLabelMap.getLabels(0));
+    }
+
+    @Test
+    public void testParallelLabelImport() {
+        final HeavyGraph sequential = (HeavyGraph) new GraphLoader(api)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+        final HeavyGraph parallel = (HeavyGraph) new GraphLoader(api)
+                .withLabelAsProperty(true)
+                .withExecutorService(Pools.DEFAULT)
+                .withConcurrency(4)
+                .withBatchSize(3)
+                .load(HeavyGraphFactory.class);
+
+        for (int nodeId = 0; nodeId < sequential.nodeCount(); nodeId++) {
+            assertArrayEquals(sequential.getLabels(nodeId), parallel.getLabels(nodeId));
+        }
+        assertEquals(sequential.getAllLabels(), parallel.getAllLabels());
+        assertEquals(sequential.getLabelIdToNameDict(), parallel.getLabelIdToNameDict());
+    }
+
+    @Test
+    public void testNodesWithLabel() {
+        final HeavyGraph graphWithLabelMap;
+        graphWithLabelMap = (HeavyGraph) new GraphLoader(api)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+
+        int total = 0;
+        for (int label : graphWithLabelMap.getAllLabels()) {
+            IntBuffer nodes = graphWithLabelMap.getNodesWithLabel(label);
+            for (int i = 0; i < nodes.limit(); i++) {
+                assertEquals(label, graphWithLabelMap.getLabel(nodes.get(i)));
+                if (i > 0) {
+                    assertTrue(nodes.get(i - 1) < nodes.get(i));
+                }
+            }
+            total += nodes.limit();
+        }
+        assertEquals(graphWithLabelMap.nodeCount(), total);
+
+        final HeavyGraph graphWithoutLabelMap = (HeavyGraph) new GraphLoader(api)
+                .withLabelAsProperty(false)
+                .load(HeavyGraphFactory.class);
+        IntBuffer noNodes = graphWithoutLabelMap.getNodesWithLabel(0);
+        assertEquals(0, noNodes.limit());
+        assertTrue(noNodes.isReadOnly());
     }
 
     @Test
@@ -160,5 +214,67 @@ public class LabelMapTest {
         Collection<Integer> allLabels = graphWithLabelMap.getAllLabels();
         assertEquals(4, allLabels.size());
     }
-}
 
+    @Test
+    public void testEdgeLabels() {
+        final HeavyGraph graphWithLabelMap;
+        graphWithLabelMap = (HeavyGraph) new GraphLoader(api)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+
+        assertEquals(0, graphWithLabelMap.getEdgeLabel(0, 19));
+        assertEquals(0, graphWithLabelMap.getEdgeLabel(19, 0));
+        assertEquals(1, graphWithLabelMap.getEdgeLabel(12, 13));
+        assertEquals(1, graphWithLabelMap.getEdgeLabel(13, 12));
+        assertEquals(-1, graphWithLabelMap.getEdgeLabel(0, 4));
+        assertEquals(2, graphWithLabelMap.getAllEdgeLabels().size());
+    }
+
+    @Test
+    public void testEdgeLabelsWithSortedAdjacency() {
+        final HeavyGraph graphWithLabelMap;
+        graphWithLabelMap = (HeavyGraph) new GraphLoader(api)
+                .withLabelAsProperty(true)
+                .withSort(true)
+                .load(HeavyGraphFactory.class);
+
+        assertEquals(0, graphWithLabelMap.getEdgeLabel(0, 19));
+        assertEquals(1, graphWithLabelMap.getEdgeLabel(12, 13));
+        assertEquals(1, graphWithLabelMap.getEdgeLabel(10, 17));
+    }
+
+    @Test
+    public void testForEachTypedRelationship() {
+        final HeavyGraph graphWithLabelMap;
+        graphWithLabelMap = (HeavyGraph) new GraphLoader(api)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+
+        List<int[]> outgoing = new ArrayList<>();
+        graphWithLabelMap.forEachTypedRelationship(12, Direction.OUTGOING, (source, target, type, label) -> {
+            outgoing.add(new int[]{source, target, type, label});
+            return true;
+        });
+        assertEquals(4, outgoing.size());
+        for (int[] relationship : outgoing) {
+            assertEquals(12, relationship[0]);
+            assertEquals(1, relationship[2]);
+            assertEquals(graphWithLabelMap.getLabel(relationship[1]), relationship[3]);
+        }
+
+        List<int[]> incoming = new ArrayList<>();
+        graphWithLabelMap.forEachTypedRelationship(12, Direction.INCOMING, (source, target, type, label) -> {
+            incoming.add(new int[]{source, target, type, label});
+            return true;
+        });
+        assertEquals(1, incoming.size());
+        assertArrayEquals(new int[]{12, 18, 0, 3}, incoming.get(0));
+
+        int[] visited = {0};
+        graphWithLabelMap.forEachTypedRelationship(12, Direction.BOTH, (source, target, type, label) -> {
+            visited[0]++;
+            return false;
+        });
+        assertEquals(1, visited[0]);
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.container;
+
+import com.carrotsearch.hppc.IntHashSet;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RoaringBitSetTest {
+
+    @Test
+    public void testAddAndContains() throws Exception {
+        RoaringBitSet set = new RoaringBitSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(5));
+        assertFalse(set.add(5));
+        assertTrue(set.add(70_000));
+        assertTrue(set.add(Integer.MAX_VALUE));
+        assertTrue(set.contains(5));
+        assertTrue(set.contains(70_000));
+        assertTrue(set.contains(Integer.MAX_VALUE));
+        assertFalse(set.contains(6));
+        assertFalse(set.contains(-1));
+        assertEquals(3, set.cardinality());
+        assertArrayEquals(new int[]{5, 70_000, Integer.MAX_VALUE}, set.toArray());
+    }
+
+    @Test
+    public void testDenseContainer() throws Exception {
+        RoaringBitSet set = new RoaringBitSet();
+        for (int i = 0; i < 10_000; i += 2) {
+            set.add(i);
+        }
+        assertEquals(5_000, set.cardinality());
+        assertTrue(set.contains(9_998));
+        assertFalse(set.contains(9_999));
+        assertEquals(0, set.toArray()[0]);
+        assertEquals(9_998, set.toArray()[4_999]);
+    }
+
+    @Test
+    public void testSetOperationsMatchHashSet() throws Exception {
+        Random random = new Random(42);
+        for (int run = 0; run < 20; run++) {
+            // mix sparse and dense containers
+            int bound = run % 2 == 0 ? 1 << 20 : 1 << 14;
+            RoaringBitSet a = new RoaringBitSet();
+            RoaringBitSet b = new RoaringBitSet();
+            IntHashSet expectedA = new IntHashSet();
+            IntHashSet expectedB = new IntHashSet();
+            for (int i = 0; i < 6_000; i++) {
+                int x = random.nextInt(bound);
+                int y = random.nextInt(bound);
+                a.add(x);
+                expectedA.add(x);
+                b.add(y);
+                expectedB.add(y);
+            }
+
+            RoaringBitSet and = a.and(b);
+            IntHashSet expectedAnd = new IntHashSet(expectedA);
+            expectedAnd.retainAll(expectedB);
+            assertArrayEquals(sorted(expectedAnd), and.toArray());
+            assertEquals(!expectedAnd.isEmpty(), a.intersects(b));
+
+            a.or(b);
+            expectedA.addAll(expectedB);
+            assertArrayEquals(sorted(expectedA), a.toArray());
+            assertEquals(expectedA.size(), a.cardinality());
+        }
+    }
+
+    @Test
+    public void testDisjointSetsDoNotIntersect() throws Exception {
+        RoaringBitSet a = RoaringBitSet.of(1, 3, 100_000);
+        RoaringBitSet b = RoaringBitSet.of(2, 4, 100_001);
+        assertFalse(a.intersects(b));
+        assertTrue(a.and(b).isEmpty());
+        b.add(100_000);
+        assertTrue(a.intersects(b));
+    }
+
+    private static int[] sorted(IntHashSet set) {
+        int[] values = set.toArray();
+        Arrays.sort(values);
+        return values;
+    }
+}
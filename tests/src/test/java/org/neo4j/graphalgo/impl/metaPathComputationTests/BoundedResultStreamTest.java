@@ -0,0 +1,106 @@
+package org.neo4j.graphalgo.impl.metaPathComputationTests;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.impl.metaPathComputation.BoundedResultStream;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedResultStreamTest {
+
+    @Test(timeout = 30_000)
+    public void testStreamsAllResults() {
+        BoundedResultStream<Integer> results = new BoundedResultStream<>(1, TerminationFlag.RUNNING_TRUE);
+        List<Integer> streamed = results.start(() -> {
+            for (int i = 0; i < 100; i++) {
+                results.put(i);
+            }
+        }).collect(Collectors.toList());
+
+        assertEquals(100, streamed.size());
+        assertEquals(Integer.valueOf(99), streamed.get(99));
+    }
+
+    @Test(timeout = 30_000)
+    public void testTerminationEndsStreamWhileQueueIsFull() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean lastPut = new AtomicBoolean(true);
+        CountDownLatch producerDone = new CountDownLatch(1);
+        BoundedResultStream<Integer> results = new BoundedResultStream<>(1, running::get);
+
+        Iterator<Integer> iterator = results.start(() -> {
+            for (int i = 0; i < 100 && lastPut.get(); i++) {
+                lastPut.set(results.put(i));
+            }
+            producerDone.countDown();
+        }).iterator();
+
+        assertEquals(Integer.valueOf(0), iterator.next());
+        running.set(false);
+
+        // the producer gives up on the full queue and the end is still delivered
+        assertTrue(producerDone.await(10, TimeUnit.SECONDS));
+        assertFalse(lastPut.get());
+        while (iterator.hasNext()) {
+            iterator.next();
+        }
+        assertTrue(results.isClosed());
+    }
+
+    @Test(timeout = 30_000)
+    public void testCloseStopsProducer() throws Exception {
+        CountDownLatch producerDone = new CountDownLatch(1);
+        BoundedResultStream<Integer> results = new BoundedResultStream<>(1, TerminationFlag.RUNNING_TRUE);
+
+        try (Stream<Integer> stream = results.start(() -> {
+            while (results.put(0)) {
+            }
+            producerDone.countDown();
+        })) {
+            assertEquals(Integer.valueOf(0), stream.iterator().next());
+        }
+
+        assertTrue(producerDone.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 30_000)
+    public void testBlockedForkJoinWorkerIsCompensated() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        CountDownLatch firstPut = new CountDownLatch(1);
+        BoundedResultStream<Integer> results = new BoundedResultStream<>(1, TerminationFlag.RUNNING_TRUE);
+
+        try (Stream<Integer> ignored = results.start(() -> pool.invoke(ForkJoinTask.adapt(() -> {
+            results.put(0);
+            firstPut.countDown();
+            while (results.put(0)) {
+            }
+        })))) {
+            assertTrue(firstPut.await(10, TimeUnit.SECONDS));
+            // the only worker waits for the idle consumer, other tasks of the pool still run
+            assertEquals(Integer.valueOf(42), pool.submit(() -> 42).get(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = RuntimeException.class, timeout = 30_000)
+    public void testProducerErrorIsRethrown() {
+        BoundedResultStream<Integer> results = new BoundedResultStream<>(1, TerminationFlag.RUNNING_TRUE);
+        results.start(() -> {
+            results.put(0);
+            throw new IllegalStateException("failed");
+        }).count();
+    }
+}
@@ -5,6 +5,7 @@ import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.impl.metaPathComputation.ComputeAllMetaPathsBetweenTypes;
 import org.neo4j.graphdb.*;
 import org.neo4j.kernel.api.exceptions.KernelException;
@@ -133,6 +134,24 @@ public class ComputeAllMetaPathsBetweenTypesTest {
         assertEquals(actualMetaPathWeightsDict, algo.getMetaPathWeightsDict());
     }
 
+    @Test
+    public void testComputeOnPool() throws Exception {
+        ComputeAllMetaPathsBetweenTypes.Result result = new ComputeAllMetaPathsBetweenTypes(3, "A", "B", api)
+                .withConcurrency(Pools.DEFAULT, 4)
+                .compute();
+        HashMap<String, Integer> ids = new HashMap<>();
+        result.getIDTypeNodeDict().forEach((id, name) -> ids.put(name, id));
+        result.getIDTypeEdgeDict().forEach((id, name) -> ids.put(name, id));
+        String edge = "|" + ids.get("TYPE1") + "|";
+
+        HashSet<String> expected = new HashSet<>(Arrays.asList(
+                ids.get("A") + edge + ids.get("B"),
+                ids.get("A") + edge + ids.get("A") + edge + ids.get("B"),
+                ids.get("A") + edge + ids.get("C") + edge + ids.get("B")));
+        assertEquals(expected, result.getFinalMetaPaths());
+        assertEquals(expected, result.getMetaPathWeightsDict().keySet());
+    }
+
     @Ignore //TODO could be a problem if we consider the direction of edges
     @Test
     public void testPairHashSet() {
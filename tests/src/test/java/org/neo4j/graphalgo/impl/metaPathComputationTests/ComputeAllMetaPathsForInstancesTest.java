@@ -35,6 +35,7 @@ public class ComputeAllMetaPathsForInstancesTest {
 
     private static GraphDatabaseAPI api;
     private ComputeAllMetaPathsForInstances algo;
+    private ComputeAllMetaPathsForInstances bidirectionalAlgo;
 
     @BeforeClass
     public static void setup() throws KernelException, Exception {
@@ -91,6 +92,7 @@ public class ComputeAllMetaPathsForInstancesTest {
         List<Integer> endNodes = new ArrayList<>(Arrays.asList(1, 5));
 
         algo = new ComputeAllMetaPathsForInstances(graph, graph, 4, startNodes, endNodes);
+        bidirectionalAlgo = new ComputeAllMetaPathsForInstances(graph, graph, 4, startNodes, endNodes).withBidirectionalSearch(true);
 
     }
 
@@ -111,6 +113,19 @@ public class ComputeAllMetaPathsForInstancesTest {
         assertEquals(16, allMetaPaths.size());//this should be 16, ...
     }
 
+    @Test
+    public void testBidirectionalSearchFindsTheSameMetaPaths() {
+        HashSet<String> forwardMetaPaths = algo.computeAllMetaPaths();
+        HashSet<String> bidirectionalMetaPaths = bidirectionalAlgo.computeAllMetaPaths();
+        HashSet<String> allExpectedMetaPaths = new HashSet<>(Arrays.asList("1 | 1 | 2 | 1 | 2 | 1 | 0", "1 | 1 | 2 | 1 | 2 | 0 | 1", "1 | 1 | 2 | 0 | 0 | 0 | 1",
+                "0 | 0 | 1 | 0 | 0 | 0 | 1", "0 | 0 | 0 | 0 | 0 | 0 | 1", "0 | 0 | 2 | 1 | 2 | 0 | 1", "0 | 0 | 0 | 0 | 2 | 0 | 1", "0 | 0 | 1 | 0 | 2 | 0 | 1",
+                "0 | 0 | 2 | 0 | 0 | 0 | 1", "0 | 0 | 1 | 0 | 2 | 1 | 0", "0 | 0 | 2 | 1 | 2 | 1 | 0",
+                "1 | 1 | 2 | 0 | 1", "0 | 0 | 0 | 0 | 1", "0 | 0 | 2 | 0 | 1", "0 | 0 | 1", "0 | 0 | 2 | 1 | 0"));
+
+        assertEquals(allExpectedMetaPaths, bidirectionalMetaPaths);
+        assertEquals(forwardMetaPaths, bidirectionalMetaPaths);
+    }
+
     //TODO: write a test for the data written to the outputfile
 //something is not working with the test so its commented out.
    /* @Test
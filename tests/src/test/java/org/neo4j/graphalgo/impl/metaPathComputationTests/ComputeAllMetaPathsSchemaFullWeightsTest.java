@@ -5,6 +5,7 @@ import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.impl.metaPathComputation.ComputeAllMetaPathsSchemaFullWeights;
 import org.neo4j.graphdb.*;
 import org.neo4j.kernel.api.exceptions.KernelException;
@@ -133,6 +134,58 @@ public class ComputeAllMetaPathsSchemaFullWeightsTest {
         assertEquals(actualMetaPathWeightsDict, algo.getMetaPathWeightsDict());
     }
 
+    @Test
+    public void testComputeWithNativeSchema() throws Exception {
+        ComputeAllMetaPathsSchemaFullWeights.Result result = new ComputeAllMetaPathsSchemaFullWeights(2, api).compute();
+        HashMap<String, Integer> labelIds = new HashMap<>();
+        result.getIDTypeNodeDict().forEach((id, name) -> labelIds.put(name, id));
+        int type1 = result.getIDTypeEdgeDict().entrySet().stream().filter(e -> e.getValue().equals("TYPE1")).findFirst().get().getKey();
+        String a = labelIds.get("A") + "|" + type1 + "|";
+        String b = labelIds.get("B") + "|" + type1 + "|";
+        String c = labelIds.get("C") + "|" + type1 + "|";
+
+        HashMap<String, Double> expectedWeights = new HashMap<>();
+        expectedWeights.put(a + labelIds.get("A"), (double) 2 / 26);
+        expectedWeights.put(a + labelIds.get("B"), (double) 2 / 26);
+        expectedWeights.put(a + labelIds.get("C"), (double) 5 / 26);
+        expectedWeights.put(b + labelIds.get("A"), (double) 2 / 26);
+        expectedWeights.put(b + labelIds.get("C"), (double) 4 / 26);
+        expectedWeights.put(c + labelIds.get("A"), (double) 5 / 26);
+        expectedWeights.put(c + labelIds.get("B"), (double) 4 / 26);
+        expectedWeights.put(c + labelIds.get("C"), (double) 2 / 26);
+        assertEquals(expectedWeights.keySet(), result.getFinalMetaPaths());
+        assertEquals(expectedWeights, result.getMetaPathWeightsDict());
+    }
+
+    @Test
+    public void testComputeIsIndependentOfConcurrency() throws Exception {
+        HashSet<String> sequential = new ComputeAllMetaPathsSchemaFullWeights(4, api)
+                .withConcurrency(Pools.DEFAULT, 1)
+                .compute()
+                .getFinalMetaPaths();
+        HashSet<String> parallel = new ComputeAllMetaPathsSchemaFullWeights(4, api)
+                .withConcurrency(Pools.DEFAULT, 4)
+                .compute()
+                .getFinalMetaPaths();
+        // 8 schema edges, each label has 2 or 3 of them
+        assertEquals(8 + 22 + 60, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testComputeFromGraphMatchesSchemaCache() throws Exception {
+        HeavyGraph graph = (HeavyGraph) new GraphLoader(api)
+                .asUndirected(true)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+        ComputeAllMetaPathsSchemaFullWeights.Result fromGraph = new ComputeAllMetaPathsSchemaFullWeights(3, api)
+                .withGraph(graph)
+                .compute();
+        ComputeAllMetaPathsSchemaFullWeights.Result fromCache = new ComputeAllMetaPathsSchemaFullWeights(3, api).compute();
+        assertEquals(fromCache.getFinalMetaPaths(), fromGraph.getFinalMetaPaths());
+        assertEquals(fromCache.getMetaPathWeightsDict(), fromGraph.getMetaPathWeightsDict());
+    }
+
     @Ignore //TODO could be a problem if we consider the direction of edges
     @Test
     public void testPairHashSet() {
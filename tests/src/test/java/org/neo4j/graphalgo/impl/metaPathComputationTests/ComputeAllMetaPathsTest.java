@@ -4,20 +4,33 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.neo4j.graphalgo.LoadGraphProc;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.impl.metaPathComputation.ComputeAllMetaPaths;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathMatrices;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathPruning;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathTrie;
 import org.neo4j.graphdb.*;
 import org.neo4j.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.graphalgo.metaPathComputationProcs.ComputeAllMetaPathsProc;
 import org.neo4j.graphalgo.metaPathComputationProcs.GettingStartedProc;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 
 /**
@@ -67,6 +80,12 @@ public class ComputeAllMetaPathsTest {
         api.getDependencyResolver()
                 .resolveDependency(Procedures.class)
                 .registerProcedure(GettingStartedProc.class);
+        api.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(ComputeAllMetaPathsProc.class);
+        api.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(LoadGraphProc.class);
 
         try (Transaction tx = api.beginTx()) {
             api.execute(cypher);
@@ -90,6 +109,34 @@ public class ComputeAllMetaPathsTest {
         algo = new ComputeAllMetaPaths(graph, graph, 3);
     }
 
+    @Test
+    public void testProcOnNamedGraph() {
+        api.execute("CALL algo.graph.load('metaPaths', null, null, {undirected:true, direction:'BOTH'})").close();
+        try {
+            Set<String> fresh = streamMetaPaths("CALL algo.computeAllMetaPaths.stream('3')");
+            Set<String> named = streamMetaPaths("CALL algo.computeAllMetaPaths.stream('3', '0', '0', '', '', 'metaPaths')");
+
+            assertEquals(33, fresh.size());
+            assertEquals(fresh, named);
+        } finally {
+            api.execute("CALL algo.graph.remove('metaPaths')").close();
+        }
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void testProcOnMissingNamedGraph() {
+        api.execute("CALL algo.computeAllMetaPaths.stream('3', '0', '0', '', '', 'missing')").close();
+    }
+
+    private Set<String> streamMetaPaths(String cypher) {
+        Set<String> metaPaths = new HashSet<>();
+        api.execute(cypher).accept(row -> {
+            metaPaths.add(row.get("metaPath") + "\t" + row.getNumber("count"));
+            return true;
+        });
+        return metaPaths;
+    }
+
     @Test
     public void testCalculationOfMetapaths() {
         //assertEquals(0.5, algo.similarity(), 0);
@@ -111,6 +158,100 @@ public class ComputeAllMetaPathsTest {
 
     }
 
+    @Test
+    public void testResultStream() throws Exception {
+        ArrayList<String> expectedMetaPaths = new ComputeAllMetaPaths(graph, graph, 3).computeAllMetaPaths();
+
+        List<String> streamedMetaPaths = algo.resultStream()
+                .map(row -> Arrays.stream(row.metaPath).mapToObj(Integer::toString).collect(Collectors.joining(" | ")) + "\t" + row.count)
+                .collect(Collectors.toList());
+
+        assertEquals(33, streamedMetaPaths.size());
+        assertEquals(new HashSet<>(expectedMetaPaths), new HashSet<>(streamedMetaPaths));
+    }
+
+    @Test(timeout = 30_000)
+    public void testResultStreamTerminatedPartway() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        algo.withTerminationFlag(running::get);
+
+        Iterator<ComputeAllMetaPaths.MetaPathRow> rows = algo.resultStream().iterator();
+        assertTrue(rows.hasNext());
+        rows.next();
+        running.set(false);
+
+        int remaining = 0;
+        while (rows.hasNext()) {
+            rows.next();
+            remaining++;
+        }
+        assertTrue(remaining < 33);
+    }
+
+    @Test
+    public void testStreamAndEstimateKeepPrecomputation() throws Exception {
+        File precomputed = new File("Precomputed_MetaPaths.txt");
+        byte[] previous = precomputed.exists() ? Files.readAllBytes(precomputed.toPath()) : null;
+        List<String> marker = Collections.singletonList("0 | 0 | 0\t42");
+        try {
+            Files.write(precomputed.toPath(), marker);
+
+            new ComputeAllMetaPaths(graph, graph, 3).resultStream().count();
+            new ComputeAllMetaPaths(graph, graph, 3).estimate(10, 0, 42);
+
+            assertEquals(marker, Files.readAllLines(precomputed.toPath()));
+        } finally {
+            if (previous != null) {
+                Files.write(precomputed.toPath(), previous);
+            } else {
+                Files.delete(precomputed.toPath());
+            }
+        }
+    }
+
+    @Test
+    public void testPruning() throws Exception {
+        MetaPathMatrices matrices = MetaPathMatrices.build(graph, Math.toIntExact(graph.nodeCount()), Pools.DEFAULT, 2);
+        MetaPathTrie all = new ComputeAllMetaPaths(graph, graph, 3).compute().getMetaPathTrie();
+
+        MetaPathTrie withoutLabel1 = new ComputeAllMetaPaths(graph, graph, 3)
+                .withPruning(MetaPathPruning.of(0, 0, new int[]{0, 2}, null))
+                .compute().getMetaPathTrie();
+        assertEquals(metaPaths(all, (metaPath, count) -> IntStream.range(0, metaPath.length).noneMatch(i -> i % 2 == 0 && metaPath[i] == 1)),
+                metaPaths(withoutLabel1, (metaPath, count) -> true));
+
+        MetaPathTrie frequent = new ComputeAllMetaPaths(graph, graph, 3)
+                .withPruning(MetaPathPruning.of(3, 0, null, null))
+                .compute().getMetaPathTrie();
+        assertEquals(metaPaths(all, (metaPath, count) -> matrices.support(metaPath) >= 3),
+                metaPaths(frequent, (metaPath, count) -> true));
+
+        MetaPathTrie top = new ComputeAllMetaPaths(graph, graph, 3)
+                .withPruning(MetaPathPruning.of(0, 5, null, null))
+                .compute().getMetaPathTrie();
+        assertEquals(5, top.size());
+        long[] minSupport = {Long.MAX_VALUE};
+        top.forEach((metaPath, count) -> {
+            assertEquals(all.count(metaPath), count);
+            minSupport[0] = Math.min(minSupport[0], matrices.support(metaPath));
+        });
+        all.forEach((metaPath, count) -> {
+            if (!top.contains(metaPath)) {
+                assertTrue(matrices.support(metaPath) <= minSupport[0]);
+            }
+        });
+    }
+
+    private static Set<String> metaPaths(MetaPathTrie trie, BiPredicate<int[], Long> filter) {
+        Set<String> metaPaths = new HashSet<>();
+        trie.forEach((metaPath, count) -> {
+            if (filter.test(metaPath, count)) {
+                metaPaths.add(Arrays.toString(metaPath) + "\t" + count);
+            }
+        });
+        return metaPaths;
+    }
+
     /*@Test
     public void testIdConversion()
     {
@@ -4,6 +4,7 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.impl.metaPathComputation.GraphReducer;
 import org.neo4j.graphalgo.metaPathComputationProcs.GettingStartedProc;
 import org.neo4j.graphdb.*;
@@ -11,8 +12,11 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
 public class GraphReducerTest {
     private static GraphDatabaseAPI api;
@@ -112,6 +116,46 @@ public class GraphReducerTest {
         testNodeNotExists("d", "Node");
     }
 
+    @Test
+    public void testBatchedReductionOnPool() throws Exception {
+        GraphDatabaseAPI db = TestDatabaseCreator.createTestDatabase();
+        try {
+            try (Transaction tx = db.beginTx()) {
+                db.execute("UNWIND range(1, 20) AS i\n" +
+                        "CREATE (a:Author {name:'a' + i})-[:WROTE]->(p:Paper {name:'p' + i})-[:CITES]->(v:Venue {name:'v' + i}),\n" +
+                        "  (p)-[:PUBLISHED_IN]->(v),\n" +
+                        "  (v)-[:LINKS]->(:Other:Venue {name:'o' + i}),\n" +
+                        "  ({name:'u' + i})-[:WROTE]->(p)");
+                tx.success();
+            }
+
+            String[] goodNodeTypes = {"Venue"};
+            String[] goodEdgeTypes = {"WROTE"};
+            new GraphReducer(db, null, goodNodeTypes, goodEdgeTypes)
+                    .withBatchSize(3)
+                    .withConcurrency(Pools.DEFAULT, 4)
+                    .compute();
+
+            try (Transaction tx = db.beginTx()) {
+                Map<String, Object> row = db.execute("MATCH (n) RETURN " +
+                        "size([x IN collect(n) WHERE x:Author]) AS authors, " +
+                        "size([x IN collect(n) WHERE x:Paper]) AS papers, " +
+                        "size([x IN collect(n) WHERE x:Venue]) AS venues, " +
+                        "size([x IN collect(n) WHERE size(labels(x)) = 0]) AS unlabelled").next();
+                assertEquals(20L, row.get("authors"));
+                assertEquals(20L, row.get("papers"));
+                assertEquals(40L, row.get("venues"));
+                assertEquals(0L, row.get("unlabelled"));
+                Map<String, Object> rels = db.execute("MATCH ()-[r]->() RETURN collect(DISTINCT type(r)) AS types, count(r) AS count").next();
+                assertEquals(Collections.singletonList("WROTE"), rels.get("types"));
+                assertEquals(20L, rels.get("count"));
+                tx.success();
+            }
+        } finally {
+            db.shutdown();
+        }
+    }
+
     private void testNodeExists(String name, String type) throws Exception {
         try(Transaction transaction = api.beginTx()) {
             Node node = api.findNode(Label.label(type), "name", name);
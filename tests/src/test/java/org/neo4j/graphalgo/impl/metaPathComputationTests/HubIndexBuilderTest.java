@@ -0,0 +1,254 @@
+package org.neo4j.graphalgo.impl.metaPathComputationTests;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.impl.metaPathComputation.HubIndexBuilder;
+import org.neo4j.graphalgo.impl.metaPathComputation.HubIndexFile;
+import org.neo4j.graphalgo.impl.metaPathComputation.HubSelection;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HubIndexBuilderTest {
+
+    private static GraphDatabaseAPI api;
+    private HeavyGraph graph;
+    private File file;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        final String cypher =
+                "CREATE (a:A {name:\"a\"})\n" +
+                        "CREATE (b:B {name:\"b\"})\n" +
+                        "CREATE (c:A {name:\"c\"})\n" +
+                        "CREATE (i:A {name:\"i\"})\n" +
+                        "CREATE (k:B {name:\"k\"})\n" +
+                        "CREATE (o:A {name:\"o\"})\n" +
+                        "CREATE (s:C {name:\"s\"})\n" +
+                        "CREATE (t:C {name:\"t\"})\n" +
+                        "CREATE\n" +
+                        "  (a)-[:TYPE1]->(t),\n" +
+                        "  (a)-[:TYPE1]->(c),\n" +
+                        "  (a)-[:TYPE1]->(b),\n" +
+                        "  (a)-[:TYPE1]->(s),\n" +
+                        "  (b)-[:TYPE1]->(s),\n" +
+                        "  (b)-[:TYPE1]->(t),\n" +
+                        "  (c)-[:TYPE1]->(s),\n" +
+                        "  (c)-[:TYPE1]->(b),\n" +
+                        "  (i)-[:TYPE1]->(t),\n" +
+                        "  (t)-[:TYPE2]->(s),\n" +
+                        "  (t)-[:TYPE2]->(o),\n" +
+                        "  (k)-[:TYPE2]->(s)\n";
+
+        api = TestDatabaseCreator.createTestDatabase();
+
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        api.shutdown();
+    }
+
+    @Before
+    public void setupGraph() throws IOException {
+        graph = loadGraph();
+        file = File.createTempFile("Precomputed_MetaPaths_HighDegree", ".bin");
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    private static HeavyGraph loadGraph() {
+        return (HeavyGraph) new GraphLoader(api)
+                .asUndirected(true)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+    }
+
+    private int nodeId(String name) {
+        return graph.toMappedNodeId(originalNodeId(name));
+    }
+
+    private static int originalNodeId(String name) {
+        return Math.toIntExact((long) api.execute("MATCH (n {name:'" + name + "'}) RETURN id(n) AS id").next().get("id"));
+    }
+
+    @Test
+    public void testHubSelection() {
+        HubSelection hubSelection = HubSelection.of(graph, Math.toIntExact(graph.nodeCount()), Pools.DEFAULT, 4);
+
+        assertEquals(5, hubSelection.degree(nodeId("s")));
+        assertNodes(sorted(nodeId("s"), nodeId("t")), hubSelection.topK(2));
+        assertNodes(sorted(nodeId("s"), nodeId("t")), hubSelection.byRatio(0.25));
+        assertNodes(sorted(nodeId("a"), nodeId("b"), nodeId("s"), nodeId("t")), hubSelection.minDegree(4));
+        assertEquals(3, hubSelection.topK(3).length);
+        assertEquals(0, hubSelection.topK(0).length);
+    }
+
+    private static String sorted(int... nodeIds) {
+        Arrays.sort(nodeIds);
+        return Arrays.toString(nodeIds);
+    }
+
+    private static void assertNodes(String expected, int[] actual) {
+        assertEquals(expected, Arrays.toString(actual));
+    }
+
+    @Test
+    public void testIndexContent() throws IOException {
+        int[] hubs = {nodeId("a")};
+        new HubIndexBuilder(graph, graph, 3, Pools.DEFAULT, 2).build(hubs, file.getPath(), null);
+
+        HubIndexFile.Reader reader = HubIndexFile.reader(file.getPath());
+        assertEquals(1, reader.size());
+        assertEquals(3, reader.metaPathLength());
+        assertEquals(originalNodeId("a"), reader.nodeId(0));
+        assertEquals(0, reader.find(originalNodeId("a")));
+        assertEquals(-1, reader.find(originalNodeId("s")));
+
+        Map<String, long[]> entries = new HashMap<>();
+        reader.forEachEntry(0, (metaPath, endNodes) -> entries.put(Arrays.toString(metaPath), endNodes));
+
+        int type1 = graph.getEdgeLabel(nodeId("a"), nodeId("s"));
+        int labelA = graph.getLabel(nodeId("a"));
+        int labelC = graph.getLabel(nodeId("s"));
+        assertArrayEquals(sortedIds(originalNodeId("s"), originalNodeId("t")), entries.get(Arrays.toString(new int[]{type1, labelC})));
+        assertArrayEquals(new long[]{originalNodeId("c")}, entries.get(Arrays.toString(new int[]{type1, labelA})));
+        // two hops: a -> c -> a and a -> t -> i
+        assertTrue(entries.containsKey(Arrays.toString(new int[]{type1, labelA, type1, labelA})));
+        assertTrue(Arrays.binarySearch(entries.get(Arrays.toString(new int[]{type1, labelC, type1, labelA})), originalNodeId("i")) >= 0);
+    }
+
+    private static long[] sortedIds(long... nodeIds) {
+        Arrays.sort(nodeIds);
+        return nodeIds;
+    }
+
+    @Test
+    public void testEndNodesBeyondIntRange() throws IOException {
+        long[] endNodes = {3L, 1L << 31, (1L << 40) + 7};
+        try (HubIndexFile.Writer writer = HubIndexFile.writer(file.getPath(), 2)) {
+            writer.add(1L << 33, HubIndexFile.encodeRecord(42L, new int[][]{{0, 1}}, new long[][]{endNodes}));
+        }
+
+        HubIndexFile.Reader reader = HubIndexFile.reader(file.getPath());
+        assertEquals(0, reader.find(1L << 33));
+        assertEquals(42L, reader.fingerprint(0));
+        reader.forEachEntry(0, (metaPath, ends) -> {
+            assertArrayEquals(new int[]{0, 1}, metaPath);
+            assertArrayEquals(endNodes, ends);
+        });
+    }
+
+    @Test
+    public void testRecordsSpanningSegmentsReadConcurrently() throws IOException {
+        int hubCount = 200;
+        try (HubIndexFile.Writer writer = HubIndexFile.writer(file.getPath(), 3)) {
+            for (int hub = hubCount - 1; hub >= 0; hub--) {
+                long[] endNodes = {hub, hub + 300L, hub + (1L << 35)};
+                writer.add(hub, HubIndexFile.encodeRecord(hub * 31L, new int[][]{{0, hub}, {1, 2, 3, hub}}, new long[][]{endNodes, {hub}}));
+            }
+        }
+
+        HubIndexFile.Reader reader = HubIndexFile.reader(file.getPath(), 16);
+        assertEquals(hubCount, reader.size());
+        IntStream.range(0, 4 * hubCount).parallel().forEach(i -> {
+            int hub = i % hubCount;
+            int index = reader.find(hub);
+            assertEquals(hub, index);
+            assertEquals(hub * 31L, reader.fingerprint(index));
+            List<String> entries = new ArrayList<>();
+            reader.forEachEntry(index, (metaPath, endNodes) -> entries.add(Arrays.toString(metaPath) + Arrays.toString(endNodes)));
+            assertEquals(Arrays.asList(
+                    Arrays.toString(new int[]{0, hub}) + Arrays.toString(new long[]{hub, hub + 300L, hub + (1L << 35)}),
+                    Arrays.toString(new int[]{1, 2, 3, hub}) + Arrays.toString(new long[]{hub})), entries);
+        });
+    }
+
+    @Test
+    public void testTerminatedBuildKeepsPreviousIndex() throws IOException {
+        int[] hubs = HubSelection.of(graph, Math.toIntExact(graph.nodeCount()), Pools.DEFAULT, 4).topK(2);
+        new HubIndexBuilder(graph, graph, 2, Pools.DEFAULT, 2).build(hubs, file.getPath(), null);
+        byte[] complete = Files.readAllBytes(file.toPath());
+
+        HubIndexBuilder terminated = new HubIndexBuilder(graph, graph, 3, Pools.DEFAULT, 2);
+        terminated.withTerminationFlag(() -> false);
+        HubIndexBuilder.Result result = terminated.build(hubs, file.getPath(), null);
+
+        assertFalse(result.isWritten());
+        assertEquals(0, result.getHubCount());
+        assertArrayEquals(complete, Files.readAllBytes(file.toPath()));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void testRefreshOnlyChangedHubs() throws IOException {
+        int[] hubs = HubSelection.of(graph, Math.toIntExact(graph.nodeCount()), Pools.DEFAULT, 4).topK(2);
+        HubIndexBuilder.Result result = new HubIndexBuilder(graph, graph, 2, Pools.DEFAULT, 2).build(hubs, file.getPath(), file.getPath());
+        assertEquals(2, result.getRecomputedCount());
+
+        result = new HubIndexBuilder(graph, graph, 2, Pools.DEFAULT, 2).build(hubs, file.getPath(), file.getPath());
+        assertEquals(0, result.getRecomputedCount());
+        assertEquals(2, result.getReusedCount());
+
+        // a different meta-path length invalidates all hubs
+        File otherFile = File.createTempFile("Precomputed_MetaPaths_HighDegree", ".bin");
+        try {
+            result = new HubIndexBuilder(graph, graph, 3, Pools.DEFAULT, 2).build(hubs, otherFile.getPath(), file.getPath());
+            assertEquals(2, result.getRecomputedCount());
+        } finally {
+            otherFile.delete();
+        }
+
+        try (Transaction tx = api.beginTx()) {
+            api.execute("MATCH (i {name:'i'}), (s {name:'s'}) CREATE (i)-[:TYPE1]->(s)");
+            tx.success();
+        }
+        try {
+            graph = loadGraph();
+            hubs = new int[]{nodeId("s"), nodeId("t")};
+            result = new HubIndexBuilder(graph, graph, 2, Pools.DEFAULT, 2).build(hubs, file.getPath(), file.getPath());
+            assertEquals(1, result.getRecomputedCount());
+            assertEquals(1, result.getReusedCount());
+
+            HubIndexFile.Reader reader = HubIndexFile.reader(file.getPath());
+            int s = reader.find(originalNodeId("s"));
+            boolean[] reachesI = {false};
+            reader.forEachEntry(s, (metaPath, endNodes) -> reachesI[0] |= Arrays.binarySearch(endNodes, originalNodeId("i")) >= 0);
+            assertTrue(reachesI[0]);
+        } finally {
+            try (Transaction tx = api.beginTx()) {
+                api.execute("MATCH ({name:'i'})-[r]->({name:'s'}) DELETE r");
+                tx.success();
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package org.neo4j.graphalgo.impl.metaPathComputationTests;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.impl.metaPathComputation.InstanceMetaPaths;
+import org.neo4j.graphalgo.metaPathComputationProcs.ComputeAllMetaPathsForInstancesProc;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InstanceMetaPathsTest {
+
+    private static GraphDatabaseAPI api;
+    private static HeavyGraph graph;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        final String cypher =
+                "CREATE (a:A {name:\"a\"})\n" +
+                        "CREATE (b:B {name:\"b\"})\n" +
+                        "CREATE (c:A {name:\"c\"})\n" +
+                        "CREATE (i:A {name:\"i\"})\n" +
+                        "CREATE (k:B {name:\"k\"})\n" +
+                        "CREATE (o:A {name:\"o\"})\n" +
+                        "CREATE (s:C {name:\"s\"})\n" +
+                        "CREATE (t:C {name:\"t\"})\n" +
+                        "CREATE\n" +
+                        "  (a)-[:TYPE1]->(t),\n" +
+                        "  (a)-[:TYPE1]->(c),\n" +
+                        "  (a)-[:TYPE1]->(b),\n" +
+                        "  (a)-[:TYPE1]->(s),\n" +
+                        "  (b)-[:TYPE1]->(s),\n" +
+                        "  (b)-[:TYPE1]->(t),\n" +
+                        "  (c)-[:TYPE1]->(s),\n" +
+                        "  (c)-[:TYPE1]->(b),\n" +
+                        "  (i)-[:TYPE1]->(t),\n" +
+                        "  (t)-[:TYPE2]->(s),\n" +
+                        "  (t)-[:TYPE2]->(o),\n" +
+                        "  (k)-[:TYPE2]->(s)\n";
+
+        api = TestDatabaseCreator.createTestDatabase();
+
+        api.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(ComputeAllMetaPathsForInstancesProc.class);
+
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+
+        graph = (HeavyGraph) new GraphLoader(api)
+                .asUndirected(true)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        api.shutdown();
+    }
+
+    @Test
+    public void testCountsPerTarget() {
+        List<InstanceMetaPaths.Row> rows = new InstanceMetaPaths(graph, 3).compute(0);
+
+        Map<String, Long> counts = new HashMap<>();
+        for (InstanceMetaPaths.Row row : rows) {
+            assertEquals(0, row.startNode);
+            counts.put(row.endNode + ":" + join(row.metaPath), row.count);
+        }
+
+        // a -> s directly and over c, b and t
+        assertEquals(Long.valueOf(1), counts.get("6:0 | 0 | 2"));
+        assertEquals(Long.valueOf(1), counts.get("6:0 | 0 | 0 | 0 | 2"));
+        assertEquals(Long.valueOf(1), counts.get("6:0 | 0 | 1 | 0 | 2"));
+        assertEquals(Long.valueOf(1), counts.get("6:0 | 0 | 2 | 1 | 2"));
+        // a -> a over t and over s
+        assertEquals(Long.valueOf(2), counts.get("0:0 | 0 | 2 | 0 | 0"));
+    }
+
+    @Test
+    public void testMetaPathsBetweenInstances() {
+        InstanceMetaPaths algo = new InstanceMetaPaths(graph, 4).withEndNodes(new int[]{1, 5});
+        Set<String> metaPaths = new HashSet<>();
+        for (int startNode : new int[]{0, 4}) {
+            for (InstanceMetaPaths.Row row : algo.compute(startNode)) {
+                metaPaths.add(join(row.metaPath));
+            }
+        }
+
+        HashSet<String> allExpectedMetaPaths = new HashSet<>(Arrays.asList("1 | 1 | 2 | 1 | 2 | 1 | 0", "1 | 1 | 2 | 1 | 2 | 0 | 1", "1 | 1 | 2 | 0 | 0 | 0 | 1",
+                "0 | 0 | 1 | 0 | 0 | 0 | 1", "0 | 0 | 0 | 0 | 0 | 0 | 1", "0 | 0 | 2 | 1 | 2 | 0 | 1", "0 | 0 | 0 | 0 | 2 | 0 | 1", "0 | 0 | 1 | 0 | 2 | 0 | 1",
+                "0 | 0 | 2 | 0 | 0 | 0 | 1", "0 | 0 | 1 | 0 | 2 | 1 | 0", "0 | 0 | 2 | 1 | 2 | 1 | 0",
+                "1 | 1 | 2 | 0 | 1", "0 | 0 | 0 | 0 | 1", "0 | 0 | 2 | 0 | 1", "0 | 0 | 1", "0 | 0 | 2 | 1 | 0"));
+
+        assertEquals(allExpectedMetaPaths, metaPaths);
+    }
+
+    @Test
+    public void testParallelStreamEqualsSequential() {
+        int[] startNodes = {0, 1, 2, 3, 4, 5, 6, 7};
+        List<String> expected = new ArrayList<>();
+        for (int startNode : startNodes) {
+            new InstanceMetaPaths(graph, 4).compute(startNode).forEach(row -> expected.add(toString(row)));
+        }
+
+        List<String> streamed;
+        try (Stream<InstanceMetaPaths.Row> rows = new InstanceMetaPaths(graph, 4)
+                .withConcurrency(Pools.DEFAULT, 4)
+                .withBatchSize(1)
+                .resultStream(startNodes)) {
+            streamed = rows.map(InstanceMetaPathsTest::toString).collect(Collectors.toList());
+        }
+
+        Collections.sort(expected);
+        Collections.sort(streamed);
+        assertEquals(expected, streamed);
+    }
+
+    @Test(timeout = 30_000)
+    public void testStreamTerminatedPartway() {
+        int[] startNodes = {0, 1, 2, 3, 4, 5, 6, 7};
+        AtomicBoolean running = new AtomicBoolean(true);
+        InstanceMetaPaths algo = new InstanceMetaPaths(graph, 4)
+                .withConcurrency(Pools.DEFAULT, 4)
+                .withBatchSize(1);
+        algo.withTerminationFlag(running::get);
+
+        try (Stream<InstanceMetaPaths.Row> rows = algo.resultStream(startNodes)) {
+            Iterator<InstanceMetaPaths.Row> iterator = rows.iterator();
+            assertTrue(iterator.hasNext());
+            iterator.next();
+            running.set(false);
+            while (iterator.hasNext()) {
+                iterator.next();
+            }
+        }
+    }
+
+    @Test
+    public void testStreamProc() {
+        long a = nodeId("a");
+        long s = nodeId("s");
+        Map<String, Long> counts = new HashMap<>();
+        api.execute("CALL algo.computeAllMetaPathsForInstances.stream('{" + a + "}', '{" + s + "}', '3')").accept(row -> {
+            assertEquals(a, row.getNumber("startNode").longValue());
+            assertEquals(s, row.getNumber("endNode").longValue());
+            List<?> metaPath = (List<?>) row.get("metaPath");
+            counts.put(metaPath.stream().map(Object::toString).collect(Collectors.joining(" | ")), row.getNumber("count").longValue());
+            return true;
+        });
+
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("0 | 0 | 2", 1L);
+        expected.put("0 | 0 | 0 | 0 | 2", 1L);
+        expected.put("0 | 0 | 1 | 0 | 2", 1L);
+        expected.put("0 | 0 | 2 | 1 | 2", 1L);
+        assertEquals(expected, counts);
+    }
+
+    private static long nodeId(String name) {
+        return api.execute("MATCH (n {name:'" + name + "'}) RETURN id(n) AS id")
+                .<Number>columnAs("id").next().longValue();
+    }
+
+    private static String toString(InstanceMetaPaths.Row row) {
+        return row.startNode + "->" + row.endNode + ":" + join(row.metaPath) + "=" + row.count;
+    }
+
+    private static String join(int[] metaPath) {
+        return Arrays.stream(metaPath).mapToObj(Integer::toString).collect(Collectors.joining(" | "));
+    }
+}
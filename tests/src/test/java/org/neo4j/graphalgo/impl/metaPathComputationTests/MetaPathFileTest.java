@@ -0,0 +1,125 @@
+package org.neo4j.graphalgo.impl.metaPathComputationTests;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathFile;
+import org.neo4j.graphalgo.impl.metaPathComputation.ReadPrecomputedMetaPaths;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetaPathFileTest {
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("Precomputed_MetaPaths", ".bin");
+        try (MetaPathFile.Writer writer = MetaPathFile.writer(file.getPath())) {
+            writer.add(new int[]{0}, 4);
+            writer.add(new int[]{0, 1, 2}, 13);
+            writer.add(new int[]{300, 0, 70000}, 5_000_000_000L);
+        }
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void testRandomAccess() throws IOException {
+        MetaPathFile.Reader reader = MetaPathFile.reader(file.getPath());
+
+        assertEquals(3, reader.size());
+        assertArrayEquals(new int[]{300, 0, 70000}, reader.metaPath(2));
+        assertEquals(5_000_000_000L, reader.count(2));
+        assertArrayEquals(new int[]{0}, reader.metaPath(0));
+        assertEquals(13, reader.count(1));
+    }
+
+    @Test
+    public void testEntriesSpanningSegments() throws IOException {
+        MetaPathFile.Reader reader = MetaPathFile.reader(file.getPath(), 8);
+
+        assertEquals(3, reader.size());
+        assertArrayEquals(new int[]{300, 0, 70000}, reader.metaPath(2));
+        assertEquals(5_000_000_000L, reader.count(2));
+        List<Long> counts = new ArrayList<>();
+        reader.forEach((metaPath, count) -> counts.add(count));
+        assertEquals(Arrays.asList(4L, 13L, 5_000_000_000L), counts);
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        File largeFile = File.createTempFile("Precomputed_MetaPaths", ".bin");
+        try {
+            try (MetaPathFile.Writer writer = MetaPathFile.writer(largeFile.getPath())) {
+                for (int i = 0; i < 10_000; i++) {
+                    writer.add(new int[]{i, i % 7, i * 3}, i * 1000L);
+                }
+            }
+            MetaPathFile.Reader reader = MetaPathFile.reader(largeFile.getPath(), 1024);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(Pools.DEFAULT.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        assertArrayEquals(new int[]{i, i % 7, i * 3}, reader.metaPath(i));
+                        assertEquals(i * 1000L, reader.count(i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            largeFile.delete();
+        }
+    }
+
+    @Test
+    public void testForEach() throws IOException {
+        List<int[]> metaPaths = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        MetaPathFile.reader(file.getPath()).forEach((metaPath, count) -> {
+            metaPaths.add(metaPath);
+            counts.add(count);
+        });
+
+        assertEquals(3, metaPaths.size());
+        assertArrayEquals(new int[]{0, 1, 2}, metaPaths.get(1));
+        assertEquals(4L, (long) counts.get(0));
+    }
+
+    @Test
+    public void testReadPrecomputedMetaPaths() {
+        assertTrue(MetaPathFile.isMetaPathFile(file.getPath()));
+        HashMap<String, Long> metaPaths = new ReadPrecomputedMetaPaths().readMetaPaths(file.getPath()).getMetaPathsDict();
+
+        assertEquals(3, metaPaths.size());
+        assertEquals(13L, (long) metaPaths.get("0 | 1 | 2"));
+        assertEquals(5_000_000_000L, (long) metaPaths.get("300 | 0 | 70000"));
+    }
+
+    @Test
+    public void testTextFileIsNoMetaPathFile() throws IOException {
+        File textFile = File.createTempFile("Precomputed_MetaPaths", ".txt");
+        try {
+            assertFalse(MetaPathFile.isMetaPathFile(textFile.getPath()));
+        } finally {
+            textFile.delete();
+        }
+    }
+}
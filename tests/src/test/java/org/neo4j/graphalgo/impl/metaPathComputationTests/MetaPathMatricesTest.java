@@ -0,0 +1,240 @@
+package org.neo4j.graphalgo.impl.metaPathComputationTests;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathMatrices;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathPruning;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathTrie;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MetaPathMatricesTest {
+
+    private static GraphDatabaseAPI api;
+    private HeavyGraph graph;
+    private MetaPathMatrices matrices;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        final String cypher =
+                "CREATE (a:A {name:\"a\"})\n" +
+                        "CREATE (b:B {name:\"b\"})\n" +
+                        "CREATE (c:A {name:\"c\"})\n" +
+                        "CREATE (s:C {name:\"s\"})\n" +
+                        "CREATE (t:C {name:\"t\"})\n" +
+                        "CREATE\n" +
+                        "  (a)-[:TYPE1]->(t),\n" +
+                        "  (a)-[:TYPE1]->(s),\n" +
+                        "  (a)-[:TYPE1]->(c),\n" +
+                        "  (b)-[:TYPE1]->(s),\n" +
+                        "  (c)-[:TYPE1]->(s),\n" +
+                        "  (t)-[:TYPE2]->(s),\n" +
+                        "  (b)-[:TYPE2]->(t)\n";
+
+        api = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        api.shutdown();
+    }
+
+    @Before
+    public void setupMatrices() {
+        graph = (HeavyGraph) new GraphLoader(api)
+                .asUndirected(true)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+        matrices = MetaPathMatrices.build(graph, Math.toIntExact(graph.nodeCount()), Pools.DEFAULT, 2);
+    }
+
+    private int nodeId(String name) {
+        long id = (long) api.execute("MATCH (n {name:'" + name + "'}) RETURN id(n) AS id").next().get("id");
+        return graph.toMappedNodeId(id);
+    }
+
+    private int row(String name) {
+        int nodeId = nodeId(name);
+        IntBuffer nodes = matrices.nodesWithLabel(graph.getLabel(nodeId));
+        int[] sorted = new int[nodes.limit()];
+        nodes.get(sorted);
+        return Arrays.binarySearch(sorted, nodeId);
+    }
+
+    @Test
+    public void testTypedMatrices() {
+        int labelA = graph.getLabel(nodeId("a"));
+        int labelB = graph.getLabel(nodeId("b"));
+        int labelC = graph.getLabel(nodeId("s"));
+        int type1 = graph.getEdgeLabel(nodeId("a"), nodeId("s"));
+        int type2 = graph.getEdgeLabel(nodeId("t"), nodeId("s"));
+
+        MetaPathMatrices.Matrix aToC = matrices.matrix(labelA, type1, labelC);
+        assertEquals(2, aToC.rows());
+        assertEquals(2, aToC.columns());
+        assertEquals(3, aToC.entries());
+        assertEquals(2, aToC.rowSum(row("a")));
+        assertEquals(1, aToC.rowSum(row("c")));
+
+        // both directions of an undirected relationship are stored
+        assertEquals(2, matrices.matrix(labelC, type1, labelA).rowSum(row("s")));
+        assertEquals(2, matrices.matrix(labelC, type2, labelC).entries());
+        assertNull(matrices.matrix(labelA, type2, labelC));
+        assertNull(matrices.matrix(labelB, type1, labelB));
+    }
+
+    @Test
+    public void testCountsMatchCommutingMatrices() {
+        MetaPathTrie trie = new MetaPathTrie();
+        Pools.FJ_POOL.invoke(matrices.countAll(3, () -> true, trie::add));
+
+        int labelA = graph.getLabel(nodeId("a"));
+        int labelC = graph.getLabel(nodeId("s"));
+        int type1 = graph.getEdgeLabel(nodeId("a"), nodeId("s"));
+        assertEquals(2, trie.count(new int[]{labelA}));
+        // a-t, a-s, c-s
+        assertEquals(3, trie.count(new int[]{labelA, type1, labelC}));
+        // a-s-a, a-s-c, a-t-a, c-s-a, c-s-c
+        assertEquals(5, trie.count(new int[]{labelA, type1, labelC, type1, labelA}));
+
+        trie.forEach((metaPath, count) -> {
+            assertEquals(Arrays.toString(metaPath), count, matrices.count(metaPath));
+            MetaPathMatrices.Matrix commuting = matrices.commutingMatrix(metaPath, Pools.DEFAULT, 2);
+            long sum = 0;
+            for (int row = 0; row < commuting.rows(); row++) {
+                sum += commuting.rowSum(row);
+            }
+            assertEquals(Arrays.toString(metaPath), count, sum);
+        });
+    }
+
+    @Test
+    public void testSupportPruningMatchesSupport() {
+        MetaPathTrie all = new MetaPathTrie();
+        Pools.FJ_POOL.invoke(matrices.countAll(4, () -> true, all::add));
+
+        for (int minCount = 1; minCount <= 3; minCount++) {
+            MetaPathTrie frequent = new MetaPathTrie();
+            Pools.FJ_POOL.invoke(matrices.countAll(4, MetaPathPruning.of(minCount, 0, null, null), () -> true, frequent::add));
+
+            Set<String> expected = new HashSet<>();
+            long min = minCount;
+            all.forEach((metaPath, count) -> {
+                if (matrices.support(metaPath) >= min) {
+                    expected.add(Arrays.toString(metaPath) + "=" + count);
+                }
+            });
+            Set<String> actual = new HashSet<>();
+            frequent.forEach((metaPath, count) -> actual.add(Arrays.toString(metaPath) + "=" + count));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testDepthFirstCountsOnSingleWorker() {
+        MetaPathTrie parallel = new MetaPathTrie();
+        Pools.FJ_POOL.invoke(matrices.countAll(5, () -> true, parallel::add));
+
+        // one worker counts most extensions depth first in reused vectors
+        MetaPathTrie single = new MetaPathTrie();
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            pool.invoke(matrices.countAll(5, () -> true, single::add));
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(parallel.size(), single.size());
+        single.forEach((metaPath, count) -> {
+            assertEquals(parallel.count(metaPath), count);
+            assertEquals(matrices.count(metaPath), count);
+        });
+    }
+
+    @Test
+    public void testSupportPruningOnManyStartRows() {
+        GraphDatabaseAPI large = TestDatabaseCreator.createTestDatabase();
+        try {
+            try (Transaction tx = large.beginTx()) {
+                large.execute("UNWIND range(0, 999) AS i CREATE (:B {id: i})").close();
+                large.execute("UNWIND range(0, 199) AS i CREATE (:C {id: i})").close();
+                large.execute("MATCH (b:B) WITH collect(b) AS bs MATCH (c:C) WITH bs, collect(c) AS cs\n" +
+                        "UNWIND range(0, 4999) AS i\n" +
+                        "CREATE (a:A {id: i})\n" +
+                        "FOREACH (b IN CASE WHEN i % 3 <> 0 THEN [bs[(i * 7) % 1000]] ELSE [] END | CREATE (a)-[:TYPE1]->(b))\n" +
+                        "FOREACH (c IN CASE WHEN i % 5 = 0 THEN [cs[i % 200]] ELSE [] END | CREATE (a)-[:TYPE2]->(c))\n" +
+                        "FOREACH (b IN CASE WHEN i < 1000 AND i % 4 <> 0 THEN [bs[i]] ELSE [] END | FOREACH (c IN [cs[(i * 13) % 200]] | CREATE (b)-[:TYPE1]->(c)))").close();
+                tx.success();
+            }
+            HeavyGraph largeGraph = (HeavyGraph) new GraphLoader(large)
+                    .asUndirected(true)
+                    .withLabelAsProperty(true)
+                    .load(HeavyGraphFactory.class);
+            MetaPathMatrices largeMatrices = MetaPathMatrices.build(largeGraph, Math.toIntExact(largeGraph.nodeCount()), Pools.DEFAULT, 2);
+
+            MetaPathTrie all = new MetaPathTrie();
+            Pools.FJ_POOL.invoke(largeMatrices.countAll(4, () -> true, all::add));
+
+            for (long minCount : new long[]{1, 700, 3000}) {
+                MetaPathTrie frequent = new MetaPathTrie();
+                Pools.FJ_POOL.invoke(largeMatrices.countAll(4, MetaPathPruning.of(minCount, 0, null, null), () -> true, frequent::add));
+
+                Set<String> expected = new HashSet<>();
+                all.forEach((metaPath, count) -> {
+                    if (largeMatrices.support(metaPath) >= minCount) {
+                        expected.add(Arrays.toString(metaPath) + "=" + count);
+                    }
+                });
+                Set<String> actual = new HashSet<>();
+                frequent.forEach((metaPath, count) -> actual.add(Arrays.toString(metaPath) + "=" + count));
+                assertEquals(expected, actual);
+                assertTrue(!actual.isEmpty() && (minCount == 1 || actual.size() < all.size()));
+            }
+        } finally {
+            large.shutdown();
+        }
+    }
+
+    @Test
+    public void testCommutingMatrixEntries() {
+        int labelA = graph.getLabel(nodeId("a"));
+        int labelC = graph.getLabel(nodeId("s"));
+        int type1 = graph.getEdgeLabel(nodeId("a"), nodeId("s"));
+
+        MetaPathMatrices.Matrix commuting = matrices.commutingMatrix(new int[]{labelA, type1, labelC, type1, labelA}, Pools.DEFAULT, 2);
+        Map<Integer, Long> fromA = new HashMap<>();
+        commuting.forEachInRow(row("a"), fromA::put);
+        // a reaches itself through s and t, and c through s
+        assertEquals(Long.valueOf(2), fromA.get(row("a")));
+        assertEquals(Long.valueOf(1), fromA.get(row("c")));
+        // a-c-a-c and c-a-c-a
+        assertEquals(2, matrices.count(new int[]{labelA, type1, labelA, type1, labelA, type1, labelA}));
+        // there is no relationship of type 2 at a node with label A
+        int type2 = graph.getEdgeLabel(nodeId("t"), nodeId("s"));
+        assertEquals(0, matrices.count(new int[]{labelC, type1, labelA, type2, labelC}));
+        assertEquals(0, matrices.commutingMatrix(new int[]{labelC, type1, labelA, type2, labelC}, Pools.DEFAULT, 2).entries());
+    }
+}
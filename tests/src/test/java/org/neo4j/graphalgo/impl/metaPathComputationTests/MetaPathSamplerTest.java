@@ -0,0 +1,135 @@
+package org.neo4j.graphalgo.impl.metaPathComputationTests;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathMatrices;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathSampler;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetaPathSamplerTest {
+
+    private static GraphDatabaseAPI api;
+    private MetaPathMatrices matrices;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        // 1000 authors writing papers in 20 venues, the number of papers varies between authors
+        final String cypher =
+                "UNWIND range(0, 19) AS v CREATE (:Venue {id: v})\n" +
+                        "WITH count(*) AS venues\n" +
+                        "UNWIND range(0, 999) AS a\n" +
+                        "CREATE (author:Author {id: a})\n" +
+                        "WITH author, a\n" +
+                        "UNWIND range(0, a % 7) AS p\n" +
+                        "MATCH (venue:Venue {id: (a * 31 + p * 17) % 20})\n" +
+                        "CREATE (author)-[:WRITES]->(:Paper)-[:IN]->(venue)";
+
+        api = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        api.shutdown();
+    }
+
+    @Before
+    public void setupMatrices() {
+        HeavyGraph graph = (HeavyGraph) new GraphLoader(api)
+                .asUndirected(true)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+        matrices = MetaPathMatrices.build(graph, Math.toIntExact(graph.nodeCount()), Pools.DEFAULT, 2);
+    }
+
+    @Test
+    public void testFullSampleIsExact() {
+        List<MetaPathSampler.Estimate> estimates = new MetaPathSampler(matrices, 3, Pools.DEFAULT, 4, () -> true)
+                .estimate(100_000, 0.0, 1L);
+
+        assertFalse(estimates.isEmpty());
+        for (MetaPathSampler.Estimate estimate : estimates) {
+            assertTrue(estimate.isExact());
+            assertEquals(matrices.count(estimate.metaPath), estimate.count, 0.0);
+            assertEquals(estimate.count, estimate.lowerBound, 0.0);
+            assertEquals(estimate.count, estimate.upperBound, 0.0);
+        }
+    }
+
+    @Test
+    public void testTerminatedSamplingHasNoEstimates() {
+        AtomicInteger checks = new AtomicInteger();
+        List<MetaPathSampler.Estimate> estimates = new MetaPathSampler(matrices, 3, Pools.DEFAULT, 4, () -> checks.incrementAndGet() < 20)
+                .estimate(100_000, 0.0, 1L);
+
+        assertTrue(estimates.isEmpty());
+    }
+
+    @Test
+    public void testConfidenceIntervals() {
+        List<MetaPathSampler.Estimate> estimates = new MetaPathSampler(matrices, 5, Pools.DEFAULT, 4, () -> true)
+                .estimate(200, 0.0, 42L);
+
+        int covered = 0;
+        for (MetaPathSampler.Estimate estimate : estimates) {
+            assertTrue(estimate.lowerBound <= estimate.count && estimate.count <= estimate.upperBound);
+            long exact = matrices.count(estimate.metaPath);
+            if (estimate.lowerBound <= exact && exact <= estimate.upperBound) {
+                covered++;
+            }
+        }
+        // 95% intervals, allow for some misses
+        assertTrue(covered + " of " + estimates.size(), covered >= 0.8 * estimates.size());
+    }
+
+    @Test
+    public void testTargetErrorGrowsTheSample() {
+        List<MetaPathSampler.Estimate> fixed = new MetaPathSampler(matrices, 3, Pools.DEFAULT, 4, () -> true)
+                .estimate(50, 0.0, 7L);
+        List<MetaPathSampler.Estimate> targeted = new MetaPathSampler(matrices, 3, Pools.DEFAULT, 4, () -> true)
+                .estimate(50, 0.05, 7L);
+
+        int author = authorLabel();
+        assertEquals(50, find(fixed, author).sampledNodes);
+        assertTrue(find(targeted, author).sampledNodes > 50);
+        for (MetaPathSampler.Estimate estimate : targeted) {
+            if (estimate.metaPath.length == 3 && estimate.metaPath[0] == author && !estimate.isExact()) {
+                assertTrue(Arrays.toString(estimate.metaPath),
+                        estimate.upperBound - estimate.count <= 0.05 * estimate.count);
+            }
+        }
+    }
+
+    private int authorLabel() {
+        return Arrays.stream(matrices.nodeLabels())
+                .filter(label -> matrices.nodesWithLabel(label).limit() == 1000)
+                .findFirst()
+                .getAsInt();
+    }
+
+    private static MetaPathSampler.Estimate find(List<MetaPathSampler.Estimate> estimates, int label) {
+        return estimates.stream()
+                .filter(estimate -> Arrays.equals(estimate.metaPath, new int[]{label}))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no estimate for label " + label));
+    }
+}
@@ -0,0 +1,226 @@
+package org.neo4j.graphalgo.impl.metaPathComputationTests;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathMatrices;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathSimilarity;
+import org.neo4j.graphalgo.metaPathComputationProcs.MetaPathSimilarityProc;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * authors a1, a2 and a3 wrote papers p1 to p3, p1 and p2 cite p3
+ */
+public class MetaPathSimilarityTest {
+
+    private static GraphDatabaseAPI api;
+    private HeavyGraph graph;
+    private int author;
+    private int paper;
+    private int wrote;
+    private int cites;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        final String cypher =
+                "CREATE (a1:Author {name:\"a1\"})\n" +
+                        "CREATE (a2:Author {name:\"a2\"})\n" +
+                        "CREATE (a3:Author {name:\"a3\"})\n" +
+                        "CREATE (p1:Paper {name:\"p1\"})\n" +
+                        "CREATE (p2:Paper {name:\"p2\"})\n" +
+                        "CREATE (p3:Paper {name:\"p3\"})\n" +
+                        "CREATE\n" +
+                        "  (a1)-[:WROTE]->(p1),\n" +
+                        "  (a1)-[:WROTE]->(p2),\n" +
+                        "  (a2)-[:WROTE]->(p1),\n" +
+                        "  (a2)-[:WROTE]->(p2),\n" +
+                        "  (a3)-[:WROTE]->(p2),\n" +
+                        "  (a3)-[:WROTE]->(p3),\n" +
+                        "  (p1)-[:CITES]->(p3),\n" +
+                        "  (p2)-[:CITES]->(p3)\n";
+
+        api = TestDatabaseCreator.createTestDatabase();
+
+        api.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(MetaPathSimilarityProc.class);
+
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        api.shutdown();
+    }
+
+    @Before
+    public void setupGraph() {
+        graph = (HeavyGraph) new GraphLoader(api)
+                .asUndirected(true)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+        author = graph.getLabel(nodeId("a1"));
+        paper = graph.getLabel(nodeId("p1"));
+        wrote = graph.getEdgeLabel(nodeId("a1"), nodeId("p1"));
+        cites = graph.getEdgeLabel(nodeId("p1"), nodeId("p3"));
+    }
+
+    private int nodeId(String name) {
+        return graph.toMappedNodeId(originalNodeId(name));
+    }
+
+    private long originalNodeId(String name) {
+        return (long) api.execute("MATCH (n {name:'" + name + "'}) RETURN id(n) AS id").next().get("id");
+    }
+
+    private MetaPathSimilarity.Result compute(MetaPathSimilarity.Measure measure, int topK, int... metaPath) {
+        return new MetaPathSimilarity(graph, Math.toIntExact(graph.nodeCount()), metaPath)
+                .withMeasure(measure)
+                .withTopK(topK)
+                .withConcurrency(Pools.DEFAULT, 4)
+                .withBatchSize(1)
+                .compute();
+    }
+
+    @Test
+    public void testPathSim() {
+        MetaPathSimilarity.Result result = compute(MetaPathSimilarity.Measure.PATH_SIM, 2, author, wrote, paper, wrote, author);
+
+        // a1 and a2 wrote the same papers, a3 shares one of two papers with each of them
+        assertArrayEquals(new int[]{nodeId("a2"), nodeId("a3")}, result.similarNodes(nodeId("a1")));
+        assertArrayEquals(new double[]{1.0, 0.5}, result.scores(nodeId("a1")), 1e-9);
+        assertArrayEquals(new double[]{0.5, 0.5}, result.scores(nodeId("a3")), 1e-9);
+        assertNull(result.similarNodes(nodeId("p1")));
+        assertEquals(3, result.nodeCount());
+
+        MetaPathSimilarity.Result top1 = compute(MetaPathSimilarity.Measure.PATH_SIM, 1, author, wrote, paper, wrote, author);
+        assertArrayEquals(new int[]{nodeId("a1")}, top1.similarNodes(nodeId("a2")));
+    }
+
+    @Test
+    public void testPathSimMatchesCommutingMatrix() {
+        int[] metaPath = {author, wrote, paper, cites, paper, wrote, author};
+        MetaPathSimilarity.Result result = compute(MetaPathSimilarity.Measure.PATH_SIM, 10, metaPath);
+
+        MetaPathMatrices matrices = MetaPathMatrices.build(graph, Math.toIntExact(graph.nodeCount()), Pools.DEFAULT, 2);
+        MetaPathMatrices.Matrix commuting = matrices.commutingMatrix(metaPath, Pools.DEFAULT, 2);
+        IntBuffer authors = matrices.nodesWithLabel(author);
+        long[][] counts = new long[authors.limit()][authors.limit()];
+        for (int row = 0; row < authors.limit(); row++) {
+            long[] rowCounts = counts[row];
+            commuting.forEachInRow(row, (column, count) -> rowCounts[column] += count);
+        }
+
+        for (int x = 0; x < authors.limit(); x++) {
+            Map<Integer, Double> expected = new HashMap<>();
+            for (int y = 0; y < authors.limit(); y++) {
+                if (x != y && counts[x][y] > 0) {
+                    expected.put(authors.get(y), 2.0 * counts[x][y] / (counts[x][x] + counts[y][y]));
+                }
+            }
+            int[] similarNodes = result.similarNodes(authors.get(x));
+            assertEquals(expected.size(), similarNodes.length);
+            for (int i = 0; i < similarNodes.length; i++) {
+                assertEquals(expected.get(similarNodes[i]), result.scores(authors.get(x))[i], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testHeteSim() {
+        // single relation: 1 / sqrt(degree(author) * degree(paper))
+        MetaPathSimilarity.Result authorPaper = compute(MetaPathSimilarity.Measure.HETE_SIM, 10, author, wrote, paper);
+        assertArrayEquals(new int[]{nodeId("p3"), nodeId("p2")}, authorPaper.similarNodes(nodeId("a3")));
+        assertArrayEquals(new double[]{1 / Math.sqrt(2), 1 / Math.sqrt(6)}, authorPaper.scores(nodeId("a3")), 1e-9);
+
+        // HeteSim is symmetric in the meta-path
+        MetaPathSimilarity.Result paperAuthor = compute(MetaPathSimilarity.Measure.HETE_SIM, 10, paper, wrote, author);
+        assertEquals(score(authorPaper, "a1", "p1"), score(paperAuthor, "p1", "a1"), 1e-9);
+        assertEquals(0.5, score(paperAuthor, "p1", "a1"), 1e-9);
+
+        MetaPathSimilarity.Result authorAuthor = compute(MetaPathSimilarity.Measure.HETE_SIM, 10, author, wrote, paper, wrote, author);
+        assertEquals(1.0, score(authorAuthor, "a1", "a2"), 1e-9);
+        assertEquals(0.5, score(authorAuthor, "a1", "a3"), 1e-9);
+    }
+
+    @Test
+    public void testResultStreamMatchesResult() {
+        int[] metaPath = {author, wrote, paper, wrote, author};
+        for (MetaPathSimilarity.Measure measure : MetaPathSimilarity.Measure.values()) {
+            MetaPathSimilarity.Result result = compute(measure, 2, metaPath);
+            Map<String, Double> expected = new HashMap<>();
+            result.stream().forEach(row -> expected.put(row.sourceNode + "->" + row.targetNode, row.score));
+
+            Map<String, Double> actual = new HashMap<>();
+            new MetaPathSimilarity(graph, Math.toIntExact(graph.nodeCount()), metaPath)
+                    .withMeasure(measure)
+                    .withTopK(2)
+                    .withConcurrency(Pools.DEFAULT, 4)
+                    .withBatchSize(1)
+                    .resultStream()
+                    .forEach(row -> actual.put(row.sourceNode + "->" + row.targetNode, row.score));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPathSimNeedsSymmetricMetaPath() {
+        compute(MetaPathSimilarity.Measure.PATH_SIM, 10, author, wrote, paper);
+    }
+
+    @Test
+    public void testStreamAndWriteProc() {
+        String metaPath = author + " | " + wrote + " | " + paper + " | " + wrote + " | " + author;
+        Map<Long, Double> fromA1 = new HashMap<>();
+        api.execute("CALL algo.metaPathSimilarity.stream('" + metaPath + "', 'pathSim', '2')").accept(row -> {
+            if (row.getNumber("sourceNode").longValue() == originalNodeId("a1")) {
+                fromA1.put(row.getNumber("targetNode").longValue(), row.getNumber("score").doubleValue());
+            }
+            return true;
+        });
+        assertEquals(2, fromA1.size());
+        assertEquals(1.0, fromA1.get(originalNodeId("a2")), 1e-9);
+        assertEquals(0.5, fromA1.get(originalNodeId("a3")), 1e-9);
+
+        api.execute("CALL algo.metaPathSimilarity('" + metaPath + "', 'pathSim', '2', '2', 'similarity')").accept(row -> {
+            assertEquals(3, row.getNumber("nodes").longValue());
+            return true;
+        });
+        try (Transaction tx = api.beginTx()) {
+            Node a1 = api.getNodeById(originalNodeId("a1"));
+            assertArrayEquals(new double[]{1.0, 0.5}, (double[]) a1.getProperty("similarity"), 1e-9);
+            assertArrayEquals(new long[]{originalNodeId("a2"), originalNodeId("a3")}, (long[]) a1.getProperty("similarityNodes"));
+            tx.success();
+        }
+    }
+
+    private double score(MetaPathSimilarity.Result result, String source, String target) {
+        int[] similarNodes = result.similarNodes(nodeId(source));
+        for (int i = 0; i < similarNodes.length; i++) {
+            if (similarNodes[i] == nodeId(target)) {
+                return result.scores(nodeId(source))[i];
+            }
+        }
+        return 0.0;
+    }
+}
@@ -0,0 +1,120 @@
+package org.neo4j.graphalgo.impl.metaPathComputationTests;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphalgo.impl.FilterMetaPaths;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathFile;
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathTrie;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetaPathTrieTest {
+
+    private MetaPathTrie trie;
+
+    @Before
+    public void setUp() {
+        trie = new MetaPathTrie(1);
+        trie.add(new int[]{1}, 3);
+        trie.add(new int[]{1, 0, 2}, 4);
+        trie.add(new int[]{1, 0, 1}, 5);
+        trie.add(new int[]{1, 0, 2, 1, 1}, 6);
+        trie.add(new int[]{2, 0, 1}, 7);
+    }
+
+    @Test
+    public void testLookup() {
+        assertEquals(5, trie.size());
+        assertTrue(trie.contains(new int[]{1, 0, 2}));
+        assertFalse(trie.contains(new int[]{1, 0}));
+        assertFalse(trie.contains(new int[]{3}));
+        assertEquals(6, trie.count(new int[]{1, 0, 2, 1, 1}));
+        assertEquals(0, trie.count(new int[]{1, 0, 2, 1}));
+
+        trie.add(new int[]{1, 0, 2}, 1);
+        assertEquals(5, trie.count(new int[]{1, 0, 2}));
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    public void testWeights() {
+        trie.setWeight(new int[]{2, 0, 1}, 0.5);
+        assertEquals(0.5, trie.weight(new int[]{2, 0, 1}), 0);
+        assertEquals(0.0, trie.weight(new int[]{1, 0, 1}), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWeightOfPrefixIsRejected() {
+        trie.setWeight(new int[]{1, 0}, 0.5);
+    }
+
+    @Test
+    public void testPrefixEnumerationIsSorted() {
+        List<int[]> metaPaths = new ArrayList<>();
+        trie.forEachWithPrefix(new int[]{1, 0}, (metaPath, count) -> metaPaths.add(metaPath));
+
+        assertEquals(3, metaPaths.size());
+        assertArrayEquals(new int[]{1, 0, 1}, metaPaths.get(0));
+        assertArrayEquals(new int[]{1, 0, 2}, metaPaths.get(1));
+        assertArrayEquals(new int[]{1, 0, 2, 1, 1}, metaPaths.get(2));
+    }
+
+    @Test
+    public void testStartEndLabelFilter() {
+        HashMap<String, Long> filtered = new HashMap<>();
+        trie.forEach(1, 1, (metaPath, count) -> filtered.put(Arrays.toString(metaPath), count));
+
+        assertEquals(3, filtered.size());
+        assertEquals(3L, (long) filtered.get("[1]"));
+        assertEquals(5L, (long) filtered.get("[1, 0, 1]"));
+        assertEquals(6L, (long) filtered.get("[1, 0, 2, 1, 1]"));
+    }
+
+    @Test
+    public void testFilterMetaPaths() throws FileNotFoundException {
+        HashMap<String, Long> filtered = new FilterMetaPaths().filter(trie, 2, 1).getFilteredMetaPathsDict();
+
+        assertEquals(1, filtered.size());
+        assertEquals(7L, (long) filtered.get("2 | 0 | 1"));
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        File textFile = File.createTempFile("Precomputed_MetaPaths", ".txt");
+        File binaryFile = File.createTempFile("Precomputed_MetaPaths", ".bin");
+        try {
+            try (PrintStream out = new PrintStream(textFile);
+                 MetaPathFile.Writer writer = MetaPathFile.writer(binaryFile.getPath())) {
+                trie.forEach((metaPath, count) -> {
+                    out.println(String.join(" | ", Arrays.stream(metaPath).mapToObj(Integer::toString).toArray(String[]::new)) + "\t" + count);
+                    try {
+                        writer.add(metaPath, count);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+
+            for (File file : new File[]{textFile, binaryFile}) {
+                MetaPathTrie loaded = MetaPathTrie.load(file.getPath());
+                assertEquals(trie.size(), loaded.size());
+                trie.forEach((metaPath, count) -> assertEquals(count, loaded.count(metaPath)));
+            }
+        } finally {
+            textFile.delete();
+            binaryFile.delete();
+        }
+    }
+}
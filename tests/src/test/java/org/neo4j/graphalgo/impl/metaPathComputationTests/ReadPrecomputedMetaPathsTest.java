@@ -3,11 +3,15 @@ package org.neo4j.graphalgo.impl.metaPathComputationTests;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.neo4j.graphalgo.impl.metaPathComputation.MetaPathFile;
 import org.neo4j.graphalgo.impl.metaPathComputation.ReadPrecomputedMetaPaths;
 
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
@@ -51,4 +55,17 @@ public class ReadPrecomputedMetaPathsTest {
         assertEquals(19, allMetaPaths.size());
     }
 
+    @Test(expected = UncheckedIOException.class)
+    public void testUnreadableBinaryFileFails() throws IOException {
+        File file = new File("TEMP_ReadPrecomputedMetaPathsTest.bin");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(MetaPathFile.MAGIC);
+            out.writeInt(MetaPathFile.VERSION + 1);
+        }
+        try {
+            algo.readMetaPaths(file.getPath());
+        } finally {
+            file.delete();
+        }
+    }
 }
@@ -0,0 +1,135 @@
+package org.neo4j.graphalgo.impl.metaPathComputationTests;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.impl.metaPathComputation.Pair;
+import org.neo4j.graphalgo.impl.metaPathComputation.getSchema.GetSchema;
+import org.neo4j.graphalgo.impl.metaPathComputation.getSchema.SchemaCache;
+import org.neo4j.graphalgo.impl.metaPathComputation.getSchema.SchemaFile;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaCacheTest {
+
+    private static GraphDatabaseAPI api;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        final String cypher =
+                "CREATE (a:A {name:\"a\"})\n" +
+                        "CREATE (b:B {name:\"b\"})\n" +
+                        "CREATE (c:C {name:\"c\"})\n" +
+                        "CREATE\n" +
+                        "  (a)-[:TYPE1]->(b),\n" +
+                        "  (b)-[:TYPE2]->(c)\n";
+
+        api = TestDatabaseCreator.createTestDatabase();
+
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        api.shutdown();
+    }
+
+    @Test
+    public void testCachedUntilNextTransaction() throws Exception {
+        File directory = folder.newFolder();
+        GetSchema.Result first = SchemaCache.get(api, directory);
+        assertEquals(first.getSchema(), SchemaCache.get(api, directory).getSchema());
+        assertEquals(3, first.getSchema().size());
+
+        try (Transaction tx = api.beginTx()) {
+            api.execute("MATCH (c:C) CREATE (c)-[:TYPE1]->(:D {name:\"d\"})");
+            tx.success();
+        }
+
+        GetSchema.Result second = SchemaCache.get(api, directory);
+        assertEquals(4, second.getSchema().size());
+        assertEquals(second.getSchema(), SchemaCache.get(api, directory).getSchema());
+    }
+
+    @Test
+    public void testCallersGetTheirOwnCopy() throws Exception {
+        File directory = folder.newFolder();
+        GetSchema.Result first = SchemaCache.get(api, directory);
+        int size = first.getSchema().size();
+        first.getSchema().clear();
+        first.getReverseLabelDictionary().clear();
+
+        GetSchema.Result second = SchemaCache.get(api, directory);
+        assertNotSame(first, second);
+        assertEquals(size, second.getSchema().size());
+        assertEquals(size, second.getReverseLabelDictionary().size());
+    }
+
+    @Test
+    public void testFileOutsideOfStoreDirectory() throws Exception {
+        File directory = folder.newFolder();
+        SchemaCache.invalidate(api);
+        SchemaCache.get(api, directory);
+
+        String fileName = SchemaCache.fileName(SchemaCache.Version.of(api));
+        assertTrue(new File(directory, fileName).isFile());
+        assertFalse(new File(api.getStoreDir(), fileName).exists());
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneComputation() throws Exception {
+        File directory = folder.newFolder();
+        SchemaCache.invalidate(api);
+        List<Future<GetSchema.Result>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(Pools.DEFAULT.submit(() -> SchemaCache.get(api, directory)));
+        }
+        GetSchema.Result expected = SchemaCache.get(api, directory);
+        for (Future<GetSchema.Result> future : futures) {
+            assertEquals(expected.getSchema(), future.get().getSchema());
+        }
+    }
+
+    @Test
+    public void testFileRoundTrip() throws Exception {
+        GetSchema.Result result = SchemaCache.get(api, folder.newFolder());
+        SchemaCache.Version version = SchemaCache.Version.of(api);
+        File file = folder.newFile();
+
+        SchemaFile.write(file, version, result);
+        GetSchema.Result read = SchemaFile.read(file, version);
+
+        assertEquals(result.getSchema(), read.getSchema());
+        assertEquals(result.getReverseLabelDictionary(), read.getReverseLabelDictionary());
+        assertEquals(result.getLabelDictionary(), read.getLabelDictionary());
+        for (int index = 0; index < read.getSchema().size(); index++) {
+            for (Pair pair : read.getSchema().get(index)) {
+                assertTrue(pair.first() < read.getSchema().size());
+            }
+        }
+
+        SchemaCache.Version later = new SchemaCache.Version(version.storeCreationTime(), version.storeRandomId(), version.transactionId() + 1);
+        assertNull(SchemaFile.read(file, later));
+    }
+}
@@ -0,0 +1,142 @@
+package org.neo4j.graphalgo.impl.metaPathComputationTests;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.impl.metaPathComputation.SchemaGraph;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaGraphTest {
+
+    private static GraphDatabaseAPI api;
+    private HashMap<Integer, String> labelNames;
+    private HashMap<Integer, String> typeNames;
+    private SchemaGraph schema;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        final String cypher =
+                "CREATE (a:A {name:\"a\"})\n" +
+                        "CREATE (b:B {name:\"b\"})\n" +
+                        "CREATE (c:A {name:\"c\"})\n" +
+                        "CREATE (s:C {name:\"s\"})\n" +
+                        "CREATE (t:C {name:\"t\"})\n" +
+                        "CREATE (d:D {name:\"d\"})\n" +
+                        "CREATE\n" +
+                        "  (a)-[:TYPE1]->(t),\n" +
+                        "  (a)-[:TYPE1]->(s),\n" +
+                        "  (a)-[:TYPE1]->(c),\n" +
+                        "  (b)-[:TYPE1]->(s),\n" +
+                        "  (c)-[:TYPE1]->(s),\n" +
+                        "  (t)-[:TYPE2]->(s),\n" +
+                        "  (b)-[:TYPE2]->(t)\n";
+
+        api = TestDatabaseCreator.createTestDatabase();
+        try (Transaction tx = api.beginTx()) {
+            api.execute(cypher);
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() throws Exception {
+        api.shutdown();
+    }
+
+    @Before
+    public void setupSchema() {
+        HeavyGraph graph = (HeavyGraph) new GraphLoader(api)
+                .asUndirected(true)
+                .withLabelAsProperty(true)
+                .load(HeavyGraphFactory.class);
+        labelNames = graph.getLabelIdToNameDict();
+        typeNames = SchemaGraph.relationshipTypeNames(api);
+        schema = SchemaGraph.build(graph, Math.toIntExact(graph.nodeCount()), Pools.DEFAULT, 3);
+    }
+
+    @Test
+    public void testCountsMatchUndirectedPatterns() {
+        assertEquals(4, schema.labels().length);
+        long total = 0;
+        for (int label : schema.labels()) {
+            List<String> edges = new ArrayList<>();
+            schema.forEachEdge(label, (edgeType, neighbourLabel, count) -> {
+                String pattern = "(:`" + labelNames.get(label) + "`)-[:`" + typeNames.get(edgeType) + "`]-(:`" + labelNames.get(neighbourLabel) + "`)";
+                long expected = (long) api.execute("MATCH " + pattern + " RETURN count(*) AS count").next().get("count");
+                assertEquals(pattern, expected, count);
+                assertEquals(count, schema.count(label, edgeType, neighbourLabel));
+                edges.add(pattern);
+            });
+            assertEquals(schema.degree(label), edges.size());
+            total += edges.size();
+        }
+        // A-1-A, A-1-C, B-1-C, B-2-C, C-1-A, C-1-B, C-2-B, C-2-C
+        assertEquals(8, total);
+        // every relationship is counted from both of its end nodes
+        assertEquals(14, schema.totalCount());
+    }
+
+    @Test
+    public void testLabelsWithoutRelationships() {
+        int labelD = labelId("D");
+        assertTrue(schema.containsLabel(labelD));
+        assertEquals(0, schema.degree(labelD));
+        assertEquals(0, schema.count(labelId("A"), typeId("TYPE2"), labelId("C")));
+        assertFalse(schema.containsLabel(-5));
+    }
+
+    @Test
+    public void testEdgeIndex() {
+        assertEquals(8, schema.edgeCount());
+        for (int edge = 0; edge < schema.edgeCount(); edge++) {
+            int label = schema.sourceLabel(edge);
+            assertEquals(edge, schema.edgeIndex(label, schema.edgeType(edge), schema.neighbourLabel(edge)));
+            assertEquals(schema.count(edge), schema.count(label, schema.edgeType(edge), schema.neighbourLabel(edge)));
+        }
+        assertEquals(-1, schema.edgeIndex(labelId("A"), typeId("TYPE2"), labelId("C")));
+        assertEquals(-1, schema.edgeIndex(labelId("D"), typeId("TYPE1"), labelId("A")));
+    }
+
+    @Test
+    public void testFromAdjacency() {
+        HashMap<Integer, HashSet<AbstractMap.SimpleEntry<Integer, Integer>>> adjacency = new HashMap<>();
+        adjacency.put(-1, new HashSet<>(Arrays.asList(new AbstractMap.SimpleEntry<>(-2, -10), new AbstractMap.SimpleEntry<>(-1, -10))));
+        adjacency.put(-2, new HashSet<>(Arrays.asList(new AbstractMap.SimpleEntry<>(-1, -10))));
+        SchemaGraph fromAdjacency = SchemaGraph.fromAdjacency(adjacency);
+
+        assertArrayEquals(new int[]{-2, -1}, fromAdjacency.labels());
+        List<Integer> neighbours = new ArrayList<>();
+        fromAdjacency.forEachEdge(-1, (edgeType, neighbourLabel, count) -> neighbours.add(neighbourLabel));
+        assertEquals(Arrays.asList(-2, -1), neighbours);
+        assertEquals(1, fromAdjacency.degree(-2));
+        assertFalse(fromAdjacency.hasCounts());
+        assertEquals(-1, fromAdjacency.sourceLabel(fromAdjacency.edgeIndex(-1, -10, -1)));
+    }
+
+    private int labelId(String name) {
+        return labelNames.entrySet().stream().filter(e -> name.equals(e.getValue())).findFirst().get().getKey();
+    }
+
+    private int typeId(String name) {
+        return typeNames.entrySet().stream().filter(e -> name.equals(e.getValue())).findFirst().get().getKey();
+    }
+}